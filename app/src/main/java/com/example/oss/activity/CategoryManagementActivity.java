@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.appcompat.widget.Toolbar;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -97,7 +98,7 @@ public class CategoryManagementActivity extends AppCompatActivity {
     }
 
     private void observeData() {
-        viewModel.getAllCategories().observe(this, categories -> {
+        viewModel.getCategories().observe(this, categories -> {
             adapter.submitList(categories);
         });
 
@@ -182,6 +183,24 @@ public class CategoryManagementActivity extends AppCompatActivity {
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_category_management, menu);
+
+        SearchView searchView = (SearchView) menu.findItem(R.id.action_search).getActionView();
+        if (searchView != null) {
+            searchView.setQueryHint("Tìm danh mục");
+            searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+                @Override
+                public boolean onQueryTextSubmit(String query) {
+                    viewModel.setSearchQuery(query);
+                    return true;
+                }
+
+                @Override
+                public boolean onQueryTextChange(String newText) {
+                    viewModel.setSearchQuery(newText);
+                    return true;
+                }
+            });
+        }
         return true;
     }
 
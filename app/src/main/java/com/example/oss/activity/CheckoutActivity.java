@@ -14,20 +14,18 @@ import com.example.oss.adapter.CartAdapter;
 import com.example.oss.adapter.AddressAdapter;
 import com.example.oss.entity.Address;
 import com.example.oss.entity.Cart;
-import com.example.oss.dao.CartDao;
 import com.example.oss.viewmodel.CartViewModel;
 import com.example.oss.viewmodel.AddressViewModel;
 import com.example.oss.viewmodel.OrderViewModel;
 import com.example.oss.util.SessionManager;
 import com.example.oss.dialog.AddressSelectionDialog;
 import com.example.oss.dialog.PaymentMethodDialog;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
-import java.text.NumberFormat;
-import java.util.List;
-import java.util.Locale;
+import java.util.ArrayList;
 
 public class CheckoutActivity extends AppCompatActivity implements
         AddressSelectionDialog.OnAddressSelectedListener,
@@ -106,12 +104,12 @@ public class CheckoutActivity extends AppCompatActivity implements
     private void loadData() {
         showLoading(true);
 
-        // Load cart items để hiển thị trong order summary
-        cartViewModel.getCartWithProducts().observe(this, cartItems -> {
-            if (cartItems != null) {
-                setupOrderItemsRecyclerView(cartItems);
-                calculateSubtotal(cartItems);
-            }
+        // Các dòng và tạm tính lấy từ cùng một snapshot giỏ hàng
+        setupOrderItemsRecyclerView();
+        cartViewModel.getCartSnapshot().observe(this, snapshot -> {
+            orderItemsAdapter.updateCartItems(snapshot.getLines());
+            subtotal = snapshot.getTotalAmount().doubleValue();
+            updateOrderSummary();
         });
 
         // Load default address
@@ -144,32 +142,23 @@ public class CheckoutActivity extends AppCompatActivity implements
         });
     }
 
-    private void setupOrderItemsRecyclerView(List<CartDao.CartWithProduct> cartItems) {
+    private void setupOrderItemsRecyclerView() {
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         rvOrderItems.setLayoutManager(layoutManager);
 
         // Sử dụng CartAdapter ở chế độ read-only (không cho phép thay đổi số lượng)
-        orderItemsAdapter = new CartAdapter(cartItems, null, null); // No callbacks for read-only
+        orderItemsAdapter = new CartAdapter(new ArrayList<>(), null, null); // No callbacks for read-only
         rvOrderItems.setAdapter(orderItemsAdapter);
     }
 
-    private void calculateSubtotal(List<CartDao.CartWithProduct> cartItems) {
-        subtotal = cartItems.stream()
-                .mapToDouble(item -> item.getPrice().doubleValue() * item.getQuantity())
-                .sum();
-        updateOrderSummary();
-    }
-
     private void updateOrderSummary() {
         total = subtotal + shippingFee;
 
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-
-        String formattedSubtotal = currencyFormat.format(subtotal).replace("₫", "").trim() + "₫";
-        String formattedTotal = currencyFormat.format(total).replace("₫", "").trim() + "₫";
+        String formattedSubtotal = PriceFormatter.format(subtotal);
+        String formattedTotal = PriceFormatter.format(total);
 
         tvSubtotal.setText(formattedSubtotal);
-        tvShippingFee.setText(shippingFee == 0 ? "Miễn phí" : currencyFormat.format(shippingFee));
+        tvShippingFee.setText(shippingFee == 0 ? "Miễn phí" : PriceFormatter.format(shippingFee));
         tvTotal.setText(formattedTotal);
 
         // Enable/disable place order button
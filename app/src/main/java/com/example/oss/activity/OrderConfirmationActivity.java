@@ -7,10 +7,9 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.oss.MainActivity;
 import com.example.oss.R;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
-import java.text.NumberFormat;
-import java.util.Locale;
 
 public class OrderConfirmationActivity extends AppCompatActivity {
 
@@ -76,9 +75,7 @@ public class OrderConfirmationActivity extends AppCompatActivity {
     private void displayOrderInfo() {
         tvOrderId.setText(String.format("Mã đơn hàng: #%d", orderId));
 
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-        String formattedAmount = currencyFormat.format(totalAmount).replace("₫", "").trim() + "₫";
-        tvTotalAmount.setText(formattedAmount);
+        tvTotalAmount.setText(PriceFormatter.format(totalAmount));
 
         tvOrderMessage.setText("Đơn hàng của bạn đã được đặt thành công!\n\n" +
                 "Chúng tôi sẽ xử lý và giao hàng trong thời gian sớm nhất. " +
@@ -15,12 +15,12 @@ import com.example.oss.viewmodel.OrderViewModel;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.card.MaterialCardView;
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Locale;
 import com.example.oss.entity.Address;
 import com.example.oss.viewmodel.AddressViewModel;
+import com.example.oss.util.PriceFormatter;
 
 public class OrderDetailActivity extends AppCompatActivity {
 
@@ -147,13 +147,11 @@ public class OrderDetailActivity extends AppCompatActivity {
 
         tvPaymentMethod.setText(order.getPaymentMethod());
 
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-
         double subtotal = order.getTotalAmount().doubleValue() - 30000; // Giả sử phí ship 30k
-        tvSubtotal.setText(currencyFormat.format(subtotal).replace("₫", "").trim() + "₫");
+        tvSubtotal.setText(PriceFormatter.format(subtotal));
         tvShippingFee.setText("30,000₫");
 
-        String formattedTotal = currencyFormat.format(order.getTotalAmount()).replace("₫", "").trim() + "₫";
+        String formattedTotal = PriceFormatter.format(order.getTotalAmount());
         tvTotalAmount.setText(formattedTotal);
     }
 
@@ -16,6 +16,7 @@ import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.button.MaterialButton;
 import android.widget.TextView;
+import android.widget.Toast;
 import java.util.ArrayList;
 
 public class OrderHistoryActivity extends AppCompatActivity implements OrderAdapter.OnOrderActionListener {
@@ -112,6 +113,14 @@ public class OrderHistoryActivity extends AppCompatActivity implements OrderAdap
                 tvEmptyMessage.setText("Có lỗi xảy ra khi tải dữ liệu: " + error);
             }
         });
+
+        // Kết quả mua lại đơn (kể cả dòng bị giới hạn theo tồn kho)
+        orderHistoryViewModel.getSuccessMessage().observe(this, message -> {
+            if (message != null && !message.isEmpty()) {
+                Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+                orderHistoryViewModel.clearMessages();
+            }
+        });
     }
 
     private void showLoading(boolean show) {
@@ -2,7 +2,9 @@ package com.example.oss.activity;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.LayoutInflater;
 import android.view.MenuItem;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -11,28 +13,27 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.oss.R;
 import com.example.oss.entity.Product;
+import com.example.oss.entity.ProductRatingStats;
 import com.example.oss.util.ImageLoader;
 import com.example.oss.util.SessionManager;
 import com.example.oss.viewmodel.ProductViewModel;
 import com.example.oss.viewmodel.CartViewModel;
 import com.example.oss.viewmodel.WishlistViewModel;
 import com.example.oss.viewmodel.ReviewViewModel;
-import com.example.oss.repository.UserRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.widget.LinearLayout;
 import com.example.oss.adapter.ReviewAdapter;
+import com.example.oss.dao.ReviewDao;
 import com.example.oss.entity.Review;
-import com.example.oss.entity.User;
 import com.example.oss.dialog.WriteReviewDialog;
-import com.example.oss.repository.UserRepository;
 import com.example.oss.util.SampleDataManager;
-import java.text.NumberFormat;
+import com.example.oss.util.PriceFormatter;
 import java.util.Locale;
 import java.util.List;
-import java.util.ArrayList;
 
 public class ProductDetailActivity extends AppCompatActivity {
 
@@ -42,7 +43,6 @@ public class ProductDetailActivity extends AppCompatActivity {
     private CartViewModel cartViewModel;
     private WishlistViewModel wishlistViewModel;
     private ReviewViewModel reviewViewModel;
-    private UserRepository userRepository;
     private SessionManager sessionManager;
 
     // Views
@@ -59,14 +59,16 @@ public class ProductDetailActivity extends AppCompatActivity {
     private TextView tvAverageRating;
     private TextView tvReviewCount;
     private ImageView[] summaryStars = new ImageView[5];
+    // Index 0 là dòng 5 sao
+    private LinearProgressIndicator[] starBars = new LinearProgressIndicator[5];
+    private TextView[] starCounts = new TextView[5];
     private LinearLayout layoutRatingSummary;
     private LinearLayout layoutNoReviews;
     private RecyclerView rvReviews;
+    private MaterialButton btnLoadMoreReviews;
 
     // Review Data
     private ReviewAdapter reviewAdapter;
-    private List<Review> reviews = new ArrayList<>();
-    private List<String> userNames = new ArrayList<>();
 
     private Product currentProduct;
     private int productId;
@@ -107,6 +109,7 @@ public class ProductDetailActivity extends AppCompatActivity {
         layoutRatingSummary = findViewById(R.id.layout_rating_summary);
         layoutNoReviews = findViewById(R.id.layout_no_reviews);
         rvReviews = findViewById(R.id.rv_reviews);
+        btnLoadMoreReviews = findViewById(R.id.btn_load_more_reviews);
 
         // Initialize summary stars
         summaryStars[0] = findViewById(R.id.summary_star_1);
@@ -115,6 +118,16 @@ public class ProductDetailActivity extends AppCompatActivity {
         summaryStars[3] = findViewById(R.id.summary_star_4);
         summaryStars[4] = findViewById(R.id.summary_star_5);
 
+        LinearLayout layoutRatingHistogram = findViewById(R.id.layout_rating_histogram);
+        LayoutInflater inflater = LayoutInflater.from(this);
+        for (int i = 0; i < starBars.length; i++) {
+            View row = inflater.inflate(R.layout.item_rating_bar, layoutRatingHistogram, false);
+            ((TextView) row.findViewById(R.id.tv_star_label)).setText((5 - i) + "★");
+            starBars[i] = row.findViewById(R.id.progress_star);
+            starCounts[i] = row.findViewById(R.id.tv_star_count);
+            layoutRatingHistogram.addView(row);
+        }
+
         setupReviewsRecyclerView();
     }
 
@@ -123,7 +136,6 @@ public class ProductDetailActivity extends AppCompatActivity {
         cartViewModel = new ViewModelProvider(this).get(CartViewModel.class);
         wishlistViewModel = new ViewModelProvider(this).get(WishlistViewModel.class);
         reviewViewModel = new ViewModelProvider(this).get(ReviewViewModel.class);
-        userRepository = new UserRepository(getApplication());
         sessionManager = SessionManager.getInstance(this);
     }
 
@@ -135,7 +147,7 @@ public class ProductDetailActivity extends AppCompatActivity {
         rvReviews.setNestedScrollingEnabled(false);
         rvReviews.setHasFixedSize(false);
 
-        reviewAdapter = new ReviewAdapter(reviews, userNames, new ReviewAdapter.OnReviewActionListener() {
+        reviewAdapter = new ReviewAdapter(new ReviewAdapter.OnReviewActionListener() {
             @Override
             public void onEditReview(Review review) {
                 // TODO: Implement edit review functionality
@@ -150,8 +162,6 @@ public class ProductDetailActivity extends AppCompatActivity {
         }, sessionManager);
 
         rvReviews.setAdapter(reviewAdapter);
-
-        android.util.Log.d("ProductDetail", "setupReviewsRecyclerView completed");
     }
 
     private void setupToolbar() {
@@ -199,53 +209,20 @@ public class ProductDetailActivity extends AppCompatActivity {
     }
 
     private void setupReviewObservers() {
-        // Observe reviews for this product
-        reviewViewModel.getReviewsByProduct(productId).observe(this, reviewsList -> {
+        // Review kèm tên người viết: mỗi trang là một query join users, tự nạp lại khi reviews thay đổi
+        reviewViewModel.getReviewFeed(productId).observe(this, reviewsList -> {
             if (reviewsList != null) {
-                android.util.Log.d("ProductDetail",
-                        "Loaded " + reviewsList.size() + " reviews for product " + productId);
-
-                // Clear and update reviews list
-                reviews.clear();
-                reviews.addAll(reviewsList);
-
-                // Update UI state first
                 updateReviewsUI(reviewsList);
-
-                if (!reviewsList.isEmpty()) {
-                    // Load user names first, then update adapter
-                    loadUserNamesForReviews(reviewsList);
-
-                    // Fallback: Show reviews immediately with default user names after 2 seconds
-                    new android.os.Handler().postDelayed(() -> {
-                        if (userNames.size() != reviewsList.size() && reviewAdapter.getItemCount() == 0) {
-                            android.util.Log.w("ProductDetail",
-                                    "Fallback: User names not loaded completely and adapter is empty, using defaults");
-                            showReviewsWithFallbackUserNames(reviewsList);
-                        } else {
-                            android.util.Log.d("ProductDetail",
-                                    "Fallback not needed - adapter has " + reviewAdapter.getItemCount() + " items");
-                        }
-                    }, 2000);
-                } else {
-                    // No reviews, just update adapter
-                    reviewAdapter.updateReviews(reviews);
-                }
+                reviewAdapter.updateReviews(reviewsList);
+                btnLoadMoreReviews.setVisibility(reviewViewModel.hasMoreReviews() ? View.VISIBLE : View.GONE);
             }
         });
 
-        // Observe average rating
-        reviewViewModel.getAverageRatingForProduct(productId).observe(this, averageRating -> {
-            if (averageRating != null) {
-                updateRatingSummary(averageRating);
-            }
-        });
-
-        // Observe review count
-        reviewViewModel.getReviewCountForProduct(productId).observe(this, count -> {
-            if (count != null) {
-                updateReviewCount(count);
-            }
+        // Điểm trung bình, số review và phân bố sao đều lấy từ một dòng product_rating_stats
+        reviewViewModel.getRatingStats(productId).observe(this, stats -> {
+            updateRatingSummary(stats != null ? stats.getAverageRating() : 0.0);
+            updateReviewCount(stats != null ? stats.getRatingCount() : 0);
+            updateRatingHistogram(stats);
         });
 
         // Observe review messages
@@ -253,8 +230,6 @@ public class ProductDetailActivity extends AppCompatActivity {
             if (message != null && !message.isEmpty()) {
                 Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
                 reviewViewModel.clearSuccess();
-                // Refresh reviews after successful submission
-                reviewViewModel.getReviewsByProduct(productId);
             }
         });
 
@@ -292,22 +267,13 @@ public class ProductDetailActivity extends AppCompatActivity {
         btnAddToCart.setOnClickListener(v -> addToCart());
         fabWishlist.setOnClickListener(v -> toggleWishlist());
         btnWriteReview.setOnClickListener(v -> showWriteReviewDialog());
+        btnLoadMoreReviews.setOnClickListener(v -> reviewViewModel.loadMoreReviews());
 
         // Debug: Long click on product name to recreate sample data
         tvProductName.setOnLongClickListener(v -> {
             recreateSampleDataForDebug();
             return true;
         });
-
-        // Debug: Click on rating summary to force refresh real reviews data
-        layoutRatingSummary.setOnClickListener(v -> {
-            forceRefreshReviews();
-        });
-
-        // Debug: Double tap on RecyclerView to test with simple data
-        rvReviews.setOnClickListener(v -> {
-            testWithSimpleData();
-        });
     }
 
     private void displayProductInfo(Product product) {
@@ -319,10 +285,7 @@ public class ProductDetailActivity extends AppCompatActivity {
         tvProductDescription.setText(product.getDescription());
 
         // Format and set price
-        NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-        String formattedPrice = formatter.format(product.getPrice());
-        formattedPrice = formattedPrice.replace("₫", "").trim() + "₫";
-        tvProductPrice.setText(formattedPrice);
+        tvProductPrice.setText(PriceFormatter.format(product.getPrice()));
 
         // Set stock status
         if (product.getStockQuantity() <= 0) {
@@ -405,39 +368,25 @@ public class ProductDetailActivity extends AppCompatActivity {
 
         WriteReviewDialog dialog = WriteReviewDialog.newInstance(productId);
         dialog.setOnReviewSubmittedListener(() -> {
-            // Refresh review data after submission
-            reviewViewModel.getReviewsByProduct(productId);
+            // Danh sách review tự nạp lại khi bảng reviews đổi, chỉ cần kiểm tra lại quyền viết
             reviewViewModel.checkCanWriteReview(productId);
         });
         dialog.show(getSupportFragmentManager(), "WriteReviewDialog");
     }
 
-    private void updateReviewsUI(List<Review> reviewsList) {
-        android.util.Log.d("ProductDetail", "updateReviewsUI: " + reviewsList.size() + " reviews");
+    private void updateReviewsUI(List<ReviewDao.ReviewWithAuthor> reviewsList) {
 
         if (reviewsList.isEmpty()) {
             layoutNoReviews.setVisibility(LinearLayout.VISIBLE);
             layoutRatingSummary.setVisibility(LinearLayout.GONE);
             rvReviews.setVisibility(RecyclerView.GONE);
-            android.util.Log.d("ProductDetail", "Showing no reviews layout");
         } else {
             layoutNoReviews.setVisibility(LinearLayout.GONE);
             layoutRatingSummary.setVisibility(LinearLayout.VISIBLE);
             rvReviews.setVisibility(RecyclerView.VISIBLE);
-            android.util.Log.d("ProductDetail", "Showing reviews: rating summary + recycler view");
 
             // Force RecyclerView to measure properly
             setRecyclerViewHeight(rvReviews, reviewsList.size());
-
-            // Debug: Log each review
-            for (int i = 0; i < reviewsList.size(); i++) {
-                Review review = reviewsList.get(i);
-                android.util.Log.d("ProductDetail", "Review " + i + ": " +
-                        "rating=" + review.getRating() + ", " +
-                        "comment='" + review.getComment() + "', " +
-                        "userId=" + review.getUserId() + ", " +
-                        "date=" + review.getCreatedAt());
-            }
         }
     }
 
@@ -475,6 +424,15 @@ public class ProductDetailActivity extends AppCompatActivity {
         }
     }
 
+    private void updateRatingHistogram(ProductRatingStats stats) {
+        int total = stats != null ? stats.getRatingCount() : 0;
+        for (int i = 0; i < starBars.length; i++) {
+            int count = stats != null ? stats.getStarCount(5 - i) : 0;
+            starBars[i].setProgress(total > 0 ? count * 100 / total : 0);
+            starCounts[i].setText(String.valueOf(count));
+        }
+    }
+
     private void updateSummaryStars(Double rating) {
         for (int i = 0; i < summaryStars.length; i++) {
             if (i < rating.intValue()) {
@@ -487,59 +445,6 @@ public class ProductDetailActivity extends AppCompatActivity {
         }
     }
 
-    private void loadUserNamesForReviews(List<Review> reviewsList) {
-        userNames.clear();
-
-        android.util.Log.d("ProductDetail", "Loading user names for " + reviewsList.size() + " reviews");
-
-        // Load real user names from database
-        new Thread(() -> {
-            for (Review review : reviewsList) {
-                try {
-                    User user = userRepository.getUserByIdSync(review.getUserId());
-                    if (user != null) {
-                        userNames.add(user.getFullName());
-                        android.util.Log.d("ProductDetail",
-                                "Loaded user name: " + user.getFullName() + " for userId: " + review.getUserId());
-                    } else {
-                        userNames.add("Người dùng " + review.getUserId());
-                        android.util.Log.d("ProductDetail", "No user found for userId: " + review.getUserId());
-                    }
-                } catch (Exception e) {
-                    userNames.add("Người dùng " + review.getUserId());
-                    android.util.Log.e("ProductDetail", "Error loading user for userId: " + review.getUserId(), e);
-                }
-            }
-
-            // Update UI on main thread
-            runOnUiThread(() -> {
-                android.util.Log.d("ProductDetail",
-                        "Updating adapter with " + reviews.size() + " reviews and " + userNames.size() + " user names");
-
-                // Update adapter with both reviews and user names (create new lists to avoid
-                // reference issues)
-                List<Review> reviewsCopy = new ArrayList<>(reviews);
-                List<String> userNamesCopy = new ArrayList<>(userNames);
-
-                android.util.Log.d("ProductDetail",
-                        "Creating copies - reviews: " + reviewsCopy.size() + ", userNames: " + userNamesCopy.size());
-                reviewAdapter.updateReviewsAndUserNames(reviewsCopy, userNamesCopy);
-
-                // Force RecyclerView refresh
-                rvReviews.post(() -> {
-                    android.util.Log.d("ProductDetail",
-                            "Final RecyclerView adapter itemCount: " + reviewAdapter.getItemCount());
-                    android.util.Log.d("ProductDetail", "Final RecyclerView visibility: " + rvReviews.getVisibility());
-                    android.util.Log.d("ProductDetail", "Final RecyclerView height: " + rvReviews.getHeight());
-
-                    reviewAdapter.notifyDataSetChanged();
-                    rvReviews.requestLayout();
-                    rvReviews.invalidate();
-                });
-            });
-        }).start();
-    }
-
     // Debug method to recreate sample data
     private void recreateSampleDataForDebug() {
         Toast.makeText(this, "Đang recreate sample data... Check logs", Toast.LENGTH_LONG).show();
@@ -555,98 +460,11 @@ public class ProductDetailActivity extends AppCompatActivity {
                         displayProductInfo(product);
                     }
                 });
-
-                // Refresh reviews
-                reviewViewModel.getReviewsByProduct(productId);
             }
             Toast.makeText(this, "Sample data recreated! Reviews should now display.", Toast.LENGTH_LONG).show();
         }, 3000);
     }
 
-    // Method to force refresh real reviews data
-    private void forceRefreshReviews() {
-        android.util.Log.d("ProductDetail", "Force refreshing real reviews data");
-        Toast.makeText(this, "Refreshing reviews...", Toast.LENGTH_SHORT).show();
-
-        // Clear current data
-        reviews.clear();
-        userNames.clear();
-        reviewAdapter.updateReviews(new ArrayList<>());
-
-        // Remove all observers to avoid conflicts
-        reviewViewModel.getReviewsByProduct(productId).removeObservers(this);
-        reviewViewModel.getAverageRatingForProduct(productId).removeObservers(this);
-        reviewViewModel.getReviewCountForProduct(productId).removeObservers(this);
-
-        // Wait a moment then re-setup observer
-        new android.os.Handler().postDelayed(() -> {
-            setupReviewObservers();
-        }, 100);
-
-        android.util.Log.d("ProductDetail", "Reviews refresh initiated");
-    }
-
-    // Fallback method to show reviews with default user names
-    private void showReviewsWithFallbackUserNames(List<Review> reviewsList) {
-        android.util.Log.d("ProductDetail", "Using fallback user names for " + reviewsList.size() + " reviews");
-
-        // Create fallback user names
-        List<String> fallbackUserNames = new ArrayList<>();
-        for (Review review : reviewsList) {
-            fallbackUserNames.add("Người dùng " + review.getUserId());
-        }
-
-        // Update adapter with fallback names (create copies to avoid reference issues)
-        List<Review> reviewsCopy = new ArrayList<>(reviews);
-        List<String> fallbackUserNamesCopy = new ArrayList<>(fallbackUserNames);
-
-        android.util.Log.d("ProductDetail",
-                "Fallback copies - reviews: " + reviewsCopy.size() + ", userNames: " + fallbackUserNamesCopy.size());
-        reviewAdapter.updateReviewsAndUserNames(reviewsCopy, fallbackUserNamesCopy);
-
-        // Force RecyclerView refresh
-        rvReviews.post(() -> {
-            android.util.Log.d("ProductDetail", "Fallback RecyclerView refresh completed");
-            reviewAdapter.notifyDataSetChanged();
-            rvReviews.requestLayout();
-            rvReviews.invalidate();
-        });
-
-        Toast.makeText(this, "Hiển thị " + reviewsList.size() + " đánh giá", Toast.LENGTH_SHORT).show();
-    }
-
-    // Simple test method with hardcoded data
-    private void testWithSimpleData() {
-        android.util.Log.d("ProductDetail", "Testing with simple hardcoded data");
-
-        // Create simple test data
-        List<Review> testReviews = new ArrayList<>();
-        testReviews.add(new Review(1, productId, 5, "Test comment 1"));
-        testReviews.add(new Review(2, productId, 4, "Test comment 2"));
-
-        List<String> testUserNames = new ArrayList<>();
-        testUserNames.add("Test User 1");
-        testUserNames.add("Test User 2");
-
-        // Force show
-        layoutNoReviews.setVisibility(LinearLayout.GONE);
-        layoutRatingSummary.setVisibility(LinearLayout.VISIBLE);
-        rvReviews.setVisibility(RecyclerView.VISIBLE);
-        setRecyclerViewHeight(rvReviews, testReviews.size());
-
-        // Update adapter
-        reviewAdapter.updateReviewsAndUserNames(testReviews, testUserNames);
-
-        // Force layout
-        rvReviews.post(() -> {
-            android.util.Log.d("ProductDetail", "Test data - adapter itemCount: " + reviewAdapter.getItemCount());
-            reviewAdapter.notifyDataSetChanged();
-            rvReviews.requestLayout();
-        });
-
-        Toast.makeText(this, "Loaded test data", Toast.LENGTH_SHORT).show();
-    }
-
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
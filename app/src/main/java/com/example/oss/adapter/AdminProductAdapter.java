@@ -7,19 +7,20 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.oss.R;
 import com.example.oss.entity.Product;
 import com.example.oss.util.ImageLoader;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-public class AdminProductAdapter extends RecyclerView.Adapter<AdminProductAdapter.AdminProductViewHolder> {
-    private List<Product> products;
+public class AdminProductAdapter extends ListAdapter<Product, AdminProductAdapter.AdminProductViewHolder> {
     private final OnEditClickListener onEditClickListener;
     private final OnDeleteClickListener onDeleteClickListener;
 
@@ -33,15 +34,29 @@ public class AdminProductAdapter extends RecyclerView.Adapter<AdminProductAdapte
 
     // Trong AdminProductAdapter.java
     public List<Product> getProducts() {
-        return products;
+        return getCurrentList();
     }
 
     public AdminProductAdapter(List<Product> products, OnEditClickListener editListener, OnDeleteClickListener deleteListener) {
-        this.products = products;
+        super(DIFF_CALLBACK);
         this.onEditClickListener = editListener;
         this.onDeleteClickListener = deleteListener;
+        setHasStableIds(true);
+        updateProducts(products);
     }
 
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     @NonNull
     @Override
     public AdminProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -51,17 +66,17 @@ public class AdminProductAdapter extends RecyclerView.Adapter<AdminProductAdapte
 
     @Override
     public void onBindViewHolder(@NonNull AdminProductViewHolder holder, int position) {
-        holder.bind(products.get(position));
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return products != null ? products.size() : 0;
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
+    // Diff trên background thread: sửa một sản phẩm chỉ bind lại đúng dòng đó
     public void updateProducts(List<Product> newProducts) {
-        this.products = newProducts;
-        notifyDataSetChanged();
+        submitList(newProducts != null ? new ArrayList<>(newProducts) : null);
     }
 
     class AdminProductViewHolder extends RecyclerView.ViewHolder {
@@ -79,13 +94,22 @@ public class AdminProductAdapter extends RecyclerView.Adapter<AdminProductAdapte
             btnEdit = itemView.findViewById(R.id.btn_edit_product);
             tvProductStatus = itemView.findViewById(R.id.tv_product_status);
             btnDelete = itemView.findViewById(R.id.btn_delete_product);
+            btnEdit.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    onEditClickListener.onEditClick(getItem(position).getId());
+                }
+            });
+            btnDelete.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    onDeleteClickListener.onDeleteClick(getItem(position).getId());
+                }
+            });
         }
         public void bind(Product product) {
             tvProductName.setText(product.getName());
-            NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedPrice = formatter.format(product.getPrice());
-            formattedPrice = formattedPrice.replace("₫", "").trim() + "₫";
-            tvProductPrice.setText(formattedPrice);
+            tvProductPrice.setText(PriceFormatter.format(product.getPrice()));
             ImageLoader.loadProductImage(itemView.getContext(), product.getImageUrl(), ivProductImage);
             if (product.isActive()) {
                 tvProductStatus.setText("Active");
@@ -94,8 +118,6 @@ public class AdminProductAdapter extends RecyclerView.Adapter<AdminProductAdapte
                 tvProductStatus.setText("Inactive");
                 tvProductStatus.setTextColor(androidx.core.content.ContextCompat.getColor(itemView.getContext(), R.color.red));
             }
-            btnEdit.setOnClickListener(v -> onEditClickListener.onEditClick(product.getId()));
-            btnDelete.setOnClickListener(v -> onDeleteClickListener.onDeleteClick(product.getId()));
         }
     }
 } 
\ No newline at end of file
@@ -6,20 +6,23 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
 import com.example.oss.dao.CartDao;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 
-import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
-public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
+public class CartAdapter extends ListAdapter<CartDao.CartWithProduct, CartAdapter.CartViewHolder> {
+
+    // Chỉ số lượng/giá/tồn kho đổi (bấm +/-): bind lại phần số lượng, không bind lại cả dòng
+    private static final Object PAYLOAD_QUANTITY = new Object();
 
-    private List<CartDao.CartWithProduct> cartItems;
     private OnQuantityChangeListener onQuantityChangeListener;
     private OnRemoveClickListener onRemoveClickListener;
 
@@ -35,9 +38,40 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     public CartAdapter(List<CartDao.CartWithProduct> cartItems,
             OnQuantityChangeListener onQuantityChangeListener,
             OnRemoveClickListener onRemoveClickListener) {
-        this.cartItems = cartItems != null ? cartItems : new ArrayList<>();
+        super(DIFF_CALLBACK);
         this.onQuantityChangeListener = onQuantityChangeListener;
         this.onRemoveClickListener = onRemoveClickListener;
+        setHasStableIds(true);
+        updateCartItems(cartItems);
+    }
+
+    private static final DiffUtil.ItemCallback<CartDao.CartWithProduct> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<CartDao.CartWithProduct>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull CartDao.CartWithProduct oldItem,
+                        @NonNull CartDao.CartWithProduct newItem) {
+                    return oldItem.getProductId() == newItem.getProductId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull CartDao.CartWithProduct oldItem,
+                        @NonNull CartDao.CartWithProduct newItem) {
+                    return sameProductInfo(oldItem, newItem)
+                            && oldItem.getQuantity() == newItem.getQuantity()
+                            && oldItem.getStockQuantity() == newItem.getStockQuantity()
+                            && Objects.equals(oldItem.getPrice(), newItem.getPrice());
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull CartDao.CartWithProduct oldItem,
+                        @NonNull CartDao.CartWithProduct newItem) {
+                    return sameProductInfo(oldItem, newItem) ? PAYLOAD_QUANTITY : null;
+                }
+            };
+
+    private static boolean sameProductInfo(CartDao.CartWithProduct oldItem, CartDao.CartWithProduct newItem) {
+        return Objects.equals(oldItem.getProductName(), newItem.getProductName())
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
     }
 
     @NonNull
@@ -50,52 +84,37 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-        CartDao.CartWithProduct cartItem = cartItems.get(position);
+        CartDao.CartWithProduct cartItem = getItem(position);
         holder.bind(cartItem);
     }
 
     @Override
-    public int getItemCount() {
-        return cartItems.size();
+    public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(payload -> payload == PAYLOAD_QUANTITY)) {
+            holder.bindQuantity(getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getProductId();
+    }
+
+    // Danh sách mới được so với danh sách cũ trên background thread, chỉ dòng thay đổi được bind lại
     public void updateCartItems(List<CartDao.CartWithProduct> newCartItems) {
-        this.cartItems.clear();
-        if (newCartItems != null) {
-            this.cartItems.addAll(newCartItems);
-        }
-        notifyDataSetChanged();
+        submitList(newCartItems != null ? new ArrayList<>(newCartItems) : null);
     }
 
     // Method để lấy danh sách cart items hiện tại
     public List<CartDao.CartWithProduct> getCartItems() {
-        return new ArrayList<>(cartItems);
-    }
-
-    // Method để tính tổng số lượng items
-    public int getTotalQuantity() {
-        int total = 0;
-        for (CartDao.CartWithProduct item : cartItems) {
-            total += item.getQuantity();
-        }
-        return total;
+        return new ArrayList<>(getCurrentList());
     }
 
     // Method để tính tổng số items (distinct products)
     public int getTotalItemCount() {
-        return cartItems.size();
-    }
-
-    // Method để tính tổng tiền
-    public BigDecimal getTotalAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (CartDao.CartWithProduct item : cartItems) {
-            if (item.getPrice() != null) {
-                BigDecimal itemTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                total = total.add(itemTotal);
-            }
-        }
-        return total;
+        return getItemCount();
     }
 
     class CartViewHolder extends RecyclerView.ViewHolder {
@@ -116,30 +135,13 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             btnDecrease = itemView.findViewById(R.id.btn_decrease);
             btnIncrease = itemView.findViewById(R.id.btn_increase);
             btnRemove = itemView.findViewById(R.id.btn_remove);
-        }
-
-        public void bind(CartDao.CartWithProduct cartItem) {
-            // Set product name
-            tvProductName.setText(cartItem.getProductName());
-
-            // Format and set price
-            NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedPrice = formatter.format(cartItem.getTotalPrice());
-            formattedPrice = formattedPrice.replace("₫", "").trim() + "₫";
-            tvProductPrice.setText(formattedPrice);
-
-            // Set quantity
-            tvQuantity.setText(String.valueOf(cartItem.getQuantity()));
 
-            // Set product image (placeholder for now)
-            ivProductImage.setImageResource(R.drawable.ic_image_placeholder);
-
-            // Handle quantity controls
-            btnDecrease.setEnabled(cartItem.getQuantity() > 1);
-            btnIncrease.setEnabled(cartItem.getQuantity() < cartItem.getStockQuantity());
-
-            // Set click listeners
+            // Click listener gắn một lần, đọc số lượng hiện tại của dòng lúc bấm
             btnDecrease.setOnClickListener(v -> {
+                CartDao.CartWithProduct cartItem = currentItem();
+                if (cartItem == null) {
+                    return;
+                }
                 int newQuantity = cartItem.getQuantity() - 1;
                 if (newQuantity >= 1 && onQuantityChangeListener != null) {
                     onQuantityChangeListener.onQuantityChanged(cartItem.getProductId(), newQuantity);
@@ -147,6 +149,10 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             });
 
             btnIncrease.setOnClickListener(v -> {
+                CartDao.CartWithProduct cartItem = currentItem();
+                if (cartItem == null) {
+                    return;
+                }
                 int newQuantity = cartItem.getQuantity() + 1;
                 if (newQuantity <= cartItem.getStockQuantity() && onQuantityChangeListener != null) {
                     onQuantityChangeListener.onQuantityChanged(cartItem.getProductId(), newQuantity);
@@ -154,10 +160,38 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             });
 
             btnRemove.setOnClickListener(v -> {
-                if (onRemoveClickListener != null) {
+                CartDao.CartWithProduct cartItem = currentItem();
+                if (cartItem != null && onRemoveClickListener != null) {
                     onRemoveClickListener.onRemoveClick(cartItem.getProductId());
                 }
             });
         }
+
+        private CartDao.CartWithProduct currentItem() {
+            int position = getBindingAdapterPosition();
+            return position != RecyclerView.NO_POSITION ? getItem(position) : null;
+        }
+
+        public void bind(CartDao.CartWithProduct cartItem) {
+            // Set product name
+            tvProductName.setText(cartItem.getProductName());
+
+            // Set product image (placeholder for now)
+            ivProductImage.setImageResource(R.drawable.ic_image_placeholder);
+
+            bindQuantity(cartItem);
+        }
+
+        void bindQuantity(CartDao.CartWithProduct cartItem) {
+            // Format and set price
+            tvProductPrice.setText(PriceFormatter.format(cartItem.getTotalPrice()));
+
+            // Set quantity
+            tvQuantity.setText(String.valueOf(cartItem.getQuantity()));
+
+            // Handle quantity controls
+            btnDecrease.setEnabled(cartItem.getQuantity() > 1);
+            btnIncrease.setEnabled(cartItem.getQuantity() < cartItem.getStockQuantity());
+        }
     }
-}
\ No newline at end of file
+}
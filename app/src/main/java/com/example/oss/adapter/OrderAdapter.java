@@ -6,20 +6,25 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
 import com.example.oss.entity.Order;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
+public class OrderAdapter extends ListAdapter<Order, OrderAdapter.OrderViewHolder> {
+
+    // Chỉ trạng thái đổi (hủy, admin cập nhật): bind lại phần trạng thái và nút thao tác
+    private static final Object PAYLOAD_STATUS = new Object();
 
-    private List<Order> orders = new ArrayList<>();
     private OnOrderActionListener listener;
 
     public interface OnOrderActionListener {
@@ -31,10 +36,31 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
     }
 
     public OrderAdapter(List<Order> orders, OnOrderActionListener listener) {
-        this.orders = orders;
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
+        updateOrders(orders);
     }
 
+    private static final DiffUtil.ItemCallback<Order> DIFF_CALLBACK = new DiffUtil.ItemCallback<Order>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Order oldItem, @NonNull Order newItem) {
+            return Objects.equals(oldItem.getTotalAmount(), newItem.getTotalAmount())
+                    && Objects.equals(oldItem.getOrderDate(), newItem.getOrderDate())
+                    ? PAYLOAD_STATUS : null;
+        }
+    };
+
     @NonNull
     @Override
     public OrderViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,19 +71,27 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
 
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orders.get(position);
+        Order order = getItem(position);
         holder.bind(order);
     }
 
     @Override
-    public int getItemCount() {
-        return orders.size();
+    public void onBindViewHolder(@NonNull OrderViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(payload -> payload == PAYLOAD_STATUS)) {
+            holder.bindStatus(getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    // Danh sách mới được so với danh sách cũ trên background thread, chỉ đơn thay đổi được bind lại
     public void updateOrders(List<Order> newOrders) {
-        this.orders.clear();
-        this.orders.addAll(newOrders);
-        notifyDataSetChanged();
+        submitList(newOrders != null ? new ArrayList<>(newOrders) : null);
     }
 
     class OrderViewHolder extends RecyclerView.ViewHolder {
@@ -80,6 +114,40 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             btnReorder = itemView.findViewById(R.id.btn_reorder);
             btnViewDetail = itemView.findViewById(R.id.btn_view_detail);
             layoutActions = itemView.findViewById(R.id.layout_actions);
+
+            // Click listener gắn một lần, lấy đơn hiện tại theo vị trí lúc bấm
+            cardOrder.setOnClickListener(v -> {
+                Order order = currentOrder();
+                if (order != null && listener != null) {
+                    listener.onOrderClick(order);
+                }
+            });
+
+            btnCancel.setOnClickListener(v -> {
+                Order order = currentOrder();
+                if (order != null && listener != null) {
+                    listener.onOrderCancel(order);
+                }
+            });
+
+            btnReorder.setOnClickListener(v -> {
+                Order order = currentOrder();
+                if (order != null && listener != null) {
+                    listener.onOrderReorder(order);
+                }
+            });
+
+            btnViewDetail.setOnClickListener(v -> {
+                Order order = currentOrder();
+                if (order != null && listener != null) {
+                    listener.onOrderClick(order);
+                }
+            });
+        }
+
+        private Order currentOrder() {
+            int position = getBindingAdapterPosition();
+            return position != RecyclerView.NO_POSITION ? getItem(position) : null;
         }
 
         public void bind(Order order) {
@@ -90,6 +158,16 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
             tvOrderDate.setText(dateFormat.format(order.getOrderDate()));
 
+            bindStatus(order);
+
+            // Total Amount
+            tvTotalAmount.setText(PriceFormatter.format(order.getTotalAmount()));
+
+            // TODO: Get actual item count from OrderItems
+            tvItemCount.setText("Xem chi tiết");
+        }
+
+        void bindStatus(Order order) {
             // Order Status
             String statusText = getStatusText(order.getStatus());
             tvOrderStatus.setText(statusText);
@@ -99,41 +177,8 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             ivOrderStatus.setImageResource(getStatusIcon(order.getStatus()));
             ivOrderStatus.setColorFilter(getStatusColor(order.getStatus()));
 
-            // Total Amount
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedAmount = currencyFormat.format(order.getTotalAmount()).replace("₫", "").trim() + "₫";
-            tvTotalAmount.setText(formattedAmount);
-
-            // TODO: Get actual item count from OrderItems
-            tvItemCount.setText("Xem chi tiết");
-
             // Action buttons visibility based on status
             setupActionButtons(order);
-
-            // Click listeners
-            cardOrder.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onOrderClick(order);
-                }
-            });
-
-            btnCancel.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onOrderCancel(order);
-                }
-            });
-
-            btnReorder.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onOrderReorder(order);
-                }
-            });
-
-            btnViewDetail.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onOrderClick(order);
-                }
-            });
         }
 
         private void setupActionButtons(Order order) {
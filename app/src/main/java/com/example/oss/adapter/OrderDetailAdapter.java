@@ -9,10 +9,9 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
 import com.example.oss.entity.OrderItem;
-import java.text.NumberFormat;
+import com.example.oss.util.PriceFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 public class OrderDetailAdapter extends RecyclerView.Adapter<OrderDetailAdapter.OrderDetailViewHolder> {
 
@@ -69,17 +68,14 @@ public class OrderDetailAdapter extends RecyclerView.Adapter<OrderDetailAdapter.
             tvProductName.setText(productName);
 
             // Product price
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedPrice = currencyFormat.format(orderItem.getPrice()).replace("₫", "").trim() + "₫";
-            tvProductPrice.setText(formattedPrice);
+            tvProductPrice.setText(PriceFormatter.format(orderItem.getPrice()));
 
             // Quantity
             tvQuantity.setText(String.format("x%d", orderItem.getQuantity()));
 
             // Total price for this item
             double totalPrice = orderItem.getPrice() * orderItem.getQuantity();
-            String formattedTotal = currencyFormat.format(totalPrice).replace("₫", "").trim() + "₫";
-            tvTotalPrice.setText(formattedTotal);
+            tvTotalPrice.setText(PriceFormatter.format(totalPrice));
 
             // Product image - placeholder for now
             ivProductImage.setImageResource(R.drawable.ic_image_placeholder);
@@ -10,32 +10,68 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentActivity;
-import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.oss.R;
-import com.example.oss.bean.OrderData;
 import com.example.oss.bean.OrderDisplay;
 import com.example.oss.dialog.UpdateOrderManagementStatusDialog;
 import com.example.oss.entity.Order;
 import com.example.oss.entity.OrderItem;
 import com.example.oss.fragment.OrderDetailManagementFragment;
 import com.example.oss.repository.OrderRepository;
-import com.example.oss.viewmodel.OrderManagementViewModel;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+
+public class OrderManagementAdapter extends ListAdapter<OrderDisplay, OrderManagementAdapter.OrderManagementViewHolder> {
+    // Chỉ trạng thái đổi: bind lại đúng ô trạng thái
+    private static final Object PAYLOAD_STATUS = new Object();
+
+    public interface OnStatusChangeListener {
+        void onStatusChange(int orderId, String newStatus);
+    }
+
+    private OnStatusChangeListener onStatusChangeListener;
 
-public class OrderManagementAdapter extends RecyclerView.Adapter<OrderManagementAdapter.OrderManagementViewHolder> {
-    private List<OrderDisplay> orders;
     public OrderManagementAdapter(List<OrderDisplay> orders) {
-        this.orders = orders != null ? orders : new ArrayList<>();
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+        updateData(orders);
+    }
+
+    private static final DiffUtil.ItemCallback<OrderDisplay> DIFF_CALLBACK = new DiffUtil.ItemCallback<OrderDisplay>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull OrderDisplay oldItem, @NonNull OrderDisplay newItem) {
+            return oldItem.orderId == newItem.orderId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull OrderDisplay oldItem, @NonNull OrderDisplay newItem) {
+            return Objects.equals(oldItem.orderStatus, newItem.orderStatus) && sameDetails(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull OrderDisplay oldItem, @NonNull OrderDisplay newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+    };
+
+    private static boolean sameDetails(OrderDisplay oldItem, OrderDisplay newItem) {
+        return Objects.equals(oldItem.orderDate, newItem.orderDate)
+                && Objects.equals(oldItem.customerName, newItem.customerName)
+                && Objects.equals(oldItem.productSummary, newItem.productSummary)
+                && Objects.equals(oldItem.totalAmount, newItem.totalAmount)
+                && Objects.equals(oldItem.paymentMethod, newItem.paymentMethod)
+                && oldItem.itemCount == newItem.itemCount;
     }
 
     @NonNull
@@ -48,21 +84,31 @@ public class OrderManagementAdapter extends RecyclerView.Adapter<OrderManagement
 
     @Override
     public void onBindViewHolder(@NonNull OrderManagementViewHolder holder, int position) {
-        OrderDisplay order = orders.get(position);
+        OrderDisplay order = getItem(position);
         holder.bind(order);
     }
 
     @Override
-    public int getItemCount() {
-        return orders.size();
+    public void onBindViewHolder(@NonNull OrderManagementViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(payload -> payload == PAYLOAD_STATUS)) {
+            holder.bindStatus(getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).orderId;
+    }
+
+    public void setOnStatusChangeListener(OnStatusChangeListener listener) {
+        this.onStatusChangeListener = listener;
+    }
+
+    // Diff trên background thread: đổi trạng thái một đơn chỉ bind lại đúng dòng đó
     public void updateData(List<OrderDisplay> newOrders) {
-        this.orders.clear();
-        if (newOrders != null) {
-            this.orders.addAll(newOrders);
-        }
-        notifyDataSetChanged();
+        submitList(newOrders != null ? new ArrayList<>(newOrders) : null);
     }
 
     class OrderManagementViewHolder extends RecyclerView.ViewHolder {
@@ -95,11 +141,10 @@ public class OrderManagementAdapter extends RecyclerView.Adapter<OrderManagement
             tvOrderId.setText("Mã đơn #" + orderDisplay.orderId);
             SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
             tvOrderDate.setText(sdf.format(orderDisplay.orderDate));
-            tvOrderStatus.setText(getStatusDisplay(orderDisplay.orderStatus));
+            bindStatus(orderDisplay);
             tvCustomerName.setText(orderDisplay.customerName);
             tvOrderItems.setText(orderDisplay.productSummary);
-            NumberFormat nf = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            tvTotalAmount.setText(nf.format(orderDisplay.totalAmount));
+            tvTotalAmount.setText(PriceFormatter.format(orderDisplay.totalAmount));
             tvPaymentMethod.setText(orderDisplay.paymentMethod);
             tvItemCount.setText(orderDisplay.itemCount + " sản phẩm");
 
@@ -121,20 +166,11 @@ public class OrderManagementAdapter extends RecyclerView.Adapter<OrderManagement
             btnUpdateStatus.setOnClickListener(v -> {
                 Activity activity = getActivityFromView(v);
                 if (activity instanceof FragmentActivity) {
-
-                    FragmentActivity fragmentActivity = (FragmentActivity) activity;
-
-                    // Lấy ViewModel
-                    OrderManagementViewModel viewModel = new ViewModelProvider(fragmentActivity)
-                            .get(OrderManagementViewModel.class);
-
+                    // Không sửa trạng thái tại chỗ: đổi có thể bị từ chối (thiếu hàng khi mở lại đơn đã hủy),
+                    // đổi thành công thì Room phát lại danh sách và diff bind lại ô trạng thái
                     UpdateOrderManagementStatusDialog dialog = new UpdateOrderManagementStatusDialog(orderDisplay, (order, newStatus, note) -> {
-                        viewModel.updateOrderStatus(order.orderId, getStatusCodeFromDisplay(newStatus));
-
-                        order.orderStatus = getStatusCodeFromDisplay(newStatus);
-                        int position = getBindingAdapterPosition();
-                        if (position != RecyclerView.NO_POSITION) {
-                            notifyItemChanged(position);
+                        if (onStatusChangeListener != null) {
+                            onStatusChangeListener.onStatusChange(order.orderId, getStatusCodeFromDisplay(newStatus));
                         }
                     });
                     dialog.show(((FragmentActivity) activity).getSupportFragmentManager(), "UpdateStatusDialog");
@@ -142,6 +178,10 @@ public class OrderManagementAdapter extends RecyclerView.Adapter<OrderManagement
             });
         }
 
+        void bindStatus(OrderDisplay orderDisplay) {
+            tvOrderStatus.setText(getStatusDisplay(orderDisplay.orderStatus));
+        }
+
         private Activity getActivityFromView(View view) {
             Context context = view.getContext();
             while (context instanceof ContextWrapper) {
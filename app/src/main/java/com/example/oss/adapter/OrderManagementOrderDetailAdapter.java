@@ -10,10 +10,9 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.oss.R;
 import com.example.oss.dao.OrderItemDao;
+import com.example.oss.util.PriceFormatter;
 
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 
 public class OrderManagementOrderDetailAdapter extends RecyclerView.Adapter<OrderManagementOrderDetailAdapter.OrderItemViewHolder> {
     private List<OrderItemDao.OrderItemWithProduct> orderItemList;
@@ -60,11 +59,9 @@ public class OrderManagementOrderDetailAdapter extends RecyclerView.Adapter<Orde
             int quantity = item.orderItem.getQuantity();
             double price = item.orderItem.getPrice();
             double total = quantity * price;
-            NumberFormat nf = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-
             tvProductName.setText(name);
-            tvQuantityPrice.setText(quantity + " x " + nf.format(price));
-            tvTotalPrice.setText("Thành tiền: " + nf.format(total));
+            tvQuantityPrice.setText(quantity + " x " + PriceFormatter.format(price));
+            tvTotalPrice.setText("Thành tiền: " + PriceFormatter.format(total));
         }
     }
 }
@@ -1,27 +1,39 @@
 package com.example.oss.adapter;
 
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
+import com.example.oss.dao.ProductDao;
 import com.example.oss.entity.Product;
+import com.example.oss.entity.ProductRatingStats;
+import com.example.oss.repository.MembershipIndex;
 import com.example.oss.util.ImageLoader;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.Objects;
 
-public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
+public class ProductAdapter extends ListAdapter<ProductDao.RatedProduct, ProductAdapter.ProductViewHolder> {
 
-    private List<Product> products;
-    private Set<Integer> wishlistProductIds; // Track wishlist products
+    // Các phần của một ô bind lại được riêng; payload là tổ hợp bit, null = bind lại cả ô
+    private static final int CHANGE_PRICE = 1;
+    private static final int CHANGE_STOCK = 1 << 1;
+    private static final int CHANGE_RATING = 1 << 2;
+    private static final int CHANGE_MEMBERSHIP = 1 << 3;
+
+    // Vị trí theo product id, để chỉ rebind đúng dòng khi wishlist/giỏ hàng đổi
+    private final SparseIntArray positions = new SparseIntArray();
+    private MembershipIndex membershipIndex;
     private OnProductClickListener onProductClickListener;
     private OnAddToCartClickListener onAddToCartClickListener;
     private OnWishlistClickListener onWishlistClickListener;
@@ -39,17 +51,40 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
         void onWishlistClick(Product product);
     }
 
-    public ProductAdapter(List<Product> products,
+    public ProductAdapter(List<ProductDao.RatedProduct> products,
             OnProductClickListener onProductClickListener,
             OnAddToCartClickListener onAddToCartClickListener,
             OnWishlistClickListener onWishlistClickListener) {
-        this.products = products != null ? products : new ArrayList<>();
-        this.wishlistProductIds = new HashSet<>();
+        super(DIFF_CALLBACK);
         this.onProductClickListener = onProductClickListener;
         this.onAddToCartClickListener = onAddToCartClickListener;
         this.onWishlistClickListener = onWishlistClickListener;
+        setHasStableIds(true);
+        updateProducts(products);
     }
 
+    private static final DiffUtil.ItemCallback<ProductDao.RatedProduct> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ProductDao.RatedProduct>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    return oldItem.product.getId() == newItem.product.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    return oldItem.product.equals(newItem.product)
+                            && Objects.equals(oldItem.ratingStats, newItem.ratingStats);
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    return changedParts(oldItem, newItem);
+                }
+            };
+
     @NonNull
     @Override
     public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -60,28 +95,101 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
 
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = products.get(position);
-        holder.bind(product);
+        ProductDao.RatedProduct item = getItem(position);
+        holder.bind(item.product, item.ratingStats);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position, @NonNull List<Object> payloads) {
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                changes = 0;
+                break;
+            }
+            changes |= (Integer) payload;
+        }
+        if (changes == 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        ProductDao.RatedProduct item = getItem(position);
+        if ((changes & CHANGE_PRICE) != 0) {
+            holder.bindPrice(item.product);
+        }
+        if ((changes & CHANGE_STOCK) != 0) {
+            holder.bindStock(item.product);
+        }
+        if ((changes & CHANGE_RATING) != 0) {
+            holder.bindRating(item.ratingStats);
+        }
+        if ((changes & CHANGE_MEMBERSHIP) != 0) {
+            holder.bindMembership(item.product);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).product.getId();
+    }
+
+    // Danh sách mới được so với danh sách cũ trên background thread, chỉ ô thay đổi được bind lại
+    public void updateProducts(List<ProductDao.RatedProduct> newProducts) {
+        submitList(newProducts != null ? new ArrayList<>(newProducts) : null);
+    }
+
+    // Cho ImagePrefetchScrollListener: ảnh của ô sắp cuộn tới
+    public String getImageUrl(int position) {
+        return position >= 0 && position < getItemCount() ? getItem(position).product.getImageUrl() : null;
     }
 
     @Override
-    public int getItemCount() {
-        return products.size();
+    public void onCurrentListChanged(@NonNull List<ProductDao.RatedProduct> previousList,
+            @NonNull List<ProductDao.RatedProduct> currentList) {
+        positions.clear();
+        for (int i = 0; i < currentList.size(); i++) {
+            positions.put(currentList.get(i).product.getId(), i);
+        }
+    }
+
+    // Trái tim và badge "trong giỏ" tra trong index; null = không hiển thị (chưa đăng nhập)
+    public void setMembershipIndex(MembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
+        onMembershipChanged(MembershipIndex.ALL_PRODUCTS);
     }
 
-    // Update data
-    public void updateProducts(List<Product> newProducts) {
-        this.products.clear();
-        if (newProducts != null) {
-            this.products.addAll(newProducts);
+    // Dùng làm MembershipIndex.Listener: chỉ rebind phần wishlist/giỏ hàng của dòng có sản phẩm đổi
+    public void onMembershipChanged(int productId) {
+        if (productId == MembershipIndex.ALL_PRODUCTS) {
+            notifyItemRangeChanged(0, getItemCount(), CHANGE_MEMBERSHIP);
+            return;
+        }
+        int position = positions.get(productId, -1);
+        if (position >= 0) {
+            notifyItemChanged(position, CHANGE_MEMBERSHIP);
         }
-        notifyDataSetChanged();
     }
 
-    // Update wishlist status
-    public void updateWishlistProducts(Set<Integer> wishlistProductIds) {
-        this.wishlistProductIds = wishlistProductIds != null ? wishlistProductIds : new HashSet<>();
-        notifyDataSetChanged();
+    // null nếu tên/ảnh... đổi (phải bind lại cả ô)
+    private static Integer changedParts(ProductDao.RatedProduct oldItem, ProductDao.RatedProduct newItem) {
+        Product oldProduct = oldItem.product;
+        Product newProduct = newItem.product;
+        if (!Objects.equals(oldProduct.getName(), newProduct.getName())
+                || !Objects.equals(oldProduct.getImageUrl(), newProduct.getImageUrl())) {
+            return null;
+        }
+        int changes = 0;
+        if (!Objects.equals(oldProduct.getPrice(), newProduct.getPrice())) {
+            changes |= CHANGE_PRICE;
+        }
+        if (oldProduct.getStockQuantity() != newProduct.getStockQuantity()) {
+            changes |= CHANGE_STOCK;
+        }
+        if (!Objects.equals(oldItem.ratingStats, newItem.ratingStats)) {
+            changes |= CHANGE_RATING;
+        }
+        // Chỉ đổi cột không hiển thị (vd. updated_at): bind lại phần nhỏ nhất thay vì cả ô
+        return changes != 0 ? changes : CHANGE_MEMBERSHIP;
     }
 
     // ViewHolder class
@@ -90,6 +198,8 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
         private ImageView ivWishlistIcon;
         private TextView tvProductName;
         private TextView tvProductPrice;
+        private TextView tvProductRating;
+        private TextView tvInCartBadge;
         private MaterialButton btnAddToCart;
 
         public ProductViewHolder(@NonNull View itemView) {
@@ -98,18 +208,44 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
             ivWishlistIcon = itemView.findViewById(R.id.iv_wishlist_icon);
             tvProductName = itemView.findViewById(R.id.tv_product_name);
             tvProductPrice = itemView.findViewById(R.id.tv_product_price);
+            tvProductRating = itemView.findViewById(R.id.tv_product_rating);
+            tvInCartBadge = itemView.findViewById(R.id.tv_in_cart_badge);
             btnAddToCart = itemView.findViewById(R.id.btn_add_to_cart);
+
+            // Click listener gắn một lần, lấy sản phẩm hiện tại theo vị trí lúc bấm
+            itemView.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onProductClickListener != null) {
+                    onProductClickListener.onProductClick(product);
+                }
+            });
+
+            btnAddToCart.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onAddToCartClickListener != null && product.getStockQuantity() > 0) {
+                    onAddToCartClickListener.onAddToCartClick(product);
+                }
+            });
+
+            ivWishlistIcon.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onWishlistClickListener != null) {
+                    onWishlistClickListener.onWishlistClick(product);
+                }
+            });
         }
 
-        public void bind(Product product) {
+        private Product currentProduct() {
+            int position = getBindingAdapterPosition();
+            return position != RecyclerView.NO_POSITION ? getItem(position).product : null;
+        }
+
+        public void bind(Product product, ProductRatingStats ratingStats) {
             // Set product name
             tvProductName.setText(product.getName());
 
-            // Format and set price
-            NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedPrice = formatter.format(product.getPrice());
-            formattedPrice = formattedPrice.replace("₫", "").trim() + "₫";
-            tvProductPrice.setText(formattedPrice);
+            bindPrice(product);
+            bindRating(ratingStats);
 
             // Load product image với ImageLoader
             ImageLoader.loadProductImage(
@@ -117,18 +253,25 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
                     product.getImageUrl(),
                     ivProductImage);
 
-            // Update wishlist icon
-            boolean isInWishlist = wishlistProductIds.contains(product.getId());
-            if (isInWishlist) {
-                ivWishlistIcon.setImageResource(R.drawable.ic_favorite);
-                ivWishlistIcon.setColorFilter(itemView.getContext().getResources().getColor(R.color.primary));
+            bindMembership(product);
+            bindStock(product);
+        }
+
+        void bindPrice(Product product) {
+            tvProductPrice.setText(PriceFormatter.format(product.getPrice()));
+        }
+
+        // Đánh giá đã có sẵn trong dòng (JOIN product_rating_stats), không query thêm
+        void bindRating(ProductRatingStats ratingStats) {
+            if (ratingStats != null && ratingStats.getRatingCount() > 0) {
+                tvProductRating.setText(String.format(Locale.getDefault(), "★ %.1f (%d)",
+                        ratingStats.getAverageRating(), ratingStats.getRatingCount()));
             } else {
-                ivWishlistIcon.setImageResource(R.drawable.ic_favorite_border);
-                ivWishlistIcon
-                        .setColorFilter(itemView.getContext().getResources().getColor(android.R.color.darker_gray));
+                tvProductRating.setText("Chưa có đánh giá");
             }
+        }
 
-            // Handle stock status
+        void bindStock(Product product) {
             if (product.getStockQuantity() <= 0) {
                 btnAddToCart.setText("Hết hàng");
                 btnAddToCart.setEnabled(false);
@@ -136,25 +279,26 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
                 btnAddToCart.setText("Thêm vào giỏ");
                 btnAddToCart.setEnabled(true);
             }
+        }
 
-            // Set click listeners
-            itemView.setOnClickListener(v -> {
-                if (onProductClickListener != null) {
-                    onProductClickListener.onProductClick(product);
-                }
-            });
-
-            btnAddToCart.setOnClickListener(v -> {
-                if (onAddToCartClickListener != null && product.getStockQuantity() > 0) {
-                    onAddToCartClickListener.onAddToCartClick(product);
-                }
-            });
+        void bindMembership(Product product) {
+            boolean isInWishlist = membershipIndex != null && membershipIndex.isInWishlist(product.getId());
+            if (isInWishlist) {
+                ivWishlistIcon.setImageResource(R.drawable.ic_favorite);
+                ivWishlistIcon.setColorFilter(itemView.getContext().getResources().getColor(R.color.primary));
+            } else {
+                ivWishlistIcon.setImageResource(R.drawable.ic_favorite_border);
+                ivWishlistIcon
+                        .setColorFilter(itemView.getContext().getResources().getColor(android.R.color.darker_gray));
+            }
 
-            ivWishlistIcon.setOnClickListener(v -> {
-                if (onWishlistClickListener != null) {
-                    onWishlistClickListener.onWishlistClick(product);
-                }
-            });
+            int inCart = membershipIndex != null ? membershipIndex.getCartQuantity(product.getId()) : 0;
+            if (inCart > 0) {
+                tvInCartBadge.setText("Trong giỏ ×" + inCart);
+                tvInCartBadge.setVisibility(View.VISIBLE);
+            } else {
+                tvInCartBadge.setVisibility(View.GONE);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.example.oss.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.oss.R;
+import com.example.oss.dao.ProductSalesDao;
+import com.example.oss.entity.Product;
+import com.example.oss.util.ImageLoader;
+import com.example.oss.util.PriceFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Dải ngang "bán chạy"/"xu hướng tuần này" ở trang chủ
+public class RankedProductAdapter
+        extends ListAdapter<ProductSalesDao.RankedProduct, RankedProductAdapter.RankedProductViewHolder> {
+
+    private ProductAdapter.OnProductClickListener onProductClickListener;
+
+    public RankedProductAdapter(ProductAdapter.OnProductClickListener onProductClickListener) {
+        super(DIFF_CALLBACK);
+        this.onProductClickListener = onProductClickListener;
+        setHasStableIds(true);
+    }
+
+    private static final DiffUtil.ItemCallback<ProductSalesDao.RankedProduct> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ProductSalesDao.RankedProduct>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ProductSalesDao.RankedProduct oldItem,
+                        @NonNull ProductSalesDao.RankedProduct newItem) {
+                    return oldItem.product.getId() == newItem.product.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ProductSalesDao.RankedProduct oldItem,
+                        @NonNull ProductSalesDao.RankedProduct newItem) {
+                    return oldItem.unitsSold == newItem.unitsSold
+                            && oldItem.product.equals(newItem.product);
+                }
+            };
+
+    @NonNull
+    @Override
+    public RankedProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_ranked_product, parent, false);
+        return new RankedProductViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RankedProductViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).product.getId();
+    }
+
+    // Bộ đếm bán hàng phát lại sau mỗi đơn; ô đổi thứ hạng chỉ được di chuyển, chỉ ô đổi số đã bán mới bind lại
+    public void updateItems(List<ProductSalesDao.RankedProduct> newItems) {
+        submitList(newItems != null ? new ArrayList<>(newItems) : null);
+    }
+
+    class RankedProductViewHolder extends RecyclerView.ViewHolder {
+        private ImageView ivProductImage;
+        private TextView tvProductName;
+        private TextView tvProductPrice;
+        private TextView tvUnitsSold;
+
+        RankedProductViewHolder(@NonNull View itemView) {
+            super(itemView);
+            ivProductImage = itemView.findViewById(R.id.iv_product_image);
+            tvProductName = itemView.findViewById(R.id.tv_product_name);
+            tvProductPrice = itemView.findViewById(R.id.tv_product_price);
+            tvUnitsSold = itemView.findViewById(R.id.tv_units_sold);
+
+            // Click listener gắn một lần, lấy sản phẩm hiện tại theo vị trí lúc bấm
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && onProductClickListener != null) {
+                    onProductClickListener.onProductClick(getItem(position).product);
+                }
+            });
+        }
+
+        void bind(ProductSalesDao.RankedProduct item) {
+            Product product = item.product;
+            tvProductName.setText(product.getName());
+
+            tvProductPrice.setText(PriceFormatter.format(product.getPrice()));
+            tvUnitsSold.setText("Đã bán " + item.unitsSold);
+
+            ImageLoader.loadProductImage(itemView.getContext(), product.getImageUrl(), ivProductImage);
+        }
+    }
+}
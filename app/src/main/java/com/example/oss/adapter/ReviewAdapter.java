@@ -8,8 +8,11 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
+import com.example.oss.dao.ReviewDao;
 import com.example.oss.entity.Review;
 import com.example.oss.util.SessionManager;
 import java.text.SimpleDateFormat;
@@ -17,12 +20,11 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
-public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewViewHolder> {
+public class ReviewAdapter extends ListAdapter<ReviewDao.ReviewWithAuthor, ReviewAdapter.ReviewViewHolder> {
 
-    private List<Review> reviews;
-    private List<String> userNames; // We'll need to get user names separately
     private OnReviewActionListener listener;
     private SessionManager sessionManager;
 
@@ -33,18 +35,32 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
         void onDeleteReview(Review review);
     }
 
-    public ReviewAdapter(List<Review> reviews, List<String> userNames,
-            OnReviewActionListener listener, SessionManager sessionManager) {
-        this.reviews = reviews != null ? reviews : new ArrayList<>();
-        this.userNames = userNames != null ? userNames : new ArrayList<>();
+    public ReviewAdapter(OnReviewActionListener listener, SessionManager sessionManager) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
         this.sessionManager = sessionManager;
+        setHasStableIds(true);
     }
 
+    private static final DiffUtil.ItemCallback<ReviewDao.ReviewWithAuthor> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ReviewDao.ReviewWithAuthor>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ReviewDao.ReviewWithAuthor oldItem,
+                        @NonNull ReviewDao.ReviewWithAuthor newItem) {
+                    return oldItem.review.getId() == newItem.review.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ReviewDao.ReviewWithAuthor oldItem,
+                        @NonNull ReviewDao.ReviewWithAuthor newItem) {
+                    return oldItem.review.equals(newItem.review)
+                            && Objects.equals(oldItem.authorName, newItem.authorName);
+                }
+            };
+
     @NonNull
     @Override
     public ReviewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        android.util.Log.d("ReviewAdapter", "onCreateViewHolder called");
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_review, parent, false);
         return new ReviewViewHolder(view);
@@ -52,50 +68,19 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
 
     @Override
     public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
-        Review review = reviews.get(position);
-        holder.bind(review, position);
+        ReviewDao.ReviewWithAuthor item = getItem(position);
+        holder.bind(item.review, item.authorName);
     }
 
     @Override
-    public int getItemCount() {
-        android.util.Log.d("ReviewAdapter", "getItemCount called, returning: " + reviews.size());
-        return reviews.size();
-    }
-
-    public void updateReviews(List<Review> newReviews) {
-        android.util.Log.d("ReviewAdapter", "updateReviews called with " + newReviews.size() + " reviews");
-        this.reviews.clear();
-        this.reviews.addAll(newReviews);
-        android.util.Log.d("ReviewAdapter", "reviews.size after update: " + reviews.size());
-        notifyDataSetChanged();
-    }
-
-    public void updateUserNames(List<String> newUserNames) {
-        this.userNames.clear();
-        this.userNames.addAll(newUserNames);
-        notifyDataSetChanged();
+    public long getItemId(int position) {
+        return getItem(position).review.getId();
     }
 
-    public void updateReviewsAndUserNames(List<Review> newReviews, List<String> newUserNames) {
-        android.util.Log.d("ReviewAdapter", "updateReviewsAndUserNames called with " +
-                (newReviews != null ? newReviews.size() : "null") + " reviews and " +
-                (newUserNames != null ? newUserNames.size() : "null") + " user names");
-
-        if (newReviews != null) {
-            this.reviews.clear();
-            this.reviews.addAll(newReviews);
-            android.util.Log.d("ReviewAdapter", "Reviews updated, new size: " + this.reviews.size());
-        }
-
-        if (newUserNames != null) {
-            this.userNames.clear();
-            this.userNames.addAll(newUserNames);
-            android.util.Log.d("ReviewAdapter", "User names updated, new size: " + this.userNames.size());
-        }
-
-        android.util.Log.d("ReviewAdapter", "About to call notifyDataSetChanged()");
-        notifyDataSetChanged();
-        android.util.Log.d("ReviewAdapter", "notifyDataSetChanged() completed");
+    // Tên người viết đi cùng từng review (một query join users), không còn danh sách tên song song.
+    // Tải thêm trang hay sửa một review chỉ bind lại các dòng mới/đổi (diff trên background thread)
+    public void updateReviews(List<ReviewDao.ReviewWithAuthor> newReviews) {
+        submitList(newReviews != null ? new ArrayList<>(newReviews) : null);
     }
 
     class ReviewViewHolder extends RecyclerView.ViewHolder {
@@ -124,15 +109,10 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
             stars[4] = itemView.findViewById(R.id.star_5);
         }
 
-        public void bind(Review review, int position) {
-            // Debug log
-            android.util.Log.d("ReviewAdapter", "Binding review " + position +
-                    ": rating=" + review.getRating() + ", comment=" + review.getComment() +
-                    ", userNames.size=" + userNames.size());
-
+        public void bind(Review review, String authorName) {
             // Set user name
-            if (position < userNames.size() && !userNames.get(position).isEmpty()) {
-                tvReviewerName.setText(userNames.get(position));
+            if (authorName != null && !authorName.isEmpty()) {
+                tvReviewerName.setText(authorName);
             } else {
                 tvReviewerName.setText("Người dùng " + review.getUserId());
             }
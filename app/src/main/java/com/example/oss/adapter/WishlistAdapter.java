@@ -6,20 +6,29 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.R;
+import com.example.oss.dao.ProductDao;
 import com.example.oss.entity.Product;
+import com.example.oss.entity.ProductRatingStats;
 import com.example.oss.util.ImageLoader;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.WishlistViewHolder> {
+public class WishlistAdapter extends ListAdapter<ProductDao.RatedProduct, WishlistAdapter.WishlistViewHolder> {
+
+    // Các phần của một ô bind lại được riêng; payload là tổ hợp bit, null = bind lại cả ô
+    private static final int CHANGE_PRICE = 1;
+    private static final int CHANGE_STOCK = 1 << 1;
+    private static final int CHANGE_RATING = 1 << 2;
 
-    private List<Product> wishlistProducts;
     private OnWishlistItemClickListener onItemClickListener;
     private OnRemoveFromWishlistListener onRemoveListener;
     private OnAddToCartFromWishlistListener onAddToCartListener;
@@ -37,16 +46,57 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
         void onAddToCartFromWishlist(Product product);
     }
 
-    public WishlistAdapter(List<Product> wishlistProducts,
+    public WishlistAdapter(List<ProductDao.RatedProduct> wishlistProducts,
             OnWishlistItemClickListener onItemClickListener,
             OnRemoveFromWishlistListener onRemoveListener,
             OnAddToCartFromWishlistListener onAddToCartListener) {
-        this.wishlistProducts = wishlistProducts != null ? wishlistProducts : new ArrayList<>();
+        super(DIFF_CALLBACK);
         this.onItemClickListener = onItemClickListener;
         this.onRemoveListener = onRemoveListener;
         this.onAddToCartListener = onAddToCartListener;
+        setHasStableIds(true);
+        updateWishlistProducts(wishlistProducts);
     }
 
+    private static final DiffUtil.ItemCallback<ProductDao.RatedProduct> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ProductDao.RatedProduct>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    return oldItem.product.getId() == newItem.product.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    return oldItem.product.equals(newItem.product)
+                            && Objects.equals(oldItem.ratingStats, newItem.ratingStats);
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull ProductDao.RatedProduct oldItem,
+                        @NonNull ProductDao.RatedProduct newItem) {
+                    Product oldProduct = oldItem.product;
+                    Product newProduct = newItem.product;
+                    if (!Objects.equals(oldProduct.getName(), newProduct.getName())
+                            || !Objects.equals(oldProduct.getImageUrl(), newProduct.getImageUrl())) {
+                        return null;
+                    }
+                    int changes = 0;
+                    if (!Objects.equals(oldProduct.getPrice(), newProduct.getPrice())) {
+                        changes |= CHANGE_PRICE;
+                    }
+                    if (oldProduct.getStockQuantity() != newProduct.getStockQuantity()) {
+                        changes |= CHANGE_STOCK;
+                    }
+                    if (!Objects.equals(oldItem.ratingStats, newItem.ratingStats)) {
+                        changes |= CHANGE_RATING;
+                    }
+                    // Chỉ đổi cột không hiển thị: bind lại phần nhỏ nhất thay vì cả ô
+                    return changes != 0 ? changes : CHANGE_STOCK;
+                }
+            };
+
     @NonNull
     @Override
     public WishlistViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -57,31 +107,44 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
 
     @Override
     public void onBindViewHolder(@NonNull WishlistViewHolder holder, int position) {
-        Product product = wishlistProducts.get(position);
-        holder.bind(product);
+        ProductDao.RatedProduct item = getItem(position);
+        holder.bind(item.product, item.ratingStats);
     }
 
     @Override
-    public int getItemCount() {
-        return wishlistProducts.size();
+    public void onBindViewHolder(@NonNull WishlistViewHolder holder, int position, @NonNull List<Object> payloads) {
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                changes = 0;
+                break;
+            }
+            changes |= (Integer) payload;
+        }
+        if (changes == 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        ProductDao.RatedProduct item = getItem(position);
+        if ((changes & CHANGE_PRICE) != 0) {
+            holder.bindPrice(item.product);
+        }
+        if ((changes & CHANGE_STOCK) != 0) {
+            holder.bindStock(item.product);
+        }
+        if ((changes & CHANGE_RATING) != 0) {
+            holder.bindRating(item.ratingStats);
+        }
     }
 
-    // Update data
-    public void updateWishlistProducts(List<Product> newProducts) {
-        this.wishlistProducts.clear();
-        if (newProducts != null) {
-            this.wishlistProducts.addAll(newProducts);
-        }
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).product.getId();
     }
 
-    // Remove specific item
-    public void removeItem(int position) {
-        if (position >= 0 && position < wishlistProducts.size()) {
-            wishlistProducts.remove(position);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, wishlistProducts.size());
-        }
+    // Danh sách mới được so với danh sách cũ trên background thread, chỉ ô thay đổi được bind lại
+    public void updateWishlistProducts(List<ProductDao.RatedProduct> newProducts) {
+        submitList(newProducts != null ? new ArrayList<>(newProducts) : null);
     }
 
     // ViewHolder class
@@ -91,6 +154,7 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
         private ImageView ivRemoveFromWishlist;
         private TextView tvProductName;
         private TextView tvProductPrice;
+        private TextView tvProductRating;
         private TextView tvStockStatus;
         private MaterialButton btnAddToCart;
 
@@ -101,19 +165,44 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
             ivRemoveFromWishlist = itemView.findViewById(R.id.iv_remove_from_wishlist);
             tvProductName = itemView.findViewById(R.id.tv_product_name);
             tvProductPrice = itemView.findViewById(R.id.tv_product_price);
+            tvProductRating = itemView.findViewById(R.id.tv_product_rating);
             tvStockStatus = itemView.findViewById(R.id.tv_stock_status);
             btnAddToCart = itemView.findViewById(R.id.btn_add_to_cart);
+
+            // Click listener gắn một lần, lấy sản phẩm hiện tại theo vị trí lúc bấm
+            cardView.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onItemClickListener != null) {
+                    onItemClickListener.onWishlistItemClick(product);
+                }
+            });
+
+            ivRemoveFromWishlist.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onRemoveListener != null) {
+                    onRemoveListener.onRemoveFromWishlist(product);
+                }
+            });
+
+            btnAddToCart.setOnClickListener(v -> {
+                Product product = currentProduct();
+                if (product != null && onAddToCartListener != null && product.getStockQuantity() > 0) {
+                    onAddToCartListener.onAddToCartFromWishlist(product);
+                }
+            });
         }
 
-        public void bind(Product product) {
+        private Product currentProduct() {
+            int position = getBindingAdapterPosition();
+            return position != RecyclerView.NO_POSITION ? getItem(position).product : null;
+        }
+
+        public void bind(Product product, ProductRatingStats ratingStats) {
             // Set product name
             tvProductName.setText(product.getName());
 
-            // Format and set price
-            NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-            String formattedPrice = formatter.format(product.getPrice());
-            formattedPrice = formattedPrice.replace("₫", "").trim() + "₫";
-            tvProductPrice.setText(formattedPrice);
+            bindPrice(product);
+            bindRating(ratingStats);
 
             // Load product image
             ImageLoader.loadProductImage(
@@ -121,7 +210,24 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
                     product.getImageUrl(),
                     ivProductImage);
 
-            // Handle stock status
+            bindStock(product);
+        }
+
+        void bindPrice(Product product) {
+            tvProductPrice.setText(PriceFormatter.format(product.getPrice()));
+        }
+
+        // Đánh giá đi kèm trong cùng query danh sách yêu thích
+        void bindRating(ProductRatingStats ratingStats) {
+            if (ratingStats != null && ratingStats.getRatingCount() > 0) {
+                tvProductRating.setText(String.format(Locale.getDefault(), "★ %.1f (%d đánh giá)",
+                        ratingStats.getAverageRating(), ratingStats.getRatingCount()));
+            } else {
+                tvProductRating.setText("Chưa có đánh giá");
+            }
+        }
+
+        void bindStock(Product product) {
             if (product.getStockQuantity() <= 0) {
                 tvStockStatus.setText("Hết hàng");
                 tvStockStatus
@@ -141,25 +247,6 @@ public class WishlistAdapter extends RecyclerView.Adapter<WishlistAdapter.Wishli
                 btnAddToCart.setText("Thêm vào giỏ");
                 btnAddToCart.setEnabled(true);
             }
-
-            // Set click listeners
-            cardView.setOnClickListener(v -> {
-                if (onItemClickListener != null) {
-                    onItemClickListener.onWishlistItemClick(product);
-                }
-            });
-
-            ivRemoveFromWishlist.setOnClickListener(v -> {
-                if (onRemoveListener != null) {
-                    onRemoveListener.onRemoveFromWishlist(product);
-                }
-            });
-
-            btnAddToCart.setOnClickListener(v -> {
-                if (onAddToCartListener != null && product.getStockQuantity() > 0) {
-                    onAddToCartListener.onAddToCartFromWishlist(product);
-                }
-            });
         }
     }
-}
\ No newline at end of file
+}
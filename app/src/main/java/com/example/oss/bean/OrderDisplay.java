@@ -1,12 +1,10 @@
 package com.example.oss.bean;
 
-import com.example.oss.dao.OrderItemDao;
 import com.example.oss.entity.OrderItem;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Date;
-import java.util.List;
 
 public class OrderDisplay implements Serializable {
     public int orderId;
@@ -15,18 +13,9 @@ public class OrderDisplay implements Serializable {
     public String customerName;
     public String customerEmail;
     public String customerPhone;
-    public List<OrderItemDao.OrderItemWithProduct> productList;
     public String productSummary; // Ví dụ: "Sản phẩm A (2), Sản phẩm B (1)"
     public BigDecimal totalAmount;
 
-    public List<OrderItemDao.OrderItemWithProduct> getProductList() {
-        return productList;
-    }
-
-    public void setProductList(List<OrderItemDao.OrderItemWithProduct> productList) {
-        this.productList = productList;
-    }
-
     public String paymentMethod;
     public int itemCount;
 
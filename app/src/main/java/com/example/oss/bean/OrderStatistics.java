@@ -1,5 +1,6 @@
 package com.example.oss.bean;
 
+// Room đọc thẳng từ OrderDao.getOrderStatistics (cột đặt alias trùng tên field)
 public class OrderStatistics {
     private int totalOrders;
     private int pendingOrders;
@@ -8,12 +9,6 @@ public class OrderStatistics {
     public OrderStatistics() {
     }
 
-    public OrderStatistics(int totalOrders, int pendingOrders, int completedOrders) {
-        this.totalOrders = totalOrders;
-        this.pendingOrders = pendingOrders;
-        this.completedOrders = completedOrders;
-    }
-
     public int getTotalOrders() {
         return totalOrders;
     }
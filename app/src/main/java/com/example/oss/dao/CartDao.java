@@ -6,11 +6,14 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import com.example.oss.entity.Cart;
 import com.example.oss.entity.Product;
 import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Dao
 public interface CartDao {
@@ -28,20 +31,16 @@ public interface CartDao {
     @Query("SELECT * FROM cart WHERE user_id = :userId AND product_id = :productId")
     LiveData<Cart> getCartItemLive(int userId, int productId);
 
-    @Query("SELECT COUNT(*) FROM cart WHERE user_id = :userId")
-    LiveData<Integer> getCartCount(int userId);
-
     @Query("SELECT COUNT(*) FROM cart WHERE user_id = :userId")
     int getCartCountSync(int userId);
 
-    @Query("SELECT SUM(quantity) FROM cart WHERE user_id = :userId")
-    LiveData<Integer> getTotalQuantity(int userId);
-
-    @Query("SELECT SUM(quantity) FROM cart WHERE user_id = :userId")
-    int getTotalQuantitySync(int userId);
+    // Chỉ id và số lượng, để nạp MembershipIndex
+    @Query("SELECT product_id, quantity FROM cart WHERE user_id = :userId")
+    List<CartQuantity> getCartQuantitiesSync(int userId);
 
     // Lấy thông tin cart với product details - FIX: sử dụng aliases để match field
-    // names
+    // names. Đây là query duy nhất màn giỏ hàng/thanh toán observe; số lượng và tổng tiền
+    // được tính từ chính kết quả này (CartRepository.CartSnapshot)
     @Query("SELECT c.user_id, c.product_id, c.quantity, c.added_at, " +
             "p.name as product_name, p.price, p.image_url, p.stock_quantity " +
             "FROM cart c " +
@@ -58,19 +57,6 @@ public interface CartDao {
             "ORDER BY c.added_at DESC")
     List<CartWithProduct> getCartWithProductsSync(int userId);
 
-    // Tính tổng tiền giỏ hàng
-    @Query("SELECT SUM(c.quantity * p.price) " +
-            "FROM cart c " +
-            "INNER JOIN products p ON c.product_id = p.id " +
-            "WHERE c.user_id = :userId")
-    LiveData<BigDecimal> getCartTotal(int userId);
-
-    @Query("SELECT SUM(c.quantity * p.price) " +
-            "FROM cart c " +
-            "INNER JOIN products p ON c.product_id = p.id " +
-            "WHERE c.user_id = :userId")
-    BigDecimal getCartTotalSync(int userId);
-
     // Write operations
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertCartItem(Cart cart);
@@ -96,6 +82,94 @@ public interface CartDao {
     @Query("UPDATE cart SET quantity = :quantity WHERE user_id = :userId AND product_id = :productId")
     void updateQuantity(int userId, int productId, int quantity);
 
+    // Ghi một loạt số lượng đã gom (CartWriteBuffer) trong một transaction, một lần invalidation
+    @Transaction
+    default void applyQuantities(int userId, Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            updateQuantity(userId, entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Tạo dòng số lượng 0 nếu chưa có và sản phẩm còn hàng (API 27 chưa có UPSERT)
+    @Query("INSERT OR IGNORE INTO cart (user_id, product_id, quantity, added_at) " +
+            "SELECT :userId, id, 0, :addedAt FROM products WHERE id = :productId AND stock_quantity > 0")
+    void ensureCartItem(int userId, int productId, Date addedAt);
+
+    // Cộng dồn ngay trong SQL, không vượt quá tồn kho hiện tại; không đổi dòng nào nếu sản phẩm đã hết hàng
+    @Query("UPDATE cart SET quantity = MIN(quantity + :quantity, " +
+            "(SELECT stock_quantity FROM products WHERE id = :productId)) " +
+            "WHERE user_id = :userId AND product_id = :productId " +
+            "AND (SELECT stock_quantity FROM products WHERE id = :productId) > 0")
+    int incrementQuantity(int userId, int productId, int quantity);
+
+    @Query("SELECT quantity FROM cart WHERE user_id = :userId AND product_id = :productId")
+    int getQuantity(int userId, int productId);
+
+    /**
+     * Thêm vào giỏ trong một transaction, không đọc dòng cũ lên Java rồi ghi lại,
+     * nên hai lần bấm liên tiếp không làm mất số lượng của nhau.
+     * Trả về số lượng trong giỏ sau khi thêm. Nếu sản phẩm đã hết hàng thì không cộng gì
+     * và trả về số đang có trong giỏ (0 nếu chưa có dòng), để chỉ báo "đã trong giỏ" không bị xoá.
+     */
+    @Transaction
+    default int addToCart(int userId, int productId, int quantity, Date addedAt) {
+        ensureCartItem(userId, productId, addedAt);
+        incrementQuantity(userId, productId, quantity);
+        return getQuantity(userId, productId);
+    }
+
+    // Các dòng của đơn cũ kèm số đang có trong giỏ và tồn kho hiện tại, đọc trước khi gộp
+    @Query("SELECT oi.product_id, p.name AS product_name, oi.quantity AS requested, " +
+            "COALESCE(c.quantity, 0) AS in_cart, p.stock_quantity " +
+            "FROM order_items oi " +
+            "INNER JOIN products p ON p.id = oi.product_id " +
+            "LEFT JOIN cart c ON c.user_id = :userId AND c.product_id = oi.product_id " +
+            "WHERE oi.order_id = :orderId")
+    List<ReorderLine> getReorderLines(int userId, int orderId);
+
+    @Query("INSERT OR IGNORE INTO cart (user_id, product_id, quantity, added_at) " +
+            "SELECT :userId, oi.product_id, 0, :addedAt FROM order_items oi " +
+            "INNER JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.order_id = :orderId AND p.stock_quantity > 0")
+    void ensureCartItemsForOrder(int userId, int orderId, Date addedAt);
+
+    // Cộng số lượng của đơn vào giỏ cho mọi dòng còn hàng, mỗi dòng không vượt tồn kho
+    @Query("UPDATE cart SET quantity = MIN(quantity + " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.product_id = cart.product_id), " +
+            "(SELECT stock_quantity FROM products WHERE id = cart.product_id)) " +
+            "WHERE user_id = :userId AND product_id IN " +
+            "(SELECT oi.product_id FROM order_items oi INNER JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.order_id = :orderId AND p.stock_quantity > 0)")
+    int incrementQuantitiesForOrder(int userId, int orderId);
+
+    /**
+     * Mua lại cả đơn trong một transaction: hai câu lệnh cho mọi dòng thay vì một lần ghi mỗi sản phẩm.
+     * Trả về các dòng của đơn như lúc đọc (trước khi gộp) để báo dòng nào bị giới hạn hoặc hết hàng.
+     */
+    @Transaction
+    default List<ReorderLine> mergeOrderIntoCart(int userId, int orderId, Date addedAt) {
+        List<ReorderLine> lines = getReorderLines(userId, orderId);
+        if (!lines.isEmpty()) {
+            ensureCartItemsForOrder(userId, orderId, addedAt);
+            incrementQuantitiesForOrder(userId, orderId);
+        }
+        return lines;
+    }
+
+    class CartQuantity {
+        public int product_id;
+        public int quantity;
+    }
+
+    class ReorderLine {
+        public int product_id;
+        public String product_name;
+        public int requested;
+        public int in_cart;
+        public int stock_quantity;
+    }
+
     // Data class cho cart với product details - FIX: đổi field names để match với
     // column names
     class CartWithProduct {
@@ -177,6 +251,20 @@ public interface CartDao {
             this.stock_quantity = stock_quantity;
         }
 
+        // Bản sao với số lượng khác, dùng khi phủ số lượng chưa ghi lên kết quả query
+        public CartWithProduct withQuantity(int newQuantity) {
+            CartWithProduct copy = new CartWithProduct();
+            copy.user_id = user_id;
+            copy.product_id = product_id;
+            copy.quantity = newQuantity;
+            copy.added_at = added_at;
+            copy.product_name = product_name;
+            copy.price = price;
+            copy.image_url = image_url;
+            copy.stock_quantity = stock_quantity;
+            return copy;
+        }
+
         // Calculated fields
         public BigDecimal getTotalPrice() {
             return price != null ? price.multiply(BigDecimal.valueOf(quantity)) : BigDecimal.ZERO;
@@ -19,11 +19,27 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories WHERE id = :id")
     LiveData<Category> getCategoryById(int id);
 
+    // Tìm theo tiền tố trên search_name (đã bỏ dấu) bằng khoảng [prefix, prefixEnd) để đi index search_name;
+    // GLOB/LIKE với biểu thức ":p || '*'" không được SQLite tối ưu thành khoảng và sẽ quét cả bảng
+    @Query("SELECT * FROM categories WHERE search_name >= :foldedPrefix AND search_name < :foldedPrefixEnd " +
+            "ORDER BY search_name ASC")
+    LiveData<List<Category>> searchCategoriesByPrefix(String foldedPrefix, String foldedPrefixEnd);
+
     @Insert
-    long insertCategory(Category category);
+    long insertCategoryRow(Category category);
 
     @Update
-    void updateCategory(Category category);
+    void updateCategoryRow(Category category);
+
+    default long insertCategory(Category category) {
+        category.updateSearchKeys();
+        return insertCategoryRow(category);
+    }
+
+    default void updateCategory(Category category) {
+        category.updateSearchKeys();
+        updateCategoryRow(category);
+    }
 
     @Delete
     void deleteCategory(Category category);
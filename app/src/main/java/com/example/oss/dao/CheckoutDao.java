@@ -0,0 +1,191 @@
+package com.example.oss.dao;
+
+import androidx.room.*;
+import com.example.oss.entity.Order;
+import com.example.oss.entity.OrderItem;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Đặt hàng, hủy đơn và đổi trạng thái đơn, mỗi thao tác là một transaction: hoặc ghi hết, hoặc không ghi gì.
+ * Tồn kho được trừ/cộng bằng một câu UPDATE theo order_items của đơn, không đọc-sửa-ghi từng sản phẩm.
+ * Bộ đếm bán chạy (product_sales, product_weekly_sales, category_sales) được cập nhật cùng transaction.
+ * category_sales tính theo order_items.category_id (danh mục lúc bán), nên sản phẩm đổi danh mục sau đó
+ * thì hủy đơn vẫn trừ đúng danh mục đã cộng.
+ */
+@Dao
+public interface CheckoutDao {
+    @Insert
+    long insertOrder(Order order);
+
+    @Insert
+    void insertOrderItems(List<OrderItem> orderItems);
+
+    @Query("UPDATE order_items SET category_id = " +
+            "(SELECT p.category_id FROM products p WHERE p.id = order_items.product_id) " +
+            "WHERE order_id = :orderId")
+    void stampItemCategories(int orderId);
+
+    // Chỉ trừ ở những sản phẩm còn đủ hàng; trả về số sản phẩm đã trừ
+    @Query("UPDATE products SET stock_quantity = stock_quantity - " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.order_id = :orderId AND oi.product_id = products.id) " +
+            "WHERE id IN (SELECT product_id FROM order_items WHERE order_id = :orderId) " +
+            "AND stock_quantity >= " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.order_id = :orderId AND oi.product_id = products.id)")
+    int decrementStockForOrder(int orderId);
+
+    @Query("UPDATE products SET stock_quantity = stock_quantity + " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.order_id = :orderId AND oi.product_id = products.id) " +
+            "WHERE id IN (SELECT product_id FROM order_items WHERE order_id = :orderId)")
+    int restoreStockForOrder(int orderId);
+
+    @Query("UPDATE orders SET status = 'cancelled' WHERE id = :orderId AND status IN ('pending', 'confirmed')")
+    int markCancelled(int orderId);
+
+    @Query("SELECT status FROM orders WHERE id = :orderId")
+    String getOrderStatus(int orderId);
+
+    @Query("UPDATE orders SET status = :status WHERE id = :orderId")
+    void setOrderStatus(int orderId, String status);
+
+    // Số sản phẩm khác nhau của đơn (đúng tập mà decrementStockForOrder trừ), không cần sort DISTINCT
+    @Query("SELECT COUNT(*) FROM products WHERE id IN (SELECT product_id FROM order_items WHERE order_id = :orderId)")
+    int countOrderProducts(int orderId);
+
+    @Query("DELETE FROM cart WHERE user_id = :userId")
+    void clearCart(int userId);
+
+    // Bộ đếm bán hàng: sign = 1 khi đặt đơn, -1 khi hủy. INSERT OR IGNORE tạo dòng 0 nếu chưa có (API 27 chưa có UPSERT).
+    // last_sold_at: cộng thì lấy ngày muộn hơn, trừ thì tính lại từ các đơn chưa hủy còn lại
+    // (đơn phải được đánh dấu 'cancelled' trước khi gọi với sign = -1)
+    @Query("INSERT OR IGNORE INTO product_sales (product_id, units_sold, revenue, last_sold_at) " +
+            "SELECT product_id, 0, 0, NULL FROM order_items WHERE order_id = :orderId")
+    void ensureProductSales(int orderId);
+
+    @Query("UPDATE product_sales SET " +
+            "units_sold = units_sold + :sign * " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.product_id = product_sales.product_id), " +
+            "revenue = revenue + :sign * " +
+            "(SELECT SUM(oi.quantity * COALESCE(oi.price_at_purchase, 0)) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.product_id = product_sales.product_id), " +
+            "last_sold_at = CASE WHEN :sign > 0 " +
+            "THEN COALESCE(MAX(last_sold_at, (SELECT o.order_date FROM orders o WHERE o.id = :orderId)), " +
+            "(SELECT o.order_date FROM orders o WHERE o.id = :orderId), last_sold_at) " +
+            "ELSE (SELECT MAX(o.order_date) FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE oi.product_id = product_sales.product_id AND COALESCE(o.status, '') <> 'cancelled') END " +
+            "WHERE product_id IN (SELECT product_id FROM order_items WHERE order_id = :orderId)")
+    void applyProductSales(int orderId, int sign);
+
+    // Tuần tính theo ngày đặt đơn (không phải ngày hủy) để hủy đơn trừ đúng tuần đã cộng
+    @Query("INSERT OR IGNORE INTO product_weekly_sales (week_start, product_id, units_sold) " +
+            "SELECT date(o.order_date / 1000, 'unixepoch', 'localtime', '-6 days', 'weekday 1'), oi.product_id, 0 " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.id = :orderId AND o.order_date IS NOT NULL")
+    void ensureProductWeeklySales(int orderId);
+
+    @Query("UPDATE product_weekly_sales SET units_sold = units_sold + :sign * " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.product_id = product_weekly_sales.product_id) " +
+            "WHERE week_start = (SELECT date(o.order_date / 1000, 'unixepoch', 'localtime', '-6 days', 'weekday 1') " +
+            "FROM orders o WHERE o.id = :orderId) " +
+            "AND product_id IN (SELECT product_id FROM order_items WHERE order_id = :orderId)")
+    void applyProductWeeklySales(int orderId, int sign);
+
+    @Query("INSERT OR IGNORE INTO category_sales (category_id, units_sold, revenue) " +
+            "SELECT category_id, 0, 0 FROM order_items WHERE order_id = :orderId AND category_id IS NOT NULL")
+    void ensureCategorySales(int orderId);
+
+    @Query("UPDATE category_sales SET " +
+            "units_sold = units_sold + :sign * " +
+            "(SELECT SUM(oi.quantity) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.category_id = category_sales.category_id), " +
+            "revenue = revenue + :sign * " +
+            "(SELECT SUM(oi.quantity * COALESCE(oi.price_at_purchase, 0)) FROM order_items oi " +
+            "WHERE oi.order_id = :orderId AND oi.category_id = category_sales.category_id) " +
+            "WHERE category_id IN (SELECT category_id FROM order_items WHERE order_id = :orderId)")
+    void applyCategorySales(int orderId, int sign);
+
+    // Cộng (sign = 1) hoặc trừ (sign = -1) các dòng của đơn vào product_sales, product_weekly_sales, category_sales
+    default void recordSales(int orderId, int sign) {
+        ensureProductSales(orderId);
+        applyProductSales(orderId, sign);
+        ensureProductWeeklySales(orderId);
+        applyProductWeeklySales(orderId, sign);
+        ensureCategorySales(orderId);
+        applyCategorySales(orderId, sign);
+    }
+
+    /**
+     * Ghi đơn hàng, các dòng order_items và trừ tồn kho trong cùng một transaction.
+     * Thiếu hàng ở bất kỳ sản phẩm nào thì ném InsufficientStockException và toàn bộ bị rollback.
+     */
+    @Transaction
+    default long placeOrder(Order order, List<OrderItem> orderItems, boolean clearCart) {
+        int orderId = (int) insertOrder(order);
+        Set<Integer> productIds = new HashSet<>();
+        for (OrderItem item : orderItems) {
+            item.setOrderId(orderId);
+            productIds.add(item.getProductId());
+        }
+        insertOrderItems(orderItems);
+        stampItemCategories(orderId);
+
+        if (decrementStockForOrder(orderId) < productIds.size()) {
+            throw new InsufficientStockException(orderId);
+        }
+        recordSales(orderId, 1);
+        if (clearCart) {
+            clearCart(order.getUserId());
+        }
+        return orderId;
+    }
+
+    // Trả về false nếu đơn đã hủy hoặc đã giao, khi đó tồn kho giữ nguyên
+    @Transaction
+    default boolean cancelOrder(int orderId) {
+        if (markCancelled(orderId) == 0) {
+            return false;
+        }
+        restoreStockForOrder(orderId);
+        recordSales(orderId, -1);
+        return true;
+    }
+
+    /**
+     * Đổi trạng thái đơn (admin). Vào 'cancelled' thì cộng lại kho và trừ bộ đếm bán hàng;
+     * ra khỏi 'cancelled' thì lấy lại kho và cộng lại bộ đếm, thiếu hàng thì ném
+     * InsufficientStockException và rollback. Trả về false nếu không có đơn.
+     */
+    @Transaction
+    default boolean changeOrderStatus(int orderId, String newStatus) {
+        String oldStatus = getOrderStatus(orderId);
+        if (oldStatus == null) {
+            return false;
+        }
+        if (oldStatus.equals(newStatus)) {
+            return true;
+        }
+        boolean wasCancelled = "cancelled".equals(oldStatus);
+        boolean isCancelled = "cancelled".equals(newStatus);
+        // Đổi trạng thái trước để recordSales(-1) không tính đơn này vào last_sold_at
+        setOrderStatus(orderId, newStatus);
+        if (isCancelled && !wasCancelled) {
+            restoreStockForOrder(orderId);
+            recordSales(orderId, -1);
+        } else if (wasCancelled && !isCancelled) {
+            if (decrementStockForOrder(orderId) < countOrderProducts(orderId)) {
+                throw new InsufficientStockException(orderId);
+            }
+            recordSales(orderId, 1);
+        }
+        return true;
+    }
+
+    class InsufficientStockException extends RuntimeException {
+        public InsufficientStockException(int orderId) {
+            super("Không đủ hàng trong kho cho đơn #" + orderId);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.oss.dao;
 
 import androidx.room.*;
 import androidx.lifecycle.LiveData;
+import com.example.oss.bean.OrderStatistics;
 import com.example.oss.entity.Order;
 import java.util.List;
 import java.util.Date;
@@ -42,11 +43,29 @@ public interface OrderDao {
     @Query("SELECT * FROM orders WHERE order_date BETWEEN :startDate AND :endDate ORDER BY order_date DESC")
     LiveData<List<Order>> getOrdersByDateRange(Date startDate, Date endDate);
 
-    @Query("SELECT o.*, u.full_name AS customer_name, u.email AS  customer_email, u.phone_number AS customer_phone " +
-            "From orders o " +
-            "INNER JOIN users u ON o.user_id = u.id " +
-            "ORDER BY o.order_date DESC")
-    LiveData<List<OrdersWithCustomer>> getOrdersWithCustomer();
+    // Màn quản lý đơn: khách hàng, tổng số lượng và tóm tắt sản phẩm của từng đơn lấy trong một query
+    String ORDER_MANAGEMENT_SELECT =
+            "SELECT o.*, u.full_name AS customer_name, u.email AS customer_email, u.phone_number AS customer_phone, " +
+            "COALESCE((SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.order_id = o.id), 0) AS item_count, " +
+            "(SELECT GROUP_CONCAT(p.name || ' (x' || oi.quantity || ')', ', ') " +
+            " FROM order_items oi INNER JOIN products p ON oi.product_id = p.id " +
+            " WHERE oi.order_id = o.id) AS product_summary " +
+            "FROM orders o " +
+            "INNER JOIN users u ON o.user_id = u.id ";
+
+    @Query(ORDER_MANAGEMENT_SELECT + "ORDER BY o.order_date DESC")
+    LiveData<List<OrdersWithCustomer>> getOrderManagementRows();
+
+    // Như trên nhưng chỉ lấy một trạng thái, đi theo index (status, order_date)
+    @Query(ORDER_MANAGEMENT_SELECT + "WHERE o.status = :status ORDER BY o.order_date DESC")
+    LiveData<List<OrdersWithCustomer>> getOrderManagementRowsByStatus(String status);
+
+    // Số liệu cho các thẻ thống kê ở màn quản lý đơn, một lượt đọc trên index status
+    @Query("SELECT COUNT(*) AS totalOrders, " +
+            "SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END) AS pendingOrders, " +
+            "SUM(CASE WHEN status = 'delivered' THEN 1 ELSE 0 END) AS completedOrders " +
+            "FROM orders")
+    LiveData<OrderStatistics> getOrderStatistics();
 
     @Insert
     long insertOrder(Order order);
@@ -57,9 +76,6 @@ public interface OrderDao {
     @Delete
     void deleteOrder(Order order);
 
-    @Query("UPDATE orders SET status = :status WHERE id = :orderId")
-    void updateOrderStatus(int orderId, String status);
-
     @Query("DELETE FROM orders WHERE id = :orderId")
     void deleteOrderById(int orderId);
 
@@ -75,5 +91,11 @@ public interface OrderDao {
 
         @ColumnInfo(name = "customer_phone")
         public String customerPhone;
+
+        @ColumnInfo(name = "item_count")
+        public int itemCount;
+
+        @ColumnInfo(name = "product_summary")
+        public String productSummary;
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.oss.dao;
 import androidx.room.*;
 import androidx.lifecycle.LiveData;
 import com.example.oss.entity.Product;
+import com.example.oss.entity.ProductRatingStats;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -21,10 +22,11 @@ public interface ProductDao {
         @Query("SELECT * FROM products WHERE id = :id")
         LiveData<Product> getProductById(int id);
 
-      @Query("SELECT * FROM products WHERE " +
-            "LOWER(name) LIKE LOWER('%' || :searchQuery || '%') " +
+    // Các query tìm kiếm nhận biểu thức MATCH đã dựng sẵn bởi FtsQueryBuilder
+    @Query("SELECT * FROM products WHERE " +
+            "id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery) " +
             "ORDER BY name ASC")
-    LiveData<List<Product>> searchAllProducts(String searchQuery);
+    LiveData<List<Product>> searchAllProducts(String matchQuery);
 
     @Query("SELECT * FROM products WHERE " +
             "category_id = :categoryId " +
@@ -32,25 +34,29 @@ public interface ProductDao {
     LiveData<List<Product>> getAllProductsByCategory(int categoryId);
 
     @Query("SELECT * FROM products WHERE " +
-            "LOWER(name) LIKE LOWER('%' || :searchQuery || '%') " +
+            "id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery) " +
             "AND category_id = :categoryId " +
             "ORDER BY name ASC")
-    LiveData<List<Product>> searchAllProductsByCategory(String searchQuery, int categoryId);
+    LiveData<List<Product>> searchAllProductsByCategory(String matchQuery, int categoryId);
 
   
-        @Query("SELECT * FROM products WHERE " +
-                        "(LOWER(name) LIKE LOWER('%' || :searchQuery || '%') OR " +
-                        " name LIKE '%' || :searchQuery || '%') " +
-                        "AND is_active = 1 " +
-                        "ORDER BY name ASC")
-        LiveData<List<Product>> searchProducts(String searchQuery);
+        // Xếp hạng: sản phẩm khớp theo tên đứng trước sản phẩm chỉ khớp mô tả
+        // (nameMatchQuery dùng bộ lọc cột search_name:)
+        @Query("SELECT p.* FROM products p " +
+                        "INNER JOIN products_fts ON p.id = products_fts.rowid " +
+                        "WHERE products_fts MATCH :matchQuery " +
+                        "AND p.is_active = 1 " +
+                        "ORDER BY CASE WHEN p.id IN " +
+                        "(SELECT rowid FROM products_fts WHERE products_fts MATCH :nameMatchQuery) " +
+                        "THEN 0 ELSE 1 END, p.name ASC")
+        LiveData<List<Product>> searchProducts(String matchQuery, String nameMatchQuery);
 
         @Query("SELECT * FROM products WHERE " +
-                        "(name LIKE '%' || :searchQuery || '%' OR description LIKE '%' || :searchQuery || '%') " +
+                        "id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery) " +
                         "AND is_active = 1 " +
                         "AND (:categoryIds IS NULL OR category_id IN (:categoryIds)) " +
                         "ORDER BY name ASC")
-        LiveData<List<Product>> searchProductsWithCategories(String searchQuery, List<Integer> categoryIds);
+        LiveData<List<Product>> searchProductsWithCategories(String matchQuery, List<Integer> categoryIds);
 
         @Query("SELECT * FROM products WHERE " +
                         "is_active = 1 " +
@@ -59,11 +65,8 @@ public interface ProductDao {
         LiveData<List<Product>> getProductsByCategories(List<Integer> categoryIds);
 
         @Query("SELECT * FROM products WHERE " +
-                        "(:searchQuery = '' OR " +
-                        " name LIKE '%' || :searchQuery || '%' OR " +
-                        " description LIKE '%' || :searchQuery || '%' OR " +
-                        " LOWER(name) LIKE LOWER('%' || :searchQuery || '%') OR " +
-                        " LOWER(description) LIKE LOWER('%' || :searchQuery || '%')) " +
+                        "(:matchQuery = '' OR " +
+                        " id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery)) " +
                         "AND is_active = 1 " +
                         "AND (:categoryIds IS NULL OR category_id IN (:categoryIds)) " +
                         "AND price >= :minPrice AND price <= :maxPrice " +
@@ -77,13 +80,96 @@ public interface ProductDao {
                         "CASE WHEN :sortBy = 'newest_first' THEN id END DESC, " +
                         "LOWER(name) ASC")
         LiveData<List<Product>> searchProductsAdvanced(
-                        String searchQuery,
+                        String matchQuery,
                         List<Integer> categoryIds,
                         BigDecimal minPrice,
                         BigDecimal maxPrice,
                         boolean inStockOnly,
                         String sortBy);
 
+        // Sắp xếp theo giá đi thẳng theo index (is_active, price), không cần temp B-tree
+        @Query("SELECT * FROM products WHERE " +
+                        "is_active = 1 " +
+                        "AND price >= :minPrice AND price <= :maxPrice " +
+                        "AND (:matchQuery = '' OR " +
+                        " id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery)) " +
+                        "AND (:categoryIds IS NULL OR category_id IN (:categoryIds)) " +
+                        "AND (:inStockOnly = 0 OR stock_quantity > 0) " +
+                        "ORDER BY price ASC")
+        LiveData<List<Product>> searchProductsByPriceAsc(
+                        String matchQuery,
+                        List<Integer> categoryIds,
+                        BigDecimal minPrice,
+                        BigDecimal maxPrice,
+                        boolean inStockOnly);
+
+        @Query("SELECT * FROM products WHERE " +
+                        "is_active = 1 " +
+                        "AND price >= :minPrice AND price <= :maxPrice " +
+                        "AND (:matchQuery = '' OR " +
+                        " id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery)) " +
+                        "AND (:categoryIds IS NULL OR category_id IN (:categoryIds)) " +
+                        "AND (:inStockOnly = 0 OR stock_quantity > 0) " +
+                        "ORDER BY price DESC")
+        LiveData<List<Product>> searchProductsByPriceDesc(
+                        String matchQuery,
+                        List<Integer> categoryIds,
+                        BigDecimal minPrice,
+                        BigDecimal maxPrice,
+                        boolean inStockOnly);
+
+        // Keyset paging cho ProductPager: trang sau bắt đầu ngay sau (cột sắp xếp, id) của dòng cuối
+        // trang trước. Viết dạng "col >= :x AND (col > :x OR id > :id)" để SQLite vẫn dùng range
+        // trên index thay vì quét lại từ đầu như OFFSET.
+        // Thống kê đánh giá đi kèm qua LEFT JOIN theo khóa chính, mỗi dòng chỉ thêm một lần tra PK.
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE p.is_active = 1 " +
+                        "AND p.name >= :afterName AND (p.name > :afterName OR p.id > :afterId) " +
+                        "ORDER BY p.name ASC, p.id ASC LIMIT :limit")
+        List<RatedProduct> getActiveProductsPageByName(String afterName, int afterId, int limit);
+
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE p.is_active = 1 " +
+                        "AND p.price >= :afterPrice AND (p.price > :afterPrice OR p.id > :afterId) " +
+                        "ORDER BY p.price ASC, p.id ASC LIMIT :limit")
+        List<RatedProduct> getActiveProductsPageByPrice(BigDecimal afterPrice, int afterId, int limit);
+
+        // "+is_active" để SQLite không chọn index (is_active, ...) rồi phải sort lại theo id;
+        // đi lùi theo rowid là đúng thứ tự cần
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE +p.is_active = 1 AND p.id < :beforeId " +
+                        "ORDER BY p.id DESC LIMIT :limit")
+        List<RatedProduct> getActiveProductsPageNewest(int beforeId, int limit);
+
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE p.category_id = :categoryId AND p.is_active = 1 " +
+                        "AND p.name >= :afterName AND (p.name > :afterName OR p.id > :afterId) " +
+                        "ORDER BY p.name ASC, p.id ASC LIMIT :limit")
+        List<RatedProduct> getCategoryProductsPageByName(int categoryId, String afterName, int afterId, int limit);
+
+        // Tìm kiếm chia hai pha: khớp tên trước, rồi tới các sản phẩm chỉ khớp mô tả
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE p.id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :nameMatchQuery) " +
+                        "AND p.is_active = 1 " +
+                        "AND p.name >= :afterName AND (p.name > :afterName OR p.id > :afterId) " +
+                        "ORDER BY p.name ASC, p.id ASC LIMIT :limit")
+        List<RatedProduct> searchNameMatchesPage(String nameMatchQuery, String afterName, int afterId, int limit);
+
+        @Query("SELECT p.*, s.* FROM products p " +
+                        "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
+                        "WHERE p.id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery) " +
+                        "AND p.id NOT IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :nameMatchQuery) " +
+                        "AND p.is_active = 1 " +
+                        "AND p.name >= :afterName AND (p.name > :afterName OR p.id > :afterId) " +
+                        "ORDER BY p.name ASC, p.id ASC LIMIT :limit")
+        List<RatedProduct> searchOtherMatchesPage(String matchQuery, String nameMatchQuery,
+                        String afterName, int afterId, int limit);
+
         @Query("SELECT MIN(price) FROM products WHERE is_active = 1")
         LiveData<BigDecimal> getMinPrice();
 
@@ -91,28 +177,39 @@ public interface ProductDao {
         LiveData<BigDecimal> getMaxPrice();
 
         @Query("SELECT MIN(price) FROM products WHERE " +
-                        "(name LIKE '%' || :searchQuery || '%' OR description LIKE '%' || :searchQuery || '%') "
-                        +
+                        "(:matchQuery = '' OR " +
+                        " id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery)) " +
                         "AND is_active = 1 " +
                         "AND (:categoryIds IS NULL OR category_id IN (:categoryIds))")
-        BigDecimal getMinPriceForFilter(String searchQuery, List<Integer> categoryIds);
+        BigDecimal getMinPriceForFilter(String matchQuery, List<Integer> categoryIds);
 
         @Query("SELECT MAX(price) FROM products WHERE " +
-                        "(name LIKE '%' || :searchQuery || '%' OR description LIKE '%' || :searchQuery || '%') "
-                        +
+                        "(:matchQuery = '' OR " +
+                        " id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery)) " +
                         "AND is_active = 1 " +
                         "AND (:categoryIds IS NULL OR category_id IN (:categoryIds))")
-        BigDecimal getMaxPriceForFilter(String searchQuery, List<Integer> categoryIds);
+        BigDecimal getMaxPriceForFilter(String matchQuery, List<Integer> categoryIds);
 
     @Query("SELECT SUM(stock_quantity) FROM products WHERE is_active = 1")
     int getTotalStockQuantity();
 
     
         @Insert
-        long insertProduct(Product product);
+        long insertProductRow(Product product);
 
         @Update
-        void updateProduct(Product product);
+        void updateProductRow(Product product);
+
+        // Khóa tìm kiếm bỏ dấu được tính một lần ở đây thay vì gọi hàm trên từng dòng lúc query
+        default long insertProduct(Product product) {
+                product.updateSearchKeys();
+                return insertProductRow(product);
+        }
+
+        default void updateProduct(Product product) {
+                product.updateSearchKeys();
+                updateProductRow(product);
+        }
 
         @Delete
         void deleteProduct(Product product);
@@ -121,11 +218,10 @@ public interface ProductDao {
         void deleteAllProducts();
 
         @Query("SELECT * FROM products WHERE " +
-                        "(LOWER(name) LIKE LOWER('%' || :searchQuery || '%') OR " +
-                        " name LIKE '%' || :searchQuery || '%') " +
+                        "id IN (SELECT rowid FROM products_fts WHERE products_fts MATCH :matchQuery) " +
                         "AND is_active = 1 " +
                         "ORDER BY name ASC")
-        List<Product> searchProductsSync(String searchQuery);
+        List<Product> searchProductsSync(String matchQuery);
 
         @Query("SELECT * FROM products WHERE is_active = 1")
         List<Product> getAllActiveProductsSync();
@@ -159,4 +255,13 @@ public interface ProductDao {
                         "AND is_active = 1 " +
                         "AND price >= 0 AND price <= 999999999 LIMIT 10")
         List<Product> debugAdvancedSearchWithPriceSync(String searchQuery);
+
+        // Dòng cho các lưới sản phẩm: sản phẩm kèm thống kê đánh giá, ratingStats null nếu chưa có review
+        class RatedProduct {
+                @Embedded
+                public Product product;
+
+                @Embedded
+                public ProductRatingStats ratingStats;
+        }
 }
\ No newline at end of file
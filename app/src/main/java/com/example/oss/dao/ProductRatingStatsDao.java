@@ -0,0 +1,15 @@
+package com.example.oss.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.oss.entity.ProductRatingStats;
+
+// Chỉ đọc: product_rating_stats được trigger trên reviews giữ cập nhật
+@Dao
+public interface ProductRatingStatsDao {
+
+    // null nếu sản phẩm chưa có review nào
+    @Query("SELECT * FROM product_rating_stats WHERE product_id = :productId")
+    LiveData<ProductRatingStats> getStatsForProduct(int productId);
+}
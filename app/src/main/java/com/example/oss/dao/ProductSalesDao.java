@@ -0,0 +1,67 @@
+package com.example.oss.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
+import androidx.room.Dao;
+import androidx.room.Embedded;
+import androidx.room.Query;
+import com.example.oss.entity.Product;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Đọc các bảng đếm bán hàng. Bảng được CheckoutDao cập nhật khi đặt/hủy đơn nên mọi query ở đây
+ * chỉ đi theo index của bảng đếm rồi tra products/categories theo khóa chính, không GROUP BY order_items.
+ * CROSS JOIN giữ thứ tự join đó (SQLite không tự đảo), kể cả khi bảng đếm còn trống lúc planner chọn kế hoạch.
+ */
+@Dao
+public interface ProductSalesDao {
+
+    // Bán chạy mọi thời điểm
+    @Query("SELECT p.*, ps.units_sold AS units_sold, ps.revenue AS sales_revenue " +
+            "FROM product_sales ps CROSS JOIN products p ON p.id = ps.product_id " +
+            "WHERE ps.units_sold > 0 AND p.is_active = 1 " +
+            "ORDER BY ps.units_sold DESC LIMIT :limit")
+    LiveData<List<RankedProduct>> getBestSellers(int limit);
+
+    // Bán chạy trong tuần hiện tại (giờ máy, tuần bắt đầu từ thứ Hai như lúc ghi)
+    @Query("SELECT p.*, w.units_sold AS units_sold, NULL AS sales_revenue " +
+            "FROM product_weekly_sales w CROSS JOIN products p ON p.id = w.product_id " +
+            "WHERE w.week_start = date('now', 'localtime', '-6 days', 'weekday 1') " +
+            "AND w.units_sold > 0 AND p.is_active = 1 " +
+            "ORDER BY w.units_sold DESC LIMIT :limit")
+    LiveData<List<RankedProduct>> getTrendingThisWeek(int limit);
+
+    @Query("SELECT c.id AS category_id, c.name AS category_name, cs.units_sold AS units_sold, " +
+            "cs.revenue AS revenue " +
+            "FROM category_sales cs CROSS JOIN categories c ON c.id = cs.category_id " +
+            "WHERE cs.units_sold > 0 " +
+            "ORDER BY cs.revenue DESC LIMIT :limit")
+    LiveData<List<CategoryRevenue>> getCategoryLeaderboard(int limit);
+
+    class RankedProduct {
+        @Embedded
+        public Product product;
+
+        @ColumnInfo(name = "units_sold")
+        public int unitsSold;
+
+        // Chỉ có ở danh sách bán chạy mọi thời điểm
+        @ColumnInfo(name = "sales_revenue")
+        public BigDecimal salesRevenue;
+    }
+
+    class CategoryRevenue {
+        @ColumnInfo(name = "category_id")
+        public int categoryId;
+
+        @ColumnInfo(name = "category_name")
+        public String categoryName;
+
+        @ColumnInfo(name = "units_sold")
+        public int unitsSold;
+
+        @ColumnInfo(name = "revenue")
+        public BigDecimal revenue;
+    }
+}
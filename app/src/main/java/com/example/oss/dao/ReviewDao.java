@@ -13,18 +13,19 @@ public interface ReviewDao {
     @Query("SELECT * FROM reviews WHERE product_id = :productId ORDER BY created_at DESC")
     LiveData<List<Review>> getReviewsByProduct(int productId);
 
+    // Trang review của sản phẩm kèm tên người viết, mới nhất trước; keyset theo (created_at, id) của dòng cuối trang trước
+    @Query("SELECT r.*, u.full_name AS author_name FROM reviews r LEFT JOIN users u ON u.id = r.user_id " +
+            "WHERE r.product_id = :productId " +
+            "AND r.created_at <= :beforeCreatedAt AND (r.created_at < :beforeCreatedAt OR r.id < :beforeId) " +
+            "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit")
+    List<ReviewWithAuthor> getReviewsWithAuthorPage(int productId, long beforeCreatedAt, int beforeId, int limit);
+
     @Query("SELECT * FROM reviews WHERE user_id = :userId ORDER BY created_at DESC")
     LiveData<List<Review>> getReviewsByUser(int userId);
 
     @Query("SELECT * FROM reviews WHERE id = :id")
     LiveData<Review> getReviewById(int id);
 
-    @Query("SELECT AVG(rating) FROM reviews WHERE product_id = :productId")
-    LiveData<Double> getAverageRatingForProduct(int productId);
-
-    @Query("SELECT COUNT(*) FROM reviews WHERE product_id = :productId")
-    LiveData<Integer> getReviewCountForProduct(int productId);
-
     @Query("SELECT * FROM reviews WHERE user_id = :userId AND product_id = :productId LIMIT 1")
     Review getUserReviewForProduct(int userId, int productId);
 
@@ -42,4 +43,13 @@ public interface ReviewDao {
 
     @Query("DELETE FROM reviews")
     void deleteAll();
+
+    class ReviewWithAuthor {
+        @Embedded
+        public Review review;
+
+        // NULL nếu tài khoản đã bị xóa
+        @ColumnInfo(name = "author_name")
+        public String authorName;
+    }
 }
\ No newline at end of file
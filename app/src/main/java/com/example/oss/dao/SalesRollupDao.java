@@ -0,0 +1,37 @@
+package com.example.oss.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.oss.entity.SalesRollup;
+import java.math.BigDecimal;
+import java.util.List;
+
+// Chỉ đọc: sales_rollups được trigger trên orders giữ cập nhật
+@Dao
+public interface SalesRollupDao {
+
+    // Các kỳ từ fromPeriod (yyyy-MM-dd) trở đi, kỳ không có đơn thì không có dòng
+    @Query("SELECT * FROM sales_rollups WHERE granularity = :granularity AND period_start >= :fromPeriod " +
+            "ORDER BY period_start ASC")
+    LiveData<List<SalesRollup>> getRollupsSince(String granularity, String fromPeriod);
+
+    // Tổng toàn thời gian, cộng từ các dòng theo tháng (vài chục dòng thay vì toàn bộ orders)
+    @Query("SELECT COALESCE(SUM(order_count), 0) AS order_count, " +
+            "COALESCE(SUM(revenue_order_count), 0) AS revenue_order_count, " +
+            "COALESCE(SUM(revenue), 0) AS revenue " +
+            "FROM sales_rollups WHERE granularity = 'month'")
+    LiveData<SalesTotals> getTotals();
+
+    class SalesTotals {
+        @ColumnInfo(name = "order_count")
+        public int orderCount;
+
+        @ColumnInfo(name = "revenue_order_count")
+        public int revenueOrderCount;
+
+        @ColumnInfo(name = "revenue")
+        public BigDecimal revenue;
+    }
+}
@@ -3,20 +3,24 @@ package com.example.oss.dao;
 import androidx.room.*;
 import androidx.lifecycle.LiveData;
 import com.example.oss.entity.Wishlist;
-import com.example.oss.entity.Product;
 import java.util.List;
 
 @Dao
 public interface WishlistDao {
-    @Query("SELECT p.* FROM products p " +
+    @Query("SELECT p.*, s.* FROM products p " +
             "INNER JOIN wishlist w ON p.id = w.product_id " +
+            "LEFT JOIN product_rating_stats s ON s.product_id = p.id " +
             "WHERE w.user_id = :userId " +
             "ORDER BY w.added_at DESC")
-    LiveData<List<Product>> getWishlistProducts(int userId);
+    LiveData<List<ProductDao.RatedProduct>> getWishlistProducts(int userId);
 
     @Query("SELECT * FROM wishlist WHERE user_id = :userId ORDER BY added_at DESC")
     LiveData<List<Wishlist>> getWishlistByUser(int userId);
 
+    // Chỉ id, để nạp MembershipIndex
+    @Query("SELECT product_id FROM wishlist WHERE user_id = :userId")
+    List<Integer> getWishlistProductIdsSync(int userId);
+
     @Query("SELECT * FROM wishlist WHERE user_id = :userId AND product_id = :productId LIMIT 1")
     Wishlist getWishlistItem(int userId, int productId);
 
@@ -1,9 +1,11 @@
 package com.example.oss.database;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import android.content.Context;
 
 import com.example.oss.entity.*;
@@ -19,8 +21,14 @@ import com.example.oss.util.Converters;
         Address.class,
         Order.class,
         OrderItem.class,
-        Cart.class
-}, version = 3, exportSchema = false)
+        Cart.class,
+        ProductFts.class,
+        SalesRollup.class,
+        ProductSales.class,
+        ProductWeeklySales.class,
+        CategorySales.class,
+        ProductRatingStats.class
+}, version = 12, exportSchema = true)
 @TypeConverters({ Converters.class })
 public abstract class AppDatabase extends RoomDatabase {
     private static volatile AppDatabase INSTANCE;
@@ -43,6 +51,23 @@ public abstract class AppDatabase extends RoomDatabase {
 
     public abstract CartDao cartDao();
 
+    public abstract CheckoutDao checkoutDao();
+
+    public abstract SalesRollupDao salesRollupDao();
+
+    public abstract ProductSalesDao productSalesDao();
+
+    public abstract ProductRatingStatsDao productRatingStatsDao();
+
+    // DB mới tạo không đi qua migration nên trigger (không khai báo được bằng annotation) gắn ở đây
+    static final Callback CREATE_TRIGGERS = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            Migrations.createSalesRollupTriggers(db);
+            Migrations.createRatingStatsTriggers(db);
+        }
+    };
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -51,7 +76,10 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             "oss_database.db")
-                            .fallbackToDestructiveMigration()
+                            .addMigrations(Migrations.ALL)
+                            // Chỉ các bản cài rất cũ (trước v3) chưa có migration mới bị tạo lại
+                            .fallbackToDestructiveMigrationFrom(1, 2)
+                            .addCallback(CREATE_TRIGGERS)
                             .build();
                 }
             }
@@ -0,0 +1,471 @@
+package com.example.oss.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import com.example.oss.util.SearchNormalizer;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Các bước nâng cấp schema của {@link AppDatabase}.
+ * Mỗi Migration chỉ đi từ version N lên N + 1.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * v3 -> v4: tiền chuyển từ TEXT (BigDecimal.toString) sang INTEGER đồng,
+     * thêm index (is_active, price) cho lọc/sắp xếp theo giá.
+     * SQLite không đổi được kiểu cột nên phải tạo lại bảng rồi copy dữ liệu.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            recreateTable(db, "products",
+                    "CREATE TABLE IF NOT EXISTS `products_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                            "`category_id` INTEGER NOT NULL, " +
+                            "`name` TEXT, " +
+                            "`description` TEXT, " +
+                            "`price` INTEGER, " +
+                            "`stock_quantity` INTEGER NOT NULL, " +
+                            "`image_url` TEXT, " +
+                            "`is_active` INTEGER NOT NULL, " +
+                            "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "`id`, `category_id`, `name`, `description`, `price`, `stock_quantity`, `image_url`, `is_active`",
+                    "`id`, `category_id`, `name`, `description`, " + toMinorUnits("price") +
+                            ", `stock_quantity`, `image_url`, `is_active`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_category_id` ON `products` (`category_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_is_active_price` " +
+                    "ON `products` (`is_active`, `price`)");
+
+            recreateTable(db, "orders",
+                    "CREATE TABLE IF NOT EXISTS `orders_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                            "`user_id` INTEGER NOT NULL, " +
+                            "`shipping_address_id` INTEGER, " +
+                            "`total_amount` INTEGER, " +
+                            "`status` TEXT, " +
+                            "`order_date` INTEGER, " +
+                            "`payment_method` TEXT, " +
+                            "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`shipping_address_id`) REFERENCES `addresses`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE SET NULL )",
+                    "`id`, `user_id`, `shipping_address_id`, `total_amount`, `status`, `order_date`, `payment_method`",
+                    "`id`, `user_id`, `shipping_address_id`, " + toMinorUnits("total_amount") +
+                            ", `status`, `order_date`, `payment_method`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_user_id` ON `orders` (`user_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_shipping_address_id` " +
+                    "ON `orders` (`shipping_address_id`)");
+
+            recreateTable(db, "order_items",
+                    "CREATE TABLE IF NOT EXISTS `order_items_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                            "`order_id` INTEGER NOT NULL, " +
+                            "`product_id` INTEGER NOT NULL, " +
+                            "`quantity` INTEGER NOT NULL, " +
+                            "`price_at_purchase` INTEGER, " +
+                            "FOREIGN KEY(`order_id`) REFERENCES `orders`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "`id`, `order_id`, `product_id`, `quantity`, `price_at_purchase`",
+                    "`id`, `order_id`, `product_id`, `quantity`, " + toMinorUnits("price_at_purchase"));
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_order_items_order_id` ON `order_items` (`order_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_order_items_product_id` ON `order_items` (`product_id`)");
+        }
+    };
+
+    /**
+     * v4 -> v5: bảng FTS4 products_fts (external content trên products) cho tìm kiếm,
+     * kèm các trigger đồng bộ giống hệt trigger Room sinh ra cho {@code @Fts4(contentEntity)}.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `products_fts` USING FTS4(" +
+                    "`name` TEXT, `description` TEXT, tokenize=unicode61, content=`products`)");
+            createFtsContentSyncTriggers(db, "products_fts", "products", "name", "description");
+            // Đánh chỉ mục cho các dòng đã có sẵn
+            db.execSQL("INSERT INTO `products_fts`(`products_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * v5 -> v6: khóa tìm kiếm bỏ dấu (search_name/search_description) cho products,
+     * search_name có index cho categories. products_fts chuyển sang đánh chỉ mục các khóa này.
+     * Không bỏ dấu được bằng SQL nên backfill bằng SearchNormalizer ngay trong migration.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropFtsContentSyncTriggers(db, "products_fts");
+            db.execSQL("DROP TABLE IF EXISTS `products_fts`");
+
+            db.execSQL("ALTER TABLE `products` ADD COLUMN `search_name` TEXT");
+            db.execSQL("ALTER TABLE `products` ADD COLUMN `search_description` TEXT");
+            db.execSQL("ALTER TABLE `categories` ADD COLUMN `search_name` TEXT");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_categories_search_name` ON `categories` (`search_name`)");
+
+            try (Cursor cursor = db.query("SELECT `id`, `name`, `description` FROM `products`")) {
+                while (cursor.moveToNext()) {
+                    db.execSQL("UPDATE `products` SET `search_name` = ?, `search_description` = ? WHERE `id` = ?",
+                            new Object[] {
+                                    SearchNormalizer.fold(cursor.getString(1)),
+                                    SearchNormalizer.fold(cursor.getString(2)),
+                                    cursor.getInt(0) });
+                }
+            }
+            try (Cursor cursor = db.query("SELECT `id`, `name` FROM `categories`")) {
+                while (cursor.moveToNext()) {
+                    db.execSQL("UPDATE `categories` SET `search_name` = ? WHERE `id` = ?",
+                            new Object[] { SearchNormalizer.fold(cursor.getString(1)), cursor.getInt(0) });
+                }
+            }
+
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `products_fts` USING FTS4(" +
+                    "`search_name` TEXT, `search_description` TEXT, tokenize=unicode61, content=`products`)");
+            createFtsContentSyncTriggers(db, "products_fts", "products", "search_name", "search_description");
+            db.execSQL("INSERT INTO `products_fts`(`products_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * v6 -> v7: index cho keyset paging theo tên (trang chủ, danh mục).
+     * Rowid nằm sẵn ở cuối mỗi index nên ORDER BY name, id không cần sort thêm.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_is_active_name` " +
+                    "ON `products` (`is_active`, `name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_products_category_id_is_active_name` " +
+                    "ON `products` (`category_id`, `is_active`, `name`)");
+        }
+    };
+
+    /**
+     * v7 -> v8: index ghép theo đúng dạng WHERE + ORDER BY của các DAO, thay cho index
+     * một cột khóa ngoại. Index ghép vẫn bắt đầu bằng cột khóa ngoại nên vẫn dùng được cho FK.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // (category_id, is_active, name) đã có từ v7
+            db.execSQL("DROP INDEX IF EXISTS `index_products_category_id`");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_orders_user_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_user_id_order_date` " +
+                    "ON `orders` (`user_id`, `order_date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_status_order_date` " +
+                    "ON `orders` (`status`, `order_date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_orders_order_date` ON `orders` (`order_date`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_reviews_user_id`");
+            db.execSQL("DROP INDEX IF EXISTS `index_reviews_product_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reviews_user_id_created_at` " +
+                    "ON `reviews` (`user_id`, `created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reviews_product_id_created_at` " +
+                    "ON `reviews` (`product_id`, `created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reviews_created_at` ON `reviews` (`created_at`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_cart_user_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cart_user_id_added_at` " +
+                    "ON `cart` (`user_id`, `added_at`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_wishlist_user_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_wishlist_user_id_added_at` " +
+                    "ON `wishlist` (`user_id`, `added_at`)");
+        }
+    };
+
+    /**
+     * v8 -> v9: bảng sales_rollups (doanh thu/số đơn theo ngày, tuần, tháng) cho màn thống kê,
+     * backfill từ orders hiện có rồi gắn trigger để giữ nó cập nhật.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sales_rollups` (" +
+                    "`granularity` TEXT NOT NULL, " +
+                    "`period_start` TEXT NOT NULL, " +
+                    "`order_count` INTEGER NOT NULL, " +
+                    "`revenue_order_count` INTEGER NOT NULL, " +
+                    "`revenue` INTEGER, " +
+                    "PRIMARY KEY(`granularity`, `period_start`))");
+            for (String[] bucket : SALES_BUCKETS) {
+                String period = periodStart(bucket[1], "`order_date`");
+                db.execSQL("INSERT INTO `sales_rollups` " +
+                        "(`granularity`, `period_start`, `order_count`, `revenue_order_count`, `revenue`) " +
+                        "SELECT '" + bucket[0] + "', " + period + ", COUNT(*), " +
+                        "SUM(" + isRevenue("") + "), " +
+                        "SUM(" + revenueOf("") + ") " +
+                        "FROM `orders` WHERE `order_date` IS NOT NULL GROUP BY 2");
+            }
+            createSalesRollupTriggers(db);
+        }
+    };
+
+    /**
+     * v9 -> v10: bộ đếm bán hàng theo sản phẩm, theo sản phẩm-tuần và theo danh mục cho các danh sách
+     * "bán chạy"/"xu hướng tuần này". Backfill từ các đơn chưa hủy; sau đó CheckoutDao cập nhật khi đặt/hủy đơn.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `product_sales` (" +
+                    "`product_id` INTEGER NOT NULL, " +
+                    "`units_sold` INTEGER NOT NULL, " +
+                    "`revenue` INTEGER, " +
+                    "`last_sold_at` INTEGER, " +
+                    "PRIMARY KEY(`product_id`), " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_product_sales_units_sold` " +
+                    "ON `product_sales` (`units_sold`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `product_weekly_sales` (" +
+                    "`week_start` TEXT NOT NULL, " +
+                    "`product_id` INTEGER NOT NULL, " +
+                    "`units_sold` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`week_start`, `product_id`), " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_product_weekly_sales_week_start_units_sold` " +
+                    "ON `product_weekly_sales` (`week_start`, `units_sold`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_product_weekly_sales_product_id` " +
+                    "ON `product_weekly_sales` (`product_id`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `category_sales` (" +
+                    "`category_id` INTEGER NOT NULL, " +
+                    "`units_sold` INTEGER NOT NULL, " +
+                    "`revenue` INTEGER, " +
+                    "PRIMARY KEY(`category_id`), " +
+                    "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_category_sales_revenue` ON `category_sales` (`revenue`)");
+
+            String soldItems = "FROM `order_items` oi JOIN `orders` o ON o.`id` = oi.`order_id` " +
+                    "WHERE COALESCE(o.`status`, '') <> 'cancelled' ";
+            String lineRevenue = "SUM(oi.`quantity` * COALESCE(oi.`price_at_purchase`, 0))";
+            db.execSQL("INSERT INTO `product_sales` (`product_id`, `units_sold`, `revenue`, `last_sold_at`) " +
+                    "SELECT oi.`product_id`, SUM(oi.`quantity`), " + lineRevenue + ", MAX(o.`order_date`) " +
+                    soldItems + "GROUP BY oi.`product_id`");
+            db.execSQL("INSERT INTO `product_weekly_sales` (`week_start`, `product_id`, `units_sold`) " +
+                    "SELECT date(o.`order_date` / 1000, 'unixepoch', 'localtime', '-6 days', 'weekday 1'), " +
+                    "oi.`product_id`, SUM(oi.`quantity`) " +
+                    soldItems + "AND o.`order_date` IS NOT NULL GROUP BY 1, 2");
+            db.execSQL("INSERT INTO `category_sales` (`category_id`, `units_sold`, `revenue`) " +
+                    "SELECT p.`category_id`, SUM(oi.`quantity`), " + lineRevenue + " " +
+                    soldItems.replace("WHERE", "JOIN `products` p ON p.`id` = oi.`product_id` WHERE") +
+                    "GROUP BY p.`category_id`");
+        }
+    };
+
+    /**
+     * v10 -> v11: bảng product_rating_stats (số review, tổng sao, số review theo từng mức sao) để các lưới
+     * sản phẩm JOIN vào thay vì AVG/COUNT trên reviews. Backfill từ reviews hiện có rồi gắn trigger.
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `product_rating_stats` (" +
+                    "`product_id` INTEGER NOT NULL, " +
+                    "`rating_count` INTEGER NOT NULL, " +
+                    "`rating_sum` INTEGER NOT NULL, " +
+                    "`star_1` INTEGER NOT NULL, " +
+                    "`star_2` INTEGER NOT NULL, " +
+                    "`star_3` INTEGER NOT NULL, " +
+                    "`star_4` INTEGER NOT NULL, " +
+                    "`star_5` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`product_id`), " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            StringBuilder stars = new StringBuilder();
+            for (int star = 1; star <= 5; star++) {
+                stars.append(", SUM(`rating` = ").append(star).append(')');
+            }
+            db.execSQL("INSERT INTO `product_rating_stats` (`product_id`, `rating_count`, `rating_sum`, " +
+                    "`star_1`, `star_2`, `star_3`, `star_4`, `star_5`) " +
+                    "SELECT `product_id`, COUNT(*), SUM(`rating`)" + stars + " " +
+                    "FROM `reviews` GROUP BY `product_id`");
+            createRatingStatsTriggers(db);
+        }
+    };
+
+    /**
+     * v11 -> v12: order_items ghi lại danh mục của sản phẩm lúc bán, để category_sales cộng/trừ đúng danh mục
+     * kể cả khi sản phẩm đã đổi danh mục giữa lúc đặt và lúc hủy. Dòng cũ lấy danh mục hiện tại của sản phẩm
+     * (không còn dữ liệu nào tốt hơn), rồi tính lại category_sales theo cột mới.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `order_items` ADD COLUMN `category_id` INTEGER");
+            db.execSQL("UPDATE `order_items` SET `category_id` = " +
+                    "(SELECT p.`category_id` FROM `products` p WHERE p.`id` = `order_items`.`product_id`)");
+
+            db.execSQL("DELETE FROM `category_sales`");
+            db.execSQL("INSERT INTO `category_sales` (`category_id`, `units_sold`, `revenue`) " +
+                    "SELECT oi.`category_id`, SUM(oi.`quantity`), " +
+                    "SUM(oi.`quantity` * COALESCE(oi.`price_at_purchase`, 0)) " +
+                    "FROM `order_items` oi JOIN `orders` o ON o.`id` = oi.`order_id` " +
+                    "WHERE COALESCE(o.`status`, '') <> 'cancelled' AND oi.`category_id` IS NOT NULL " +
+                    "GROUP BY oi.`category_id`");
+        }
+    };
+
+    public static final Migration[] ALL = {
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12
+    };
+
+    // Trạng thái được tính vào doanh thu, giống OrderDao.getUserTotalSpent
+    private static final String REVENUE_STATUSES = "('confirmed', 'shipped', 'delivered')";
+
+    // granularity -> modifier của date() đưa order_date (millis) về ngày đầu kỳ theo giờ máy
+    private static final String[][] SALES_BUCKETS = {
+            { "day", "" },
+            { "week", ", '-6 days', 'weekday 1'" },
+            { "month", ", 'start of month'" }
+    };
+
+    /**
+     * Trigger giữ sales_rollups khớp với orders: insert cộng, delete trừ, update trừ dòng cũ rồi cộng dòng mới.
+     * Gọi khi tạo DB mới (AppDatabase) và ở MIGRATION_8_9. Migration nào tạo lại bảng orders
+     * (recreateTable) thì phải gọi lại hàm này vì DROP TABLE xóa luôn trigger.
+     * Không dùng UPSERT vì SQLite của API 27 chưa hỗ trợ.
+     */
+    static void createSalesRollupTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS sales_rollups_after_insert AFTER INSERT ON `orders` BEGIN" +
+                applyToRollups("NEW", "+") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS sales_rollups_after_update " +
+                "AFTER UPDATE OF `status`, `total_amount`, `order_date` ON `orders` BEGIN" +
+                applyToRollups("OLD", "-") + applyToRollups("NEW", "+") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS sales_rollups_after_delete AFTER DELETE ON `orders` BEGIN" +
+                applyToRollups("OLD", "-") + " END");
+    }
+
+    private static String applyToRollups(String row, String sign) {
+        StringBuilder sql = new StringBuilder();
+        String prefix = row + ".";
+        for (String[] bucket : SALES_BUCKETS) {
+            String period = periodStart(bucket[1], prefix + "`order_date`");
+            sql.append(" INSERT OR IGNORE INTO `sales_rollups` ")
+                    .append("(`granularity`, `period_start`, `order_count`, `revenue_order_count`, `revenue`) ")
+                    .append("SELECT '").append(bucket[0]).append("', ").append(period).append(", 0, 0, 0 ")
+                    .append("WHERE ").append(prefix).append("`order_date` IS NOT NULL;");
+            sql.append(" UPDATE `sales_rollups` SET ")
+                    .append("`order_count` = `order_count` ").append(sign).append(" 1, ")
+                    .append("`revenue_order_count` = `revenue_order_count` ").append(sign).append(' ')
+                    .append(isRevenue(prefix)).append(", ")
+                    .append("`revenue` = `revenue` ").append(sign).append(' ').append(revenueOf(prefix)).append(' ')
+                    .append("WHERE `granularity` = '").append(bucket[0]).append("' ")
+                    .append("AND `period_start` = ").append(period).append(';');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Trigger giữ product_rating_stats khớp với reviews, cùng kiểu với sales_rollups: insert cộng, delete trừ,
+     * update trừ dòng cũ rồi cộng dòng mới. Sản phẩm hết review thì xóa dòng để LEFT JOIN trả về NULL.
+     * Gọi khi tạo DB mới (AppDatabase) và ở MIGRATION_10_11; migration nào tạo lại bảng reviews phải gọi lại.
+     */
+    static void createRatingStatsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS product_rating_stats_after_insert AFTER INSERT ON `reviews` BEGIN" +
+                applyToRatingStats("NEW", "+") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS product_rating_stats_after_update " +
+                "AFTER UPDATE OF `rating`, `product_id` ON `reviews` BEGIN" +
+                applyToRatingStats("OLD", "-") + applyToRatingStats("NEW", "+") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS product_rating_stats_after_delete AFTER DELETE ON `reviews` BEGIN" +
+                applyToRatingStats("OLD", "-") + " END");
+    }
+
+    private static String applyToRatingStats(String row, String sign) {
+        String productId = row + ".`product_id`";
+        String rating = row + ".`rating`";
+        StringBuilder sql = new StringBuilder();
+        if (sign.equals("+")) {
+            sql.append(" INSERT OR IGNORE INTO `product_rating_stats` (`product_id`, `rating_count`, `rating_sum`, ")
+                    .append("`star_1`, `star_2`, `star_3`, `star_4`, `star_5`) ")
+                    .append("VALUES (").append(productId).append(", 0, 0, 0, 0, 0, 0, 0);");
+        }
+        sql.append(" UPDATE `product_rating_stats` SET ")
+                .append("`rating_count` = `rating_count` ").append(sign).append(" 1, ")
+                .append("`rating_sum` = `rating_sum` ").append(sign).append(' ').append(rating);
+        for (int star = 1; star <= 5; star++) {
+            sql.append(", `star_").append(star).append("` = `star_").append(star).append("` ")
+                    .append(sign).append(" (").append(rating).append(" = ").append(star).append(')');
+        }
+        sql.append(" WHERE `product_id` = ").append(productId).append(';');
+        if (sign.equals("-")) {
+            sql.append(" DELETE FROM `product_rating_stats` WHERE `product_id` = ").append(productId)
+                    .append(" AND `rating_count` <= 0;");
+        }
+        return sql.toString();
+    }
+
+    private static String periodStart(String modifiers, String orderDate) {
+        return "date(" + orderDate + " / 1000, 'unixepoch', 'localtime'" + modifiers + ")";
+    }
+
+    private static String isRevenue(String prefix) {
+        return "(CASE WHEN " + prefix + "`status` IN " + REVENUE_STATUSES + " THEN 1 ELSE 0 END)";
+    }
+
+    private static String revenueOf(String prefix) {
+        return "(CASE WHEN " + prefix + "`status` IN " + REVENUE_STATUSES +
+                " THEN COALESCE(" + prefix + "`total_amount`, 0) ELSE 0 END)";
+    }
+
+    // Tạo bảng <table>_new, copy dữ liệu, xóa bảng cũ rồi đổi tên.
+    // Room chạy migration trước khi bật PRAGMA foreign_keys nên DROP không kéo theo cascade.
+    private static void recreateTable(SupportSQLiteDatabase db, String table, String createNewSql,
+            String columns, String selectExpressions) {
+        db.execSQL(createNewSql);
+        db.execSQL("INSERT INTO `" + table + "_new` (" + columns + ") " +
+                "SELECT " + selectExpressions + " FROM `" + table + "`");
+        db.execSQL("DROP TABLE `" + table + "`");
+        db.execSQL("ALTER TABLE `" + table + "_new` RENAME TO `" + table + "`");
+    }
+
+    private static void createFtsContentSyncTriggers(SupportSQLiteDatabase db, String ftsTable,
+            String contentTable, String... columns) {
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            columnList.append(", `").append(column).append('`');
+            newValues.append(", NEW.`").append(column).append('`');
+        }
+        String prefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable + "_";
+        String deleteOld = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insertNew = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnList + ") " +
+                "VALUES (NEW.`rowid`" + newValues + "); END";
+
+        db.execSQL(prefix + "BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "`" + deleteOld);
+        db.execSQL(prefix + "BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "`" + deleteOld);
+        db.execSQL(prefix + "AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "`" + insertNew);
+        db.execSQL(prefix + "AFTER_INSERT AFTER INSERT ON `" + contentTable + "`" + insertNew);
+    }
+
+    private static void dropFtsContentSyncTriggers(SupportSQLiteDatabase db, String ftsTable) {
+        String prefix = "DROP TRIGGER IF EXISTS room_fts_content_sync_" + ftsTable + "_";
+        db.execSQL(prefix + "BEFORE_UPDATE");
+        db.execSQL(prefix + "BEFORE_DELETE");
+        db.execSQL(prefix + "AFTER_UPDATE");
+        db.execSQL(prefix + "AFTER_INSERT");
+    }
+
+    // Giá trị cũ là chuỗi thập phân ("29990000" hoặc "29990000.00"), làm tròn về đồng
+    private static String toMinorUnits(String column) {
+        return "CAST(ROUND(CAST(`" + column + "` AS REAL)) AS INTEGER)";
+    }
+}
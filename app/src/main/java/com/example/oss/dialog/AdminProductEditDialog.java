@@ -19,6 +19,7 @@ import com.example.oss.R;
 import com.example.oss.entity.Category;
 import com.example.oss.entity.Product;
 import com.example.oss.repository.CategoryRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.android.material.textfield.TextInputEditText;
@@ -70,7 +71,7 @@ public class AdminProductEditDialog extends DialogFragment {
         btnSave = view.findViewById(R.id.btn_save);
         btnCancel = view.findViewById(R.id.btn_cancel);
         // Load categories
-        categoryRepository = new CategoryRepository(requireActivity().getApplication());
+        categoryRepository = RepositoryProvider.getInstance(requireContext()).getCategoryRepository();
         categoryRepository.getAllCategories().observe(getViewLifecycleOwner(), new Observer<List<Category>>() {
             @Override
             public void onChanged(List<Category> categories) {
@@ -12,12 +12,11 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 import com.example.oss.R;
 import com.example.oss.util.SearchFilter;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.slider.RangeSlider;
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 
 public class PriceFilterDialog extends DialogFragment {
 
@@ -170,8 +169,6 @@ public class PriceFilterDialog extends DialogFragment {
     }
 
     private String formatPrice(BigDecimal price) {
-        NumberFormat formatter = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-        String formatted = formatter.format(price);
-        return formatted.replace("₫", "").trim() + "₫";
+        return PriceFormatter.format(price);
     }
 }
\ No newline at end of file
@@ -18,11 +18,10 @@ import android.widget.TextView;
 
 import com.example.oss.R;
 import com.example.oss.bean.OrderDisplay;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.text.NumberFormat;
-import java.util.Locale;
 
 
 public class UpdateOrderManagementStatusDialog extends DialogFragment {
@@ -64,7 +63,7 @@ public class UpdateOrderManagementStatusDialog extends DialogFragment {
 
         tvOrderId.setText("Đơn hàng #" + order.orderId);
         tvCustomerName.setText("Khách hàng: " + order.customerName);
-        tvTotalAmount.setText("Tổng tiền: " + NumberFormat.getCurrencyInstance(new Locale("vi", "VN")).format(order.totalAmount));
+        tvTotalAmount.setText("Tổng tiền: " + PriceFormatter.format(order.totalAmount));
         tvCurrentStatus.setText(order.orderStatus);
 
         MaterialButton btnCancel = view.findViewById(R.id.btn_cancel_status);
@@ -13,7 +13,7 @@ import java.util.Date;
 @Entity(tableName = "cart", primaryKeys = { "user_id", "product_id" }, foreignKeys = {
         @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "user_id", onDelete = ForeignKey.CASCADE),
         @ForeignKey(entity = Product.class, parentColumns = "id", childColumns = "product_id", onDelete = ForeignKey.CASCADE)
-}, indices = { @Index("user_id"), @Index("product_id") })
+}, indices = { @Index(value = { "user_id", "added_at" }), @Index("product_id") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
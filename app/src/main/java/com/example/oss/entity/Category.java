@@ -10,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.example.oss.util.SearchNormalizer;
 
 @Entity(
         tableName = "categories",
@@ -19,7 +20,7 @@ import lombok.Builder;
                 childColumns = "parent_id",
                 onDelete = ForeignKey.SET_NULL
         ),
-        indices = { @Index("parent_id") }
+        indices = { @Index("parent_id"), @Index("search_name") }
 )
 @Data
 @NoArgsConstructor
@@ -38,10 +39,19 @@ public class Category {
     @ColumnInfo(name = "parent_id")
     private Integer parentId; // Nullable for root categories
 
+    // Tên đã bỏ dấu, dùng cho tìm kiếm theo tiền tố
+    @ColumnInfo(name = "search_name")
+    private String searchName;
+
     // Constructor without id (for creating new categories)
     public Category(String name, String description, Integer parentId) {
         this.name = name;
         this.description = description;
         this.parentId = parentId;
     }
+
+    // Gọi trước mỗi lần insert/update (CategoryDao đã tự gọi)
+    public void updateSearchKeys() {
+        this.searchName = SearchNormalizer.fold(name);
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.oss.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// Doanh số cộng dồn theo danh mục của sản phẩm, cập nhật cùng ProductSales
+@Entity(tableName = "category_sales", foreignKeys = {
+        @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "category_id", onDelete = ForeignKey.CASCADE)
+}, indices = { @Index("revenue") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySales {
+    @PrimaryKey
+    @ColumnInfo(name = "category_id")
+    private int categoryId;
+
+    @ColumnInfo(name = "units_sold")
+    private int unitsSold;
+
+    @ColumnInfo(name = "revenue")
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -15,7 +15,8 @@ import java.util.Date;
 @Entity(tableName = "orders", foreignKeys = {
         @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "user_id", onDelete = ForeignKey.CASCADE),
         @ForeignKey(entity = Address.class, parentColumns = "id", childColumns = "shipping_address_id", onDelete = ForeignKey.SET_NULL)
-}, indices = { @Index("user_id"), @Index("shipping_address_id") })
+}, indices = { @Index(value = { "user_id", "order_date" }), @Index(value = { "status", "order_date" }),
+        @Index("order_date"), @Index("shipping_address_id") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
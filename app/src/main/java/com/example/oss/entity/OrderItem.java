@@ -28,6 +28,10 @@ public class OrderItem {
     @ColumnInfo(name = "price_at_purchase")
     private BigDecimal priceAtPurchase;
 
+    // Danh mục của sản phẩm lúc bán, CheckoutDao điền khi đặt đơn; hủy đơn trừ category_sales theo cột này
+    @ColumnInfo(name = "category_id")
+    private Integer categoryId;
+
     // Additional fields for convenience (not stored in DB)
     @Ignore
     private String productName;
@@ -87,6 +91,14 @@ public class OrderItem {
         this.priceAtPurchase = priceAtPurchase;
     }
 
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public String getProductName() {
         return productName;
     }
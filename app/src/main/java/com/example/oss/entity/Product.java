@@ -9,12 +9,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.example.oss.util.SearchNormalizer;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 
 @Entity(tableName = "products", foreignKeys = @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "category_id", onDelete = ForeignKey.CASCADE), indices = {
-        @Index("category_id") })
+        @Index(value = { "category_id", "is_active", "name" }), @Index(value = { "is_active", "price" }),
+        @Index(value = { "is_active", "name" }) })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,6 +47,13 @@ public class Product implements Serializable {
     @Builder.Default
     private boolean isActive = true;
 
+    // Khóa tìm kiếm đã bỏ dấu, được products_fts đánh chỉ mục
+    @ColumnInfo(name = "search_name")
+    private String searchName;
+
+    @ColumnInfo(name = "search_description")
+    private String searchDescription;
+
     // Constructor without id (for creating new products)
     public Product(int categoryId, String name, String description,
             BigDecimal price, int stockQuantity, String imageUrl, boolean isActive) {
@@ -56,4 +65,10 @@ public class Product implements Serializable {
         this.imageUrl = imageUrl;
         this.isActive = isActive;
     }
-}
\ No newline at end of file
+
+    // Gọi trước mỗi lần insert/update (ProductDao đã tự gọi)
+    public void updateSearchKeys() {
+        this.searchName = SearchNormalizer.fold(name);
+        this.searchDescription = SearchNormalizer.fold(description);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.oss.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Chỉ mục full-text cho products (external content) trên các khóa đã bỏ dấu:
+// Room tự tạo trigger để đồng bộ mỗi khi products được insert/update/delete
+@Fts4(contentEntity = Product.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "products_fts")
+@Data
+@NoArgsConstructor
+public class ProductFts {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowId;
+
+    @ColumnInfo(name = "search_name")
+    private String searchName;
+
+    @ColumnInfo(name = "search_description")
+    private String searchDescription;
+}
@@ -0,0 +1,70 @@
+package com.example.oss.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thống kê đánh giá của từng sản phẩm: số review, tổng số sao và số review theo từng mức sao.
+ * Trigger trên reviews giữ bảng này khớp từng dòng; sản phẩm chưa có review thì không có dòng.
+ */
+@Entity(tableName = "product_rating_stats", foreignKeys = {
+        @ForeignKey(entity = Product.class, parentColumns = "id", childColumns = "product_id", onDelete = ForeignKey.CASCADE)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRatingStats {
+    @PrimaryKey
+    @ColumnInfo(name = "product_id")
+    private int productId;
+
+    @ColumnInfo(name = "rating_count")
+    private int ratingCount;
+
+    @ColumnInfo(name = "rating_sum")
+    private int ratingSum;
+
+    @ColumnInfo(name = "star_1")
+    private int star1;
+
+    @ColumnInfo(name = "star_2")
+    private int star2;
+
+    @ColumnInfo(name = "star_3")
+    private int star3;
+
+    @ColumnInfo(name = "star_4")
+    private int star4;
+
+    @ColumnInfo(name = "star_5")
+    private int star5;
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0;
+    }
+
+    // stars: 1-5
+    public int getStarCount(int stars) {
+        switch (stars) {
+            case 1:
+                return star1;
+            case 2:
+                return star2;
+            case 3:
+                return star3;
+            case 4:
+                return star4;
+            case 5:
+                return star5;
+            default:
+                return 0;
+        }
+    }
+}
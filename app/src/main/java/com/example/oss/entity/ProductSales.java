@@ -0,0 +1,40 @@
+package com.example.oss.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Bộ đếm bán hàng cộng dồn của từng sản phẩm, dùng cho danh sách "bán chạy".
+ * Cập nhật trong cùng transaction đặt/hủy đơn (CheckoutDao), không tính lại từ order_items.
+ */
+@Entity(tableName = "product_sales", foreignKeys = {
+        @ForeignKey(entity = Product.class, parentColumns = "id", childColumns = "product_id", onDelete = ForeignKey.CASCADE)
+}, indices = { @Index("units_sold") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSales {
+    @PrimaryKey
+    @ColumnInfo(name = "product_id")
+    private int productId;
+
+    @ColumnInfo(name = "units_sold")
+    private int unitsSold;
+
+    @ColumnInfo(name = "revenue")
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @ColumnInfo(name = "last_sold_at")
+    private Date lastSoldAt;
+}
@@ -0,0 +1,37 @@
+package com.example.oss.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Số lượng bán của từng sản phẩm theo tuần đặt hàng (giờ máy, tuần bắt đầu từ thứ Hai),
+ * dùng cho danh sách "xu hướng tuần này". Index (week_start, units_sold) cho phép lấy top N
+ * của một tuần mà không phải sắp xếp.
+ */
+@Entity(tableName = "product_weekly_sales", primaryKeys = { "week_start", "product_id" }, foreignKeys = {
+        @ForeignKey(entity = Product.class, parentColumns = "id", childColumns = "product_id", onDelete = ForeignKey.CASCADE)
+}, indices = { @Index(value = { "week_start", "units_sold" }), @Index("product_id") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductWeeklySales {
+    // yyyy-MM-dd của thứ Hai đầu tuần
+    @NonNull
+    @ColumnInfo(name = "week_start")
+    @Builder.Default
+    private String weekStart = "";
+
+    @ColumnInfo(name = "product_id")
+    private int productId;
+
+    @ColumnInfo(name = "units_sold")
+    private int unitsSold;
+}
@@ -14,7 +14,8 @@ import java.util.Date;
 @Entity(tableName = "reviews", foreignKeys = {
         @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "user_id", onDelete = ForeignKey.CASCADE),
         @ForeignKey(entity = Product.class, parentColumns = "id", childColumns = "product_id", onDelete = ForeignKey.CASCADE)
-}, indices = { @Index("user_id"), @Index("product_id") })
+}, indices = { @Index(value = { "user_id", "created_at" }), @Index(value = { "product_id", "created_at" }),
+        @Index("created_at") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,48 @@
+package com.example.oss.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * Doanh thu và số đơn gộp theo ngày/tuần/tháng (giờ máy).
+ * Bảng do trigger trên orders cập nhật (xem Migrations.createSalesRollupTriggers), app chỉ đọc.
+ */
+@Entity(tableName = "sales_rollups", primaryKeys = { "granularity", "period_start" })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    @NonNull
+    @ColumnInfo(name = "granularity")
+    @Builder.Default
+    private String granularity = DAY;
+
+    // Ngày đầu kỳ dạng yyyy-MM-dd (tuần bắt đầu từ thứ Hai, tháng từ ngày 1)
+    @NonNull
+    @ColumnInfo(name = "period_start")
+    @Builder.Default
+    private String periodStart = "";
+
+    // Mọi đơn trong kỳ, kể cả đơn chờ xử lý và đã hủy
+    @ColumnInfo(name = "order_count")
+    private int orderCount;
+
+    // Đơn được tính doanh thu: confirmed, shipped, delivered
+    @ColumnInfo(name = "revenue_order_count")
+    private int revenueOrderCount;
+
+    @ColumnInfo(name = "revenue")
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -22,6 +22,7 @@ import com.example.oss.dialog.AdminProductEditDialog;
 import com.example.oss.entity.Category;
 import com.example.oss.entity.Product;
 import com.example.oss.repository.CategoryRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.viewmodel.AdminProductViewModel;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -69,7 +70,7 @@ public class AdminProductManagementFragment extends Fragment {
         viewModel = new ViewModelProvider(this).get(AdminProductViewModel.class);
 
         // Setup CategoryRepository
-        categoryRepository = new CategoryRepository(requireActivity().getApplication());
+        categoryRepository = RepositoryProvider.getInstance(requireContext()).getCategoryRepository();
 
         // Setup search functionality
         setupSearch();
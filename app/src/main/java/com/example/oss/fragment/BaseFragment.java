@@ -6,6 +6,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.oss.MainActivity;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.ui.auth.LoginActivity;
 import com.example.oss.viewmodel.AuthViewModel;
 import com.example.oss.util.SessionManager;
@@ -113,6 +114,7 @@ public abstract class BaseFragment extends Fragment {
     // Logout current user
     protected void logout() {
         sessionManager.logoutUser();
+        RepositoryProvider.getInstance(requireContext()).getMembershipIndex().reset();
         // Optionally redirect to login screen
         Intent intent = new Intent(getActivity(), LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -10,6 +10,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -17,15 +18,14 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.oss.MainActivity;
 import com.example.oss.R;
 import com.example.oss.adapter.CartAdapter;
-import com.example.oss.dao.CartDao;
+import com.example.oss.repository.CartRepository;
 import com.example.oss.viewmodel.CartViewModel;
 import com.example.oss.activity.CheckoutActivity;
+import com.example.oss.util.PriceFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 
-import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Locale;
 
 public class CartFragment extends BaseFragment {
 
@@ -69,6 +69,15 @@ public class CartFragment extends BaseFragment {
         checkLoginAndLoadData();
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        // Không để số lượng vừa bấm nằm chờ trong bộ nhớ khi rời màn giỏ hàng
+        if (cartViewModel != null) {
+            cartViewModel.flushPendingQuantities();
+        }
+    }
+
     private void initViews(View view) {
         rvCartItems = view.findViewById(R.id.rv_cart_items);
         layoutEmptyCart = view.findViewById(R.id.layout_empty_cart);
@@ -120,32 +129,20 @@ public class CartFragment extends BaseFragment {
     }
 
     private void setupObservers() {
-        // Observe cart items
-        cartViewModel.getCartItems().observe(getViewLifecycleOwner(), cartItems -> {
-            if (cartItems != null) {
-                if (cartItems.isEmpty()) {
-                    showEmptyCart();
-                } else {
-                    showCartItems();
-                    cartAdapter.updateCartItems(cartItems);
-                }
-            }
-        });
-
-        // Observe cart total
-        cartViewModel.getCartTotal().observe(getViewLifecycleOwner(), total -> {
-            if (total != null) {
-                totalAmount = total.doubleValue();
-                updateSummary();
-            }
-        });
-
-        // Observe cart count
-        cartViewModel.getTotalQuantity().observe(getViewLifecycleOwner(), quantity -> {
-            if (quantity != null) {
-                totalItems = quantity;
-                updateSummary();
+        // Dòng và tổng tiền/số lượng đến cùng lúc trong một snapshot, không cần đợi rồi tính lại.
+        // onResume gọi lại hàm này nên bỏ observer cũ trước khi gắn observer mới.
+        LiveData<CartRepository.CartSnapshot> cartSnapshot = cartViewModel.getCartSnapshot();
+        cartSnapshot.removeObservers(getViewLifecycleOwner());
+        cartSnapshot.observe(getViewLifecycleOwner(), snapshot -> {
+            if (snapshot.isEmpty()) {
+                showEmptyCart();
+            } else {
+                showCartItems();
+                cartAdapter.updateCartItems(snapshot.getLines());
             }
+            totalAmount = snapshot.getTotalAmount().doubleValue();
+            totalItems = snapshot.getTotalQuantity();
+            updateSummary();
         });
 
         // Observe errors
@@ -173,8 +170,6 @@ public class CartFragment extends BaseFragment {
     private void onQuantityChanged(int productId, int newQuantity) {
         if (cartViewModel != null) {
             cartViewModel.updateQuantity(productId, newQuantity);
-            // Trigger refresh total after a short delay để đảm bảo data đã update
-            rvCartItems.postDelayed(this::refreshTotal, 100);
         } else {
             Toast.makeText(getContext(), "Lỗi: không thể cập nhật số lượng", Toast.LENGTH_SHORT).show();
         }
@@ -184,81 +179,14 @@ public class CartFragment extends BaseFragment {
         if (cartViewModel != null) {
             cartViewModel.removeFromCart(productId);
             Toast.makeText(getContext(), "Đã xóa khỏi giỏ hàng", Toast.LENGTH_SHORT).show();
-            // Trigger refresh total after a short delay để đảm bảo data đã update
-            rvCartItems.postDelayed(this::refreshTotal, 100);
         } else {
             Toast.makeText(getContext(), "Lỗi: không thể xóa sản phẩm", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void calculateTotal() {
-        // Nếu đã có CartViewModel, sử dụng LiveData observers thay vì tính toán manual
-        // Method này chỉ cần trigger update hoặc tính toán backup nếu cần
-        if (cartViewModel != null && getCurrentUser() != null) {
-            // Trigger manual calculation nếu LiveData chưa cập nhật
-            cartViewModel.getCartTotal().observe(getViewLifecycleOwner(), total -> {
-                if (total != null) {
-                    totalAmount = total.doubleValue();
-                    updateSummary();
-                }
-            });
-
-            cartViewModel.getTotalQuantity().observe(getViewLifecycleOwner(), quantity -> {
-                if (quantity != null) {
-                    totalItems = quantity;
-                    updateSummary();
-                }
-            });
-        } else {
-            // Fallback calculation từ adapter data nếu cần
-            calculateTotalFromAdapter();
-        }
-    }
-
-    /**
-     * Backup method để tính total từ adapter data
-     * Sử dụng khi CartViewModel chưa sẵn sàng
-     */
-    private void calculateTotalFromAdapter() {
-        if (cartAdapter == null) {
-            totalAmount = 0.0;
-            totalItems = 0;
-            updateSummary();
-            return;
-        }
-
-        try {
-            // Tính tổng từ adapter data
-            totalAmount = cartAdapter.getTotalAmount().doubleValue();
-            totalItems = cartAdapter.getTotalQuantity();
-
-        } catch (Exception e) {
-            // Fallback nếu có lỗi
-            totalAmount = 0.0;
-            totalItems = 0;
-            android.util.Log.e("CartFragment", "Error calculating total from adapter", e);
-        }
-
-        updateSummary();
-    }
-
-    /**
-     * Method để force refresh total calculation
-     * Gọi khi có thay đổi quantity hoặc remove items
-     */
-    private void refreshTotal() {
-        if (cartViewModel != null && getCurrentUser() != null) {
-            // Trigger re-observe để cập nhật latest data
-            calculateTotal();
-        }
-    }
-
     private void updateSummary() {
         // Format currency theo chuẩn Việt Nam
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-        String formattedAmount = currencyFormat.format(totalAmount);
-        // Thay thế VND với ₫ để hiển thị đẹp hơn
-        formattedAmount = formattedAmount.replace("₫", "").trim() + "₫";
+        String formattedAmount = PriceFormatter.format(totalAmount);
 
         // Cập nhật UI
         if (tvTotalAmount != null) {
@@ -323,7 +251,6 @@ public class CartFragment extends BaseFragment {
         layoutEmptyCart.setVisibility(View.GONE);
         rvCartItems.setVisibility(View.VISIBLE);
         cardSummary.setVisibility(View.VISIBLE);
-        calculateTotal();
     }
 
     private void hideAllStates() {
@@ -19,26 +19,33 @@ import com.example.oss.R;
 import com.example.oss.activity.ProductDetailActivity;
 import com.example.oss.adapter.CategoryAdapter;
 import com.example.oss.adapter.ProductAdapter;
+import com.example.oss.adapter.RankedProductAdapter;
 import com.example.oss.entity.Category;
 import com.example.oss.entity.Product;
+import com.example.oss.repository.MembershipIndex;
+import com.example.oss.util.ImagePrefetchScrollListener;
+import com.example.oss.util.PagingScrollListener;
 import com.example.oss.viewmodel.ProductViewModel;
 import com.example.oss.viewmodel.CartViewModel;
 import com.example.oss.viewmodel.WishlistViewModel;
+import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.textfield.TextInputEditText;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
 
 public class HomeFragment extends BaseFragment {
 
     private ProductViewModel productViewModel;
-    private RecyclerView rvCategories, rvProducts;
+    private RecyclerView rvCategories, rvProducts, rvHighlights;
+    private View layoutHighlights;
+    private ChipGroup chipGroupHighlights;
+    private TextView tvHighlightsEmpty;
     private TextInputEditText etSearch;
     private TextView tvProductsTitle;
 
     // Adapters
     private CategoryAdapter categoryAdapter;
     private ProductAdapter productAdapter;
+    private RankedProductAdapter highlightsAdapter;
 
     private CartViewModel cartViewModel;
     private WishlistViewModel wishlistViewModel;
@@ -74,9 +81,14 @@ public class HomeFragment extends BaseFragment {
         rvCategories = view.findViewById(R.id.rv_categories);
         rvProducts = view.findViewById(R.id.rv_products);
         tvProductsTitle = view.findViewById(R.id.tv_products_title);
+        layoutHighlights = view.findViewById(R.id.layout_highlights);
+        chipGroupHighlights = view.findViewById(R.id.chip_group_highlights);
+        rvHighlights = view.findViewById(R.id.rv_highlights);
+        tvHighlightsEmpty = view.findViewById(R.id.tv_highlights_empty);
 
         // Setup RecyclerViews
         setupCategoriesRecyclerView();
+        setupHighlightsRecyclerView();
         setupProductsRecyclerView();
 
         // Setup search
@@ -95,6 +107,18 @@ public class HomeFragment extends BaseFragment {
         rvCategories.setAdapter(categoryAdapter);
     }
 
+    private void setupHighlightsRecyclerView() {
+        rvHighlights.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
+        highlightsAdapter = new RankedProductAdapter(this::onProductClick);
+        rvHighlights.setAdapter(highlightsAdapter);
+
+        chipGroupHighlights.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (!checkedIds.isEmpty()) {
+                productViewModel.setShowTrending(checkedIds.get(0) == R.id.chip_trending);
+            }
+        });
+    }
+
     private void setupProductsRecyclerView() {
         // Grid layout for products
         GridLayoutManager layoutManager = new GridLayoutManager(getContext(), 2);
@@ -106,6 +130,10 @@ public class HomeFragment extends BaseFragment {
                 this::onAddToCartClick,
                 this::onWishlistClick);
         rvProducts.setAdapter(productAdapter);
+        rvProducts.addOnScrollListener(new PagingScrollListener(layoutManager,
+                productViewModel::onProductVisible));
+        rvProducts.addOnScrollListener(new ImagePrefetchScrollListener(layoutManager,
+                productAdapter::getImageUrl, R.id.iv_product_image));
     }
 
     private void setupSearch() {
@@ -135,19 +163,27 @@ public class HomeFragment extends BaseFragment {
             }
         });
 
-        // Observe products
-        productViewModel.getAllProducts().observe(getViewLifecycleOwner(), products -> {
+        // Observe products: một observer cho mọi feed (tất cả/danh mục), pager tự nối thêm trang khi cuộn
+        productViewModel.getPagedProducts().observe(getViewLifecycleOwner(), products -> {
             if (products != null) {
                 productAdapter.updateProducts(products);
-                if (!products.isEmpty()) {
-                    Toast.makeText(getContext(), "Đã tải " + products.size() + " sản phẩm", Toast.LENGTH_SHORT).show();
-                } else {
+                if (products.isEmpty() && currentCategoryFilter == -1) {
                     // Insert sample data if no products
                     productViewModel.insertSampleData();
                 }
             }
         });
 
+        // Bán chạy/xu hướng đọc từ bộ đếm bán hàng; chưa có đơn nào thì ẩn cả phần này
+        productViewModel.getHighlightedProducts().observe(getViewLifecycleOwner(), items -> {
+            boolean empty = items == null || items.isEmpty();
+            boolean trending = chipGroupHighlights.getCheckedChipId() == R.id.chip_trending;
+            layoutHighlights.setVisibility(empty && !trending ? View.GONE : View.VISIBLE);
+            rvHighlights.setVisibility(empty ? View.GONE : View.VISIBLE);
+            tvHighlightsEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            highlightsAdapter.updateItems(items);
+        });
+
         // Observe loading state
         productViewModel.getIsLoading().observe(getViewLifecycleOwner(), isLoading -> {
             // TODO: Show/hide loading indicator
@@ -161,17 +197,11 @@ public class HomeFragment extends BaseFragment {
             }
         });
 
-        // Observe wishlist products để update UI
+        // Trái tim và badge giỏ hàng tra trong MembershipIndex dùng chung, chỉ rebind dòng có sản phẩm đổi
         if (isLoggedIn()) {
-            wishlistViewModel.getWishlistProducts().observe(getViewLifecycleOwner(), wishlistProducts -> {
-                if (wishlistProducts != null) {
-                    Set<Integer> wishlistProductIds = new HashSet<>();
-                    for (Product product : wishlistProducts) {
-                        wishlistProductIds.add(product.getId());
-                    }
-                    productAdapter.updateWishlistProducts(wishlistProductIds);
-                }
-            });
+            MembershipIndex membershipIndex = wishlistViewModel.getMembershipIndex();
+            productAdapter.setMembershipIndex(membershipIndex);
+            membershipIndex.observe(getViewLifecycleOwner(), productAdapter::onMembershipChanged);
 
             // Observe wishlist messages
             wishlistViewModel.getSuccessMessage().observe(getViewLifecycleOwner(), message -> {
@@ -191,21 +221,16 @@ public class HomeFragment extends BaseFragment {
     }
 
     private void loadData() {
-        // Data will be loaded automatically through observers
+        // ViewModel còn giữ feed cũ khi view được tạo lại thì dùng tiếp
+        if (!productViewModel.hasProductFeed()) {
+            productViewModel.showAllProducts();
+        }
     }
 
     private void loadProductsByCategory(int categoryId) {
         currentCategoryFilter = categoryId;
-        // Observe products by category
-        productViewModel.getProductsByCategory(categoryId).observe(getViewLifecycleOwner(), products -> {
-            if (products != null) {
-                productAdapter.updateProducts(products);
-
-                String message = products.isEmpty() ? "Không có sản phẩm nào trong danh mục này"
-                        : "Hiển thị " + products.size() + " sản phẩm";
-                Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
-            }
-        });
+        productViewModel.showProductsByCategory(categoryId);
+        rvProducts.scrollToPosition(0);
     }
 
     private void loadAllProducts() {
@@ -213,12 +238,8 @@ public class HomeFragment extends BaseFragment {
         categoryAdapter.clearSelection(); // Clear category selection
 
         // Load all products (reset filter)
-        productViewModel.getAllProducts().observe(getViewLifecycleOwner(), products -> {
-            if (products != null) {
-                productAdapter.updateProducts(products);
-                Toast.makeText(getContext(), "Hiển thị tất cả sản phẩm", Toast.LENGTH_SHORT).show();
-            }
-        });
+        productViewModel.showAllProducts();
+        rvProducts.scrollToPosition(0);
     }
 
     private void onCategoryClick(Category category) {
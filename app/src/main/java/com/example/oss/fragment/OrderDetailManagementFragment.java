@@ -5,6 +5,8 @@ import android.content.Context;
 import android.content.ContextWrapper;
 import android.os.Bundle;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 import androidx.lifecycle.ViewModelProvider;
@@ -24,9 +26,10 @@ import com.example.oss.adapter.OrderManagementOrderDetailAdapter;
 import com.example.oss.bean.OrderDisplay;
 import com.example.oss.dialog.UpdateOrderManagementStatusDialog;
 import com.example.oss.viewmodel.OrderManagementViewModel;
+import com.example.oss.util.PriceFormatter;
 
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Locale;
 
 public class OrderDetailManagementFragment extends Fragment {
@@ -39,6 +42,7 @@ public class OrderDetailManagementFragment extends Fragment {
     private TextView tvTotalAmount, tvPaymentMethod;
     //private Button btnUpdateStatus;
     private ImageView btnBack;
+    private OrderManagementOrderDetailAdapter itemAdapter;
 
     public OrderDetailManagementFragment() {
 
@@ -70,6 +74,21 @@ public class OrderDetailManagementFragment extends Fragment {
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        if (order == null) return;
+
+        // Danh sách đơn không mang theo sản phẩm, mở chi tiết mới tải
+        OrderManagementViewModel viewModel = new ViewModelProvider(requireActivity())
+                .get(OrderManagementViewModel.class);
+        viewModel.getOrderItems(order.getOrderId()).observe(getViewLifecycleOwner(), items -> {
+            if (items != null) {
+                itemAdapter.setOrderItemList(items);
+            }
+        });
+    }
+
     private void initViews(View view){
         tvOrderId = view.findViewById(R.id.tv_order_id_header);
         tvOrderDate = view.findViewById(R.id.tv_order_date_header);
@@ -102,9 +121,9 @@ public class OrderDetailManagementFragment extends Fragment {
         tvCustomerEmail.setText(order.getCustomerEmail());
         tvCustomerPhone.setText(order.getCustomerPhone());
 
-        rvOrderItems.setAdapter(new OrderManagementOrderDetailAdapter(order.getProductList()));
-        NumberFormat nf = NumberFormat.getCurrencyInstance(new Locale("vi", "VN"));
-        tvTotalAmount.setText(nf.format(order.getTotalAmount()));
+        itemAdapter = new OrderManagementOrderDetailAdapter(new ArrayList<>());
+        rvOrderItems.setAdapter(itemAdapter);
+        tvTotalAmount.setText(PriceFormatter.format(order.getTotalAmount()));
 
         tvPaymentMethod.setText(order.getPaymentMethod());
 
@@ -13,6 +13,7 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import com.example.oss.R;
 import com.example.oss.adapter.OrderManagementAdapter;
@@ -93,31 +94,25 @@ public class OrderManagementFragment extends Fragment {
         recyclerOrders.setAdapter(adapter);
 
         orderViewModel = new ViewModelProvider(this).get(OrderManagementViewModel.class);
+        adapter.setOnStatusChangeListener(orderViewModel::updateOrderStatus);
 
-        orderViewModel.loadAllOrders();
+        orderViewModel.getErrorMessage().observe(getViewLifecycleOwner(), error -> {
+            if (error != null) {
+                Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
+                orderViewModel.clearError();
+            }
+        });
 
-        orderViewModel.getOrderDisplays().observe(getViewLifecycleOwner(), orderData -> {
-            adapter.updateData(orderData.getOrderDisplays());
+        orderViewModel.getOrderDisplays().observe(getViewLifecycleOwner(), orders -> {
+            adapter.updateData(orders);
         });
 
-        orderViewModel.getAllOrders().observe(getViewLifecycleOwner(), orderData -> {
-            if (orderData != null){
-                int total = orderData.getOrderDisplays().size();
-                int pending = 0;
-                int completed = 0;
-
-                for (com.example.oss.bean.OrderDisplay order : orderData.getOrderDisplays()) {
-                    String status = order.getOrderStatus().toLowerCase(); // Hoặc getOrderStatus()
-                    if (status.contains("chờ") || status.contains("pending")) {
-                        pending++;
-                    } else if (status.contains("hoàn") || status.contains("delivered")) {
-                        completed++;
-                    }
-                }
-
-                tvTotalOrders.setText(String.valueOf(total));
-                tvPendingOrders.setText(String.valueOf(pending));
-                tvCompletedOrders.setText(String.valueOf(completed));
+        // Thống kê tính sẵn trong SQL, không phụ thuộc filter đang chọn
+        orderViewModel.getOrderStatistics().observe(getViewLifecycleOwner(), statistics -> {
+            if (statistics != null){
+                tvTotalOrders.setText(String.valueOf(statistics.getTotalOrders()));
+                tvPendingOrders.setText(String.valueOf(statistics.getPendingOrders()));
+                tvCompletedOrders.setText(String.valueOf(statistics.getCompletedOrders()));
             }
         });
 
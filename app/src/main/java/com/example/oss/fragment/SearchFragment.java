@@ -20,10 +20,14 @@ import com.example.oss.R;
 import com.example.oss.activity.ProductDetailActivity;
 import com.example.oss.adapter.CategoryFilterAdapter;
 import com.example.oss.adapter.ProductAdapter;
+import com.example.oss.dao.ProductDao;
 import com.example.oss.dialog.PriceFilterDialog;
 import com.example.oss.dialog.SortOptionsDialog;
 import com.example.oss.entity.Category;
 import com.example.oss.entity.Product;
+import com.example.oss.repository.MembershipIndex;
+import com.example.oss.util.ImagePrefetchScrollListener;
+import com.example.oss.util.PagingScrollListener;
 import com.example.oss.util.SearchFilter;
 import com.example.oss.viewmodel.CartViewModel;
 import com.example.oss.viewmodel.ProductViewModel;
@@ -80,7 +84,7 @@ public class SearchFragment extends BaseFragment implements
     private boolean isFilterSectionVisible = false;
 
     // Search state
-    private final int SEARCH_DELAY_MS = 500;
+    private final int SEARCH_DELAY_MS = 300;
     private Runnable searchRunnable;
 
     @Nullable
@@ -103,9 +107,6 @@ public class SearchFragment extends BaseFragment implements
         // Load initial data
         loadAvailablePriceRange();
 
-        // Debug: Force check database state on first load
-        productViewModel.debugDatabaseState("boxing");
-
         // Show initial search prompt
         showSearchPrompt();
     }
@@ -207,6 +208,10 @@ public class SearchFragment extends BaseFragment implements
         rvSearchResults.setLayoutManager(layoutManager);
         productAdapter = new ProductAdapter(new ArrayList<>(), this, this, this);
         rvSearchResults.setAdapter(productAdapter);
+        rvSearchResults.addOnScrollListener(new PagingScrollListener(layoutManager,
+                productViewModel::onProductVisible));
+        rvSearchResults.addOnScrollListener(new ImagePrefetchScrollListener(layoutManager,
+                productAdapter::getImageUrl, R.id.iv_product_image));
 
         // Setup category filter RecyclerView
         setupCategoryFilterRecyclerView();
@@ -246,6 +251,15 @@ public class SearchFragment extends BaseFragment implements
             }
         });
 
+        // Observe kết quả tìm kiếm (một observer duy nhất, mỗi query là một pager mới, tải thêm khi cuộn)
+        productViewModel.getPagedProducts().observe(getViewLifecycleOwner(), products -> {
+            if (products != null) {
+                updateSearchResults(products);
+            } else {
+                showEmptyState();
+            }
+        });
+
         // Setup wishlist observers nếu user đã login
         if (isLoggedIn()) {
             setupWishlistObservers();
@@ -260,15 +274,10 @@ public class SearchFragment extends BaseFragment implements
             return;
         }
 
-        wishlistViewModel.getWishlistProducts().observe(getViewLifecycleOwner(), wishlistProducts -> {
-            if (wishlistProducts != null) {
-                Set<Integer> wishlistProductIds = new HashSet<>();
-                for (Product product : wishlistProducts) {
-                    wishlistProductIds.add(product.getId());
-                }
-                productAdapter.updateWishlistProducts(wishlistProductIds);
-            }
-        });
+        // Trái tim và badge giỏ hàng tra trong MembershipIndex dùng chung, chỉ rebind dòng có sản phẩm đổi
+        MembershipIndex membershipIndex = wishlistViewModel.getMembershipIndex();
+        productAdapter.setMembershipIndex(membershipIndex);
+        membershipIndex.observe(getViewLifecycleOwner(), productAdapter::onMembershipChanged);
 
         wishlistViewModel.getSuccessMessage().observe(getViewLifecycleOwner(), message -> {
             if (message != null && !message.isEmpty()) {
@@ -319,41 +328,12 @@ public class SearchFragment extends BaseFragment implements
                 currentFilter.getCategoryIdsList().size() + ", inStock: " +
                 currentFilter.isInStockOnly());
 
-        // Debug database state
-        productViewModel.debugDatabaseState(currentFilter.getSearchQuery());
-
-        // Use simple search instead of advanced search for reliability
-        String searchQuery = currentFilter.getSearchQuery();
-        if (searchQuery.isEmpty()) {
-            // Show all products if no search query
-            productViewModel.getAllProducts()
-                    .observe(getViewLifecycleOwner(), products -> {
-                        android.util.Log.d("SearchFragment", "All products returned " +
-                                (products != null ? products.size() : "null") + " products");
-
-                        if (products != null) {
-                            updateSearchResults(products);
-                        } else {
-                            showEmptyState();
-                        }
-                    });
-        } else {
-            // Use simple search for text queries
-            productViewModel.searchProducts(searchQuery)
-                    .observe(getViewLifecycleOwner(), products -> {
-                        android.util.Log.d("SearchFragment", "Simple search returned " +
-                                (products != null ? products.size() : "null") + " products");
-
-                        if (products != null) {
-                            updateSearchResults(products);
-                        } else {
-                            showEmptyState();
-                        }
-                    });
-        }
+        // Chuỗi rỗng trả về toàn bộ sản phẩm, ngược lại tìm qua chỉ mục FTS
+        productViewModel.showSearchResults(currentFilter.getNormalizedSearchQuery());
+        rvSearchResults.scrollToPosition(0);
     }
 
-    private void updateSearchResults(List<Product> products) {
+    private void updateSearchResults(List<ProductDao.RatedProduct> products) {
         if (products.isEmpty()) {
             showEmptyState();
         } else {
@@ -370,10 +350,12 @@ public class SearchFragment extends BaseFragment implements
         if (tvSearchResultsCount != null) {
             String countText;
             String query = currentFilter.getSearchQuery();
+            // Chưa tải hết trang thì chỉ biết số đã tải
+            String countLabel = productViewModel.hasMoreProducts() ? count + "+" : String.valueOf(count);
             if (query.isEmpty()) {
-                countText = count + " sản phẩm";
+                countText = countLabel + " sản phẩm";
             } else {
-                countText = "Tìm thấy " + count + " sản phẩm cho \"" + query + "\"";
+                countText = "Tìm thấy " + countLabel + " sản phẩm cho \"" + query + "\"";
             }
             tvSearchResultsCount.setText(countText);
         }
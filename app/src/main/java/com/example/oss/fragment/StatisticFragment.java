@@ -1,6 +1,5 @@
 package com.example.oss.fragment;
 
-import android.content.Context;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -9,14 +8,22 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import com.example.oss.R;
-import com.example.oss.database.AppDatabase;
+import com.example.oss.dao.ProductSalesDao;
+import com.example.oss.entity.SalesRollup;
+import com.example.oss.repository.StatisticsRepository;
+import com.example.oss.ui.statistic.SalesChartView;
+import com.example.oss.viewmodel.StatisticViewModel;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.chip.ChipGroup;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
 
 public class StatisticFragment extends Fragment {
     private MaterialToolbar toolbarStatistic;
+    private StatisticViewModel viewModel;
 
     @Nullable
     @Override
@@ -30,42 +37,105 @@ public class StatisticFragment extends Fragment {
         TextView tvOrders = view.findViewById(R.id.tv_orders);
         TextView tvProducts = view.findViewById(R.id.tv_products);
         TextView tvCustomers = view.findViewById(R.id.tv_customers);
+        TextView tvChartTitle = view.findViewById(R.id.tv_chart_title);
+        SalesChartView chartSales = view.findViewById(R.id.chart_sales);
+        ChipGroup chipGroupRange = view.findViewById(R.id.chip_group_range);
+        TextView tvTopProducts = view.findViewById(R.id.tv_top_products);
+        TextView tvCategoryRevenue = view.findViewById(R.id.tv_category_revenue);
 
-        Executors.newSingleThreadExecutor().execute(() -> {
-            Context context = requireContext().getApplicationContext();
-            int customerCount = AppDatabase.getDatabase(context).userDao().getCustomerCountSync();
-            int productCount = AppDatabase.getDatabase(context).productDao().getAllActiveProductsSync().size();
-            int orderCount = AppDatabase.getDatabase(context).orderDao().getAllOrdersSync().size();
-            int categoryCount = AppDatabase.getDatabase(context).categoryDao().getCategoryCountSync();
-            int stockQuantity = AppDatabase.getDatabase(context).productDao().getTotalStockQuantity();
+        viewModel = new ViewModelProvider(this).get(StatisticViewModel.class);
 
-            // Tính tổng doanh thu từ các đơn hàng đã hoàn thành/thanh toán
-            java.math.BigDecimal totalRevenue = java.math.BigDecimal.ZERO;
-            java.util.List<com.example.oss.entity.Order> allOrders = AppDatabase.getDatabase(context).orderDao().getAllOrdersSync();
-            for (com.example.oss.entity.Order order : allOrders) {
-                String status = order.getStatus();
-                if (status != null && (status.equalsIgnoreCase("confirmed") || status.equalsIgnoreCase("shipped") || status.equalsIgnoreCase("delivered") || status.equalsIgnoreCase("đã hoàn thành") || status.equalsIgnoreCase("đã giao"))) {
-                    if (order.getTotalAmount() != null) {
-                        totalRevenue = totalRevenue.add(order.getTotalAmount());
-                    }
-                }
+        // Doanh thu và số đơn đọc từ sales_rollups (trigger cập nhật khi orders đổi), không quét lại orders
+        viewModel.getSalesTotals().observe(getViewLifecycleOwner(), totals -> {
+            BigDecimal revenue = totals != null && totals.revenue != null ? totals.revenue : BigDecimal.ZERO;
+            tvRevenue.setText("Doanh thu: " + revenue.toPlainString() + "đ");
+            tvOrders.setText("Tổng đơn hàng: " + (totals != null ? totals.orderCount : 0));
+        });
+
+        viewModel.getInventorySummary().observe(getViewLifecycleOwner(), summary -> {
+            tvStock.setText("Hàng tồn kho: " + summary.getStockQuantity());
+            tvProducts.setText("Tổng sản phẩm: " + summary.getProductCount());
+            tvCustomers.setText("Tổng khách hàng: " + summary.getCustomerCount());
+        });
+        viewModel.loadInventorySummary();
+
+        viewModel.getSalesSeries().observe(getViewLifecycleOwner(), series -> {
+            List<String> labels = new ArrayList<>(series.size());
+            List<Long> values = new ArrayList<>(series.size());
+            BigDecimal rangeRevenue = BigDecimal.ZERO;
+            for (SalesRollup rollup : series) {
+                labels.add(formatPeriod(rollup));
+                BigDecimal revenue = rollup.getRevenue() != null ? rollup.getRevenue() : BigDecimal.ZERO;
+                values.add(revenue.longValue());
+                rangeRevenue = rangeRevenue.add(revenue);
             }
+            chartSales.setData(labels, values);
+            tvChartTitle.setText(rangeTitle(viewModel.getRange().getValue()) + ": " + rangeRevenue.toPlainString() + "đ");
+        });
 
-            String revenueStr = "Doanh thu: " + totalRevenue.toPlainString() + "đ";
-            String stockStr = "Hàng tồn kho: " + stockQuantity;
-            String ordersStr = "Tổng đơn hàng: " + orderCount;
-            String productsStr = "Tổng sản phẩm: " + productCount;
-            String customersStr = "Tổng khách hàng: " + customerCount;
+        // Bảng xếp hạng đọc từ bộ đếm product_sales/category_sales, không GROUP BY order_items
+        viewModel.getTopProducts().observe(getViewLifecycleOwner(), products -> {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < products.size(); i++) {
+                ProductSalesDao.RankedProduct item = products.get(i);
+                appendRank(text, i, item.product.getName(), item.unitsSold, item.salesRevenue);
+            }
+            tvTopProducts.setText(text.length() > 0 ? text.toString() : "Chưa có dữ liệu");
+        });
+
+        viewModel.getCategoryLeaderboard().observe(getViewLifecycleOwner(), categories -> {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < categories.size(); i++) {
+                ProductSalesDao.CategoryRevenue item = categories.get(i);
+                appendRank(text, i, item.categoryName, item.unitsSold, item.revenue);
+            }
+            tvCategoryRevenue.setText(text.length() > 0 ? text.toString() : "Chưa có dữ liệu");
+        });
 
-            requireActivity().runOnUiThread(() -> {
-                tvRevenue.setText(revenueStr);
-                tvStock.setText(stockStr);
-                tvOrders.setText(ordersStr);
-                tvProducts.setText(productsStr);
-                tvCustomers.setText(customersStr);
-            });
+        chipGroupRange.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (checkedIds.isEmpty()) {
+                return;
+            }
+            int checkedId = checkedIds.get(0);
+            if (checkedId == R.id.chip_range_weeks) {
+                viewModel.setRange(StatisticsRepository.Range.LAST_12_WEEKS);
+            } else if (checkedId == R.id.chip_range_months) {
+                viewModel.setRange(StatisticsRepository.Range.LAST_12_MONTHS);
+            } else {
+                viewModel.setRange(StatisticsRepository.Range.LAST_7_DAYS);
+            }
         });
 
         return view;
     }
-} 
\ No newline at end of file
+
+    private void appendRank(StringBuilder text, int index, String name, int unitsSold, BigDecimal revenue) {
+        if (text.length() > 0) {
+            text.append('\n');
+        }
+        text.append(index + 1).append(". ").append(name)
+                .append(" - ").append(unitsSold).append(" đã bán, ")
+                .append(revenue != null ? revenue.toPlainString() : "0").append("đ");
+    }
+
+    private String rangeTitle(StatisticsRepository.Range range) {
+        if (range == StatisticsRepository.Range.LAST_12_WEEKS) {
+            return "Doanh thu 12 tuần";
+        } else if (range == StatisticsRepository.Range.LAST_12_MONTHS) {
+            return "Doanh thu 12 tháng";
+        }
+        return "Doanh thu 7 ngày";
+    }
+
+    // period_start dạng yyyy-MM-dd: ngày/tuần hiện dd/MM, tháng hiện MM/yy
+    private String formatPeriod(SalesRollup rollup) {
+        String period = rollup.getPeriodStart();
+        if (period.length() < 10) {
+            return period;
+        }
+        if (SalesRollup.MONTH.equals(rollup.getGranularity())) {
+            return period.substring(5, 7) + "/" + period.substring(2, 4);
+        }
+        return period.substring(8, 10) + "/" + period.substring(5, 7);
+    }
+}
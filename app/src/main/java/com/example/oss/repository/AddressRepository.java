@@ -5,19 +5,21 @@ import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.dao.AddressDao;
 import com.example.oss.entity.Address;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class AddressRepository {
     private AddressDao addressDao;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
 
-    public AddressRepository(Application application) {
+    AddressRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         addressDao = database.addressDao();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
@@ -34,7 +36,7 @@ public class AddressRepository {
     }
 
     public Future<Address> getDefaultAddressSync(int userId) {
-        return executor.submit(() -> addressDao.getDefaultAddressSync(userId));
+        return readExecutor.submit(() -> addressDao.getDefaultAddressSync(userId));
     }
 
     public LiveData<Integer> getAddressCount(int userId) {
@@ -43,29 +45,29 @@ public class AddressRepository {
 
     // Write operations
     public void insertAddress(Address address) {
-        executor.execute(() -> addressDao.insertAddress(address));
+        writeExecutor.execute(() -> addressDao.insertAddress(address));
     }
 
     public void updateAddress(Address address) {
-        executor.execute(() -> addressDao.updateAddress(address));
+        writeExecutor.execute(() -> addressDao.updateAddress(address));
     }
 
     public void deleteAddress(Address address) {
-        executor.execute(() -> addressDao.deleteAddress(address));
+        writeExecutor.execute(() -> addressDao.deleteAddress(address));
     }
 
     public void deleteAddressById(int addressId) {
-        executor.execute(() -> addressDao.deleteAddressById(addressId));
+        writeExecutor.execute(() -> addressDao.deleteAddressById(addressId));
     }
 
     public void setDefaultAddress(int userId, int addressId) {
-        executor.execute(() -> addressDao.setDefaultAddress(userId, addressId));
+        writeExecutor.execute(() -> addressDao.setDefaultAddress(userId, addressId));
     }
 
     // Business logic methods
     public void addAddress(int userId, String receiverName, String phoneNumber,
             String streetAddress, String city, String postalCode, boolean isDefault) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             Address address = Address.builder()
                     .userId(userId)
                     .receiverName(receiverName)
@@ -88,7 +90,7 @@ public class AddressRepository {
     public void updateAddressInfo(int addressId, String receiverName, String phoneNumber,
             String streetAddress, String district, String city, String postalCode,
             String addressType, String notes) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             try {
                 // Tạo sync method để lấy address hiện tại
                 Address currentAddress = getAddressSyncById(addressId);
@@ -116,10 +118,8 @@ public class AddressRepository {
     private Address getAddressSyncById(int addressId) {
         try {
             // Simple synchronous query - chỉ dùng cho update operations
-            return executor.submit(() -> {
-                // Tạo query trực tiếp thông qua DAO
-                return addressDao.getAddressByIdSync(addressId);
-            }).get();
+            // Đang ở trong task ghi nên gọi DAO trực tiếp, không cần chuyển sang pool khác rồi chờ
+            return addressDao.getAddressByIdSync(addressId);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -127,18 +127,18 @@ public class AddressRepository {
     }
 
     public void makeAddressDefault(int userId, int addressId) {
-        executor.execute(() -> addressDao.setDefaultAddress(userId, addressId));
+        writeExecutor.execute(() -> addressDao.setDefaultAddress(userId, addressId));
     }
 
     public Future<Boolean> hasAddresses(int userId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Integer count = addressDao.getAddressCount(userId).getValue();
             return count != null && count > 0;
         });
     }
 
     public Future<Boolean> isValidAddress(String streetAddress, String city, String postalCode) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             // Basic validation
             return streetAddress != null && !streetAddress.trim().isEmpty() &&
                     city != null && !city.trim().isEmpty() &&
@@ -147,7 +147,7 @@ public class AddressRepository {
     }
 
     public Future<String> getFormattedAddress(int addressId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Address address = addressDao.getAddressById(addressId).getValue();
             if (address != null) {
                 return String.format("%s\n%s, %s %s\nTel: %s",
@@ -7,21 +7,22 @@ import androidx.lifecycle.LiveData;
 import com.example.oss.dao.ProductDao;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.entity.Product;
+import com.example.oss.util.FtsQueryBuilder;
+import com.example.oss.util.AppExecutors;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AdminProductRepository {
     private ProductDao productDao;
     private LiveData<List<Product>> allProducts;
     private ExecutorService executor;
 
-    public AdminProductRepository(Application application) {
+    AdminProductRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         productDao = database.productDao();
         allProducts = productDao.getAllProducts();
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskWrite();
     }
 
     public LiveData<List<Product>> getAllProducts() {
@@ -29,7 +30,8 @@ public class AdminProductRepository {
     }
 
     public LiveData<List<Product>> searchProducts(String searchQuery) {
-        return productDao.searchAllProducts(searchQuery);
+        String matchQuery = FtsQueryBuilder.build(searchQuery);
+        return matchQuery.isEmpty() ? allProducts : productDao.searchAllProducts(matchQuery);
     }
 
     public LiveData<List<Product>> getProductsByCategory(int categoryId) {
@@ -37,7 +39,10 @@ public class AdminProductRepository {
     }
 
     public LiveData<List<Product>> searchProductsByCategory(String searchQuery, int categoryId) {
-        return productDao.searchAllProductsByCategory(searchQuery, categoryId);
+        String matchQuery = FtsQueryBuilder.build(searchQuery);
+        return matchQuery.isEmpty()
+                ? productDao.getAllProductsByCategory(categoryId)
+                : productDao.searchAllProductsByCategory(matchQuery, categoryId);
     }
 
 
@@ -2,23 +2,36 @@ package com.example.oss.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import com.example.oss.dao.CartDao;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.entity.Cart;
+import com.example.oss.util.AppExecutors;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class CartRepository {
     private CartDao cartDao;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
+    private CartWriteBuffer writeBuffer;
+    private MembershipIndex membershipIndex;
 
-    public CartRepository(Application application) {
+    CartRepository(Application application, MembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
         AppDatabase database = AppDatabase.getDatabase(application);
         cartDao = database.cartDao();
-        executor = Executors.newFixedThreadPool(4);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
+        writeBuffer = new CartWriteBuffer(cartDao, writeExecutor);
     }
 
     // Read operations
@@ -26,84 +39,86 @@ public class CartRepository {
         return cartDao.getCartItems(userId);
     }
 
-    public LiveData<List<CartDao.CartWithProduct>> getCartWithProducts(int userId) {
-        return cartDao.getCartWithProducts(userId);
-    }
-
-    public LiveData<Integer> getCartCount(int userId) {
-        return cartDao.getCartCount(userId);
-    }
-
-    public LiveData<Integer> getTotalQuantity(int userId) {
-        return cartDao.getTotalQuantity(userId);
-    }
-
-    public LiveData<BigDecimal> getCartTotal(int userId) {
-        return cartDao.getCartTotal(userId);
+    // Mỗi lần cart/products đổi chỉ chạy một query JOIN; các dòng, số sản phẩm, tổng số lượng và
+    // tổng tiền đều lấy từ cùng kết quả đó nên không bao giờ lệch nhau.
+    // Số lượng vừa bấm mà chưa ghi (CartWriteBuffer) được phủ lên để UI không phải đợi database
+    public LiveData<CartSnapshot> getCartSnapshot(int userId) {
+        LiveData<List<CartDao.CartWithProduct>> rows = cartDao.getCartWithProducts(userId);
+        MediatorLiveData<CartSnapshot> snapshot = new MediatorLiveData<>();
+        snapshot.addSource(rows, loaded -> {
+            writeBuffer.onRowsLoaded(userId);
+            snapshot.setValue(CartSnapshot.from(writeBuffer.overlay(userId, loaded)));
+        });
+        snapshot.addSource(writeBuffer.getChanges(), version -> {
+            if (rows.getValue() != null) {
+                snapshot.setValue(CartSnapshot.from(writeBuffer.overlay(userId, rows.getValue())));
+            }
+        });
+        return snapshot;
     }
 
     // Write operations
+    // Số lượng được cộng dồn và giới hạn theo tồn kho ngay trong SQL (CartDao.addToCart)
     public void addToCart(int userId, int productId, int quantity) {
-        executor.execute(() -> {
-            Cart existingItem = cartDao.getCartItem(userId, productId);
-            if (existingItem != null) {
-                // Update existing item
-                existingItem.setQuantity(existingItem.getQuantity() + quantity);
-                cartDao.updateCartItem(existingItem);
-            } else {
-                // Create new item
-                Cart newItem = Cart.builder()
-                        .userId(userId)
-                        .productId(productId)
-                        .quantity(quantity)
-                        .build();
-                cartDao.insertCartItem(newItem);
-            }
+        writeBuffer.flush();
+        writeExecutor.execute(() -> membershipIndex.setCartQuantity(userId, productId,
+                cartDao.addToCart(userId, productId, quantity, new Date())));
+    }
+
+    // Cả đơn được gộp vào giỏ bằng một transaction trên luồng ghi; Future xong khi đã ghi xong
+    public Future<ReorderResult> reorder(int userId, int orderId) {
+        writeBuffer.flush();
+        return writeExecutor.submit(() -> {
+            ReorderResult result = ReorderResult.from(cartDao.mergeOrderIntoCart(userId, orderId, new Date()));
+            membershipIndex.reloadFor(userId);
+            return result;
         });
     }
 
+    // Bấm +/- liên tục chỉ thành một lần ghi sau khi ngừng bấm (CartWriteBuffer)
     public void updateQuantity(int userId, int productId, int newQuantity) {
-        executor.execute(() -> {
-            if (newQuantity <= 0) {
-                cartDao.removeCartItemByIds(userId, productId);
-            } else {
-                cartDao.updateQuantity(userId, productId, newQuantity);
-            }
-        });
+        if (newQuantity <= 0) {
+            removeFromCart(userId, productId);
+        } else {
+            writeBuffer.setQuantity(userId, productId, newQuantity);
+            membershipIndex.setCartQuantity(userId, productId, newQuantity);
+        }
+    }
+
+    // Ghi ngay các số lượng đang chờ, vd. khi rời màn giỏ hàng
+    public void flushPendingQuantities() {
+        writeBuffer.flush();
     }
 
     public void removeFromCart(int userId, int productId) {
-        executor.execute(() -> cartDao.removeCartItemByIds(userId, productId));
+        writeBuffer.discard(userId, productId);
+        membershipIndex.setCartQuantity(userId, productId, 0);
+        writeExecutor.execute(() -> cartDao.removeCartItemByIds(userId, productId));
     }
 
     public void clearCart(int userId) {
-        executor.execute(() -> cartDao.clearCart(userId));
+        writeBuffer.discardAll(userId);
+        membershipIndex.clearCart(userId);
+        writeExecutor.execute(() -> cartDao.clearCart(userId));
     }
 
     // Business logic methods
     public Future<Boolean> isProductInCart(int userId, int productId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Cart item = cartDao.getCartItem(userId, productId);
             return item != null;
         });
     }
 
     public Future<Boolean> isCartEmpty(int userId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             int count = cartDao.getCartCountSync(userId);
             return count == 0;
         });
     }
 
-    public Future<CartSummary> getCartSummary(int userId) {
-        return executor.submit(() -> {
-            int totalItems = cartDao.getCartCountSync(userId);
-            int totalQuantity = cartDao.getTotalQuantitySync(userId);
-            BigDecimal totalAmount = cartDao.getCartTotalSync(userId);
-
-            return new CartSummary(totalItems, totalQuantity,
-                    totalAmount != null ? totalAmount : BigDecimal.ZERO);
-        });
+    public Future<CartSnapshot> getCartSnapshotOnce(int userId) {
+        return readExecutor.submit(() -> CartSnapshot.from(getCartWithProductsSync(userId)));
     }
 
     // Synchronous operations for order processing
@@ -111,27 +126,105 @@ public class CartRepository {
         return cartDao.getCartItemsSync(userId);
     }
 
+    // Đặt hàng ngay sau khi bấm +/- vẫn phải dùng số lượng người dùng đang thấy
     public List<CartDao.CartWithProduct> getCartWithProductsSync(int userId) {
-        return cartDao.getCartWithProductsSync(userId);
+        return writeBuffer.overlay(userId, cartDao.getCartWithProductsSync(userId));
     }
 
     public void clearCartSync(int userId) {
         cartDao.clearCartByUser(userId);
     }
 
-    // Helper class
-    public static class CartSummary {
-        private int totalItems;
-        private int totalQuantity;
-        private BigDecimal totalAmount;
+    // Kết quả mua lại một đơn: số sản phẩm đã thêm, sản phẩm bị giảm số lượng theo tồn kho, sản phẩm hết hàng
+    public static final class ReorderResult {
+        private final int addedCount;
+        private final List<String> clampedProducts;
+        private final List<String> unavailableProducts;
+
+        private ReorderResult(int addedCount, List<String> clampedProducts, List<String> unavailableProducts) {
+            this.addedCount = addedCount;
+            this.clampedProducts = clampedProducts;
+            this.unavailableProducts = unavailableProducts;
+        }
 
-        public CartSummary(int totalItems, int totalQuantity, BigDecimal totalAmount) {
-            this.totalItems = totalItems;
+        // Một sản phẩm có thể nằm ở nhiều dòng của đơn nên cộng theo product_id trước
+        static ReorderResult from(List<CartDao.ReorderLine> lines) {
+            Map<Integer, CartDao.ReorderLine> byProduct = new LinkedHashMap<>();
+            Map<Integer, Integer> requested = new HashMap<>();
+            for (CartDao.ReorderLine line : lines) {
+                byProduct.putIfAbsent(line.product_id, line);
+                requested.merge(line.product_id, line.requested, Integer::sum);
+            }
+            int added = 0;
+            List<String> clamped = new ArrayList<>();
+            List<String> unavailable = new ArrayList<>();
+            for (CartDao.ReorderLine line : byProduct.values()) {
+                if (line.stock_quantity <= 0) {
+                    unavailable.add(line.product_name);
+                    continue;
+                }
+                added++;
+                if (line.in_cart + requested.get(line.product_id) > line.stock_quantity) {
+                    clamped.add(line.product_name);
+                }
+            }
+            return new ReorderResult(added,
+                    Collections.unmodifiableList(clamped), Collections.unmodifiableList(unavailable));
+        }
+
+        public int getAddedCount() {
+            return addedCount;
+        }
+
+        public List<String> getClampedProducts() {
+            return clampedProducts;
+        }
+
+        public List<String> getUnavailableProducts() {
+            return unavailableProducts;
+        }
+
+        public boolean isEmpty() {
+            return addedCount == 0 && unavailableProducts.isEmpty();
+        }
+    }
+
+    // Giỏ hàng tại một thời điểm, không đổi sau khi tạo
+    public static final class CartSnapshot {
+        public static final CartSnapshot EMPTY = from(Collections.emptyList());
+
+        private final List<CartDao.CartWithProduct> lines;
+        private final int totalItems;
+        private final int totalQuantity;
+        private final BigDecimal totalAmount;
+
+        private CartSnapshot(List<CartDao.CartWithProduct> lines, int totalQuantity, BigDecimal totalAmount) {
+            this.lines = lines;
+            this.totalItems = lines.size();
             this.totalQuantity = totalQuantity;
             this.totalAmount = totalAmount;
         }
 
-        // Getters
+        // Một lượt qua các dòng của query là đủ cho mọi con số
+        static CartSnapshot from(List<CartDao.CartWithProduct> rows) {
+            List<CartDao.CartWithProduct> lines = rows != null ? new ArrayList<>(rows) : new ArrayList<>();
+            int quantity = 0;
+            BigDecimal amount = BigDecimal.ZERO;
+            for (CartDao.CartWithProduct line : lines) {
+                quantity += line.getQuantity();
+                amount = amount.add(line.getTotalPrice());
+            }
+            return new CartSnapshot(Collections.unmodifiableList(lines), quantity, amount);
+        }
+
+        public List<CartDao.CartWithProduct> getLines() {
+            return lines;
+        }
+
+        public boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
         public int getTotalItems() {
             return totalItems;
         }
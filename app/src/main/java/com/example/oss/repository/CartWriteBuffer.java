@@ -0,0 +1,160 @@
+package com.example.oss.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.oss.dao.CartDao;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Gom các lần bấm +/- số lượng trong giỏ: chỉ giữ số lượng mới nhất của từng (user, sản phẩm),
+ * FLUSH_DELAY_MS sau lần bấm cuối thì ghi tất cả trong một transaction (một lần invalidation).
+ *
+ * Trong lúc chờ và đang ghi, {@link CartRepository} phủ các số lượng này lên kết quả query
+ * nên UI đổi ngay. Số đã ghi xong được bỏ ở lần query kế tiếp, khi database đã có giá trị mới.
+ * Gọi được từ mọi thread.
+ */
+class CartWriteBuffer {
+
+    static final long FLUSH_DELAY_MS = 400;
+
+    private static final int PENDING = 0;
+    private static final int WRITING = 1;
+    private static final int WRITTEN = 2;
+
+    private final CartDao cartDao;
+    private final ExecutorService writeExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flush;
+    // Tăng mỗi khi số lượng phủ thay đổi để snapshot tính lại
+    private final MutableLiveData<Integer> changes = new MutableLiveData<>(0);
+
+    // userId -> (productId -> số lượng chưa có trong database)
+    private final Map<Integer, Map<Integer, Entry>> entries = new HashMap<>();
+    private int version = 0;
+
+    CartWriteBuffer(CartDao cartDao, ExecutorService writeExecutor) {
+        this.cartDao = cartDao;
+        this.writeExecutor = writeExecutor;
+    }
+
+    LiveData<Integer> getChanges() {
+        return changes;
+    }
+
+    // Lần bấm mới thay giá trị cũ và lùi thời điểm ghi
+    synchronized void setQuantity(int userId, int productId, int quantity) {
+        userEntries(userId).put(productId, new Entry(quantity));
+        notifyChanged();
+        mainHandler.removeCallbacks(flushTask);
+        mainHandler.postDelayed(flushTask, FLUSH_DELAY_MS);
+    }
+
+    // Dòng bị xóa hoặc ghi đè bằng đường khác thì không còn gì để phủ
+    synchronized void discard(int userId, int productId) {
+        Map<Integer, Entry> forUser = entries.get(userId);
+        if (forUser != null && forUser.remove(productId) != null) {
+            notifyChanged();
+        }
+    }
+
+    synchronized void discardAll(int userId) {
+        if (entries.remove(userId) != null) {
+            notifyChanged();
+        }
+    }
+
+    /**
+     * Đưa mọi số lượng đang chờ vào hàng ghi ngay. Executor ghi chỉ có một thread nên
+     * các thao tác ghi gửi sau lời gọi này luôn chạy sau các số lượng vừa flush.
+     */
+    synchronized void flush() {
+        mainHandler.removeCallbacks(flushTask);
+        for (Map.Entry<Integer, Map<Integer, Entry>> forUser : entries.entrySet()) {
+            Map<Integer, Integer> quantities = new HashMap<>();
+            List<Entry> batch = new ArrayList<>();
+            for (Map.Entry<Integer, Entry> item : forUser.getValue().entrySet()) {
+                Entry entry = item.getValue();
+                if (entry.state == PENDING) {
+                    entry.state = WRITING;
+                    quantities.put(item.getKey(), entry.quantity);
+                    batch.add(entry);
+                }
+            }
+            if (!quantities.isEmpty()) {
+                int userId = forUser.getKey();
+                writeExecutor.execute(() -> {
+                    cartDao.applyQuantities(userId, quantities);
+                    markWritten(batch);
+                });
+            }
+        }
+    }
+
+    // Gọi mỗi khi query giỏ hàng của user trả kết quả mới
+    synchronized void onRowsLoaded(int userId) {
+        Map<Integer, Entry> forUser = entries.get(userId);
+        if (forUser == null) {
+            return;
+        }
+        Iterator<Entry> iterator = forUser.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().state == WRITTEN) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Kết quả query với số lượng chưa ghi được thay vào; không có gì để phủ thì trả lại chính rows
+    synchronized List<CartDao.CartWithProduct> overlay(int userId, List<CartDao.CartWithProduct> rows) {
+        Map<Integer, Entry> forUser = entries.get(userId);
+        if (rows == null || forUser == null || forUser.isEmpty()) {
+            return rows;
+        }
+        List<CartDao.CartWithProduct> result = new ArrayList<>(rows.size());
+        for (CartDao.CartWithProduct row : rows) {
+            Entry entry = forUser.get(row.getProductId());
+            result.add(entry != null && entry.quantity != row.getQuantity()
+                    ? row.withQuantity(entry.quantity)
+                    : row);
+        }
+        return result;
+    }
+
+    // Entry đã bị lần bấm mới thay thế trong lúc ghi thì không còn trong map, đánh dấu cũng không ảnh hưởng
+    private synchronized void markWritten(List<Entry> batch) {
+        for (Entry entry : batch) {
+            if (entry.state == WRITING) {
+                entry.state = WRITTEN;
+            }
+        }
+    }
+
+    private Map<Integer, Entry> userEntries(int userId) {
+        Map<Integer, Entry> forUser = entries.get(userId);
+        if (forUser == null) {
+            forUser = new HashMap<>();
+            entries.put(userId, forUser);
+        }
+        return forUser;
+    }
+
+    private void notifyChanged() {
+        changes.postValue(++version);
+    }
+
+    private static final class Entry {
+        final int quantity;
+        int state = PENDING;
+
+        Entry(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -5,22 +5,25 @@ import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.dao.CategoryDao;
 import com.example.oss.entity.Category;
+import com.example.oss.util.SearchNormalizer;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class CategoryRepository {
     private CategoryDao categoryDao;
     private LiveData<List<Category>> allCategories;
     private LiveData<List<Category>> rootCategories;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
 
-    public CategoryRepository(Application application) {
+    CategoryRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         categoryDao = database.categoryDao();
         allCategories = categoryDao.getAllCategories();
         rootCategories = categoryDao.getRootCategories();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
@@ -40,17 +43,29 @@ public class CategoryRepository {
         return categoryDao.getCategoryById(id);
     }
 
+    // "dien t" và "Điện t" đều khớp "Điện tử"; chuỗi rỗng trả về mọi danh mục
+    public LiveData<List<Category>> searchCategories(String query) {
+        String prefix = SearchNormalizer.fold(query);
+        if (prefix.isEmpty()) {
+            return allCategories;
+        }
+        // Chuỗi nhỏ nhất lớn hơn mọi chuỗi bắt đầu bằng prefix: tăng ký tự cuối thêm 1
+        int last = prefix.length() - 1;
+        String prefixEnd = prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+        return categoryDao.searchCategoriesByPrefix(prefix, prefixEnd);
+    }
+
     // Write operations
     public void insertCategory(Category category) {
-        executor.execute(() -> categoryDao.insertCategory(category));
+        writeExecutor.execute(() -> categoryDao.insertCategory(category));
     }
 
     public void updateCategory(Category category) {
-        executor.execute(() -> categoryDao.updateCategory(category));
+        writeExecutor.execute(() -> categoryDao.updateCategory(category));
     }
 
     public void deleteCategory(Category category) {
-        executor.execute(() -> categoryDao.deleteCategory(category));
+        writeExecutor.execute(() -> categoryDao.deleteCategory(category));
     }
 
     // Business logic methods
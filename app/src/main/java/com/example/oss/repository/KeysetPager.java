@@ -0,0 +1,147 @@
+package com.example.oss.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+import com.example.oss.database.AppDatabase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Phần chung của các danh sách tải theo trang bằng keyset cursor (ProductPager, ReviewPager):
+ * giữ các dòng đã tải, tải trang kế tiếp sau cursor của trang trước, và khi một trong các bảng
+ * đang theo dõi thay đổi thì nạp lại từ đầu đúng số dòng đang hiển thị để không nhảy vị trí cuộn.
+ * Lớp con chỉ cung cấp hàm lấy trang và danh sách bảng.
+ *
+ * Mọi hàm public gọi trên main thread.
+ *
+ * @param <T> một dòng của danh sách
+ * @param <K> cursor trỏ tới chỗ trang kế tiếp bắt đầu
+ */
+public class KeysetPager<T, K> {
+
+    public interface Fetcher<T, K> {
+        /**
+         * Chạy trên background thread.
+         * @param after cursor của trang trước, null nếu là trang đầu
+         */
+        Page<T, K> fetch(@Nullable K after, int limit);
+    }
+
+    public static final class Page<T, K> {
+        final List<T> items;
+        final K next;
+        final boolean hasMore;
+
+        public Page(List<T> items, K next, boolean hasMore) {
+            this.items = items;
+            this.next = next;
+            this.hasMore = hasMore;
+        }
+    }
+
+    private final int pageSize;
+    private final Fetcher<T, K> fetcher;
+    private final ExecutorService executor;
+    private final AppDatabase database;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<List<T>> items = new MutableLiveData<>();
+
+    private final List<T> loaded = new ArrayList<>();
+    private K next;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    // Tăng mỗi lần refresh để bỏ qua kết quả của lần tải cũ còn đang chạy
+    private int generation = 0;
+    private boolean disposed = false;
+
+    private final InvalidationTracker.Observer observer;
+
+    KeysetPager(AppDatabase database, ExecutorService executor, int pageSize, Fetcher<T, K> fetcher,
+            String... observedTables) {
+        this.database = database;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+        this.observer = new InvalidationTracker.Observer(observedTables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                mainHandler.post(KeysetPager.this::refresh);
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        loadNextPage();
+    }
+
+    public LiveData<List<T>> getItems() {
+        return items;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    protected int loadedCount() {
+        return loaded.size();
+    }
+
+    public void loadNextPage() {
+        if (loading || disposed || !hasMore) {
+            return;
+        }
+        loading = true;
+        K after = next;
+        int requestGeneration = generation;
+        executor.execute(() -> {
+            Page<T, K> page = fetcher.fetch(after, pageSize);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation || disposed) {
+                    return;
+                }
+                loaded.addAll(page.items);
+                apply(page);
+            });
+        });
+    }
+
+    // Nạp lại từ đầu, giữ nguyên số dòng đã hiển thị
+    private void refresh() {
+        if (disposed) {
+            return;
+        }
+        generation++;
+        loading = true;
+        int requestGeneration = generation;
+        int limit = Math.max(loaded.size(), pageSize);
+        executor.execute(() -> {
+            Page<T, K> page = fetcher.fetch(null, limit);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation || disposed) {
+                    return;
+                }
+                loaded.clear();
+                loaded.addAll(page.items);
+                apply(page);
+            });
+        });
+    }
+
+    private void apply(Page<T, K> page) {
+        next = page.next;
+        hasMore = page.hasMore;
+        loading = false;
+        items.setValue(Collections.unmodifiableList(new ArrayList<>(loaded)));
+    }
+
+    public void dispose() {
+        disposed = true;
+        database.getInvalidationTracker().removeObserver(observer);
+    }
+}
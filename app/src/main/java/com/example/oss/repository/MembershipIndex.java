@@ -0,0 +1,195 @@
+package com.example.oss.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import com.example.oss.dao.CartDao;
+import com.example.oss.dao.WishlistDao;
+import com.example.oss.database.AppDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Sản phẩm nào của user đang đăng nhập nằm trong wishlist / giỏ hàng (kèm số lượng),
+ * dùng chung cho mọi lưới sản phẩm. Nạp một lần bằng hai query chỉ lấy product_id,
+ * sau đó các repository báo từng thay đổi; tra cứu là SparseBooleanArray/SparseIntArray, không boxing.
+ *
+ * Đọc và đăng ký listener trên main thread; các hàm cập nhật gọi được từ mọi thread.
+ */
+public class MembershipIndex {
+
+    // productId truyền cho listener khi cả index đổi (nạp lại, xóa hết)
+    public static final int ALL_PRODUCTS = -1;
+
+    public interface Listener {
+        void onMembershipChanged(int productId);
+    }
+
+    private final WishlistDao wishlistDao;
+    private final CartDao cartDao;
+    private final ExecutorService readExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private final SparseBooleanArray wishlist = new SparseBooleanArray();
+    private final SparseIntArray cartQuantities = new SparseIntArray();
+    private int userId = -1;
+    // Tăng mỗi lần đổi user hoặc nạp lại để bỏ qua kết quả nạp cũ
+    private int generation = 0;
+    // Có cập nhật lẻ trong lúc đang nạp thì kết quả nạp có thể đã cũ, nạp lại lần nữa
+    private boolean loading = false;
+    private boolean changedWhileLoading = false;
+
+    MembershipIndex(AppDatabase database, ExecutorService readExecutor) {
+        this.wishlistDao = database.wishlistDao();
+        this.cartDao = database.cartDao();
+        this.readExecutor = readExecutor;
+    }
+
+    // Nạp cho user nếu chưa nạp; gọi lại với cùng user không làm gì
+    public void load(int userId) {
+        if (this.userId == userId) {
+            return;
+        }
+        this.userId = userId;
+        wishlist.clear();
+        cartQuantities.clear();
+        notifyListeners(ALL_PRODUCTS);
+        reload();
+    }
+
+    // Đăng xuất: không còn sản phẩm nào được đánh dấu
+    public void reset() {
+        load(-1);
+    }
+
+    public boolean isInWishlist(int productId) {
+        return wishlist.get(productId);
+    }
+
+    public int getCartQuantity(int productId) {
+        return cartQuantities.get(productId);
+    }
+
+    // Listener tự bị gỡ khi owner bị hủy (với fragment thì dùng getViewLifecycleOwner())
+    public void observe(@NonNull LifecycleOwner owner, @NonNull Listener listener) {
+        listeners.add(listener);
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                listeners.remove(listener);
+            }
+        });
+    }
+
+    void setInWishlist(int userId, int productId, boolean inWishlist) {
+        mainHandler.post(() -> {
+            if (!isCurrentUser(userId)) {
+                return;
+            }
+            if (inWishlist) {
+                wishlist.put(productId, true);
+            } else {
+                wishlist.delete(productId);
+            }
+            notifyListeners(productId);
+        });
+    }
+
+    // quantity <= 0 nghĩa là không còn trong giỏ
+    void setCartQuantity(int userId, int productId, int quantity) {
+        mainHandler.post(() -> {
+            if (!isCurrentUser(userId)) {
+                return;
+            }
+            if (quantity > 0) {
+                cartQuantities.put(productId, quantity);
+            } else {
+                cartQuantities.delete(productId);
+            }
+            notifyListeners(productId);
+        });
+    }
+
+    void clearWishlist(int userId) {
+        mainHandler.post(() -> {
+            if (isCurrentUser(userId)) {
+                wishlist.clear();
+                notifyListeners(ALL_PRODUCTS);
+            }
+        });
+    }
+
+    void clearCart(int userId) {
+        mainHandler.post(() -> {
+            if (isCurrentUser(userId)) {
+                cartQuantities.clear();
+                notifyListeners(ALL_PRODUCTS);
+            }
+        });
+    }
+
+    // Cho các thao tác ghi nhiều dòng một lúc (vd. mua lại cả đơn): nạp lại thay vì tính từng dòng
+    void reloadFor(int userId) {
+        mainHandler.post(() -> {
+            if (isCurrentUser(userId)) {
+                reload();
+            }
+        });
+    }
+
+    private boolean isCurrentUser(int userId) {
+        if (userId == -1 || this.userId != userId) {
+            return false;
+        }
+        if (loading) {
+            changedWhileLoading = true;
+        }
+        return true;
+    }
+
+    private void reload() {
+        generation++;
+        if (userId == -1) {
+            loading = false;
+            return;
+        }
+        int requestGeneration = generation;
+        int requestUserId = userId;
+        loading = true;
+        changedWhileLoading = false;
+        readExecutor.execute(() -> {
+            List<Integer> wishlistIds = wishlistDao.getWishlistProductIdsSync(requestUserId);
+            List<CartDao.CartQuantity> quantities = cartDao.getCartQuantitiesSync(requestUserId);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                wishlist.clear();
+                for (Integer productId : wishlistIds) {
+                    wishlist.put(productId, true);
+                }
+                cartQuantities.clear();
+                for (CartDao.CartQuantity line : quantities) {
+                    cartQuantities.put(line.product_id, line.quantity);
+                }
+                loading = false;
+                notifyListeners(ALL_PRODUCTS);
+                if (changedWhileLoading) {
+                    reload();
+                }
+            });
+        });
+    }
+
+    private void notifyListeners(int productId) {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onMembershipChanged(productId);
+        }
+    }
+}
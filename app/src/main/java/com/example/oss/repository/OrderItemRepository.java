@@ -5,20 +5,22 @@ import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.dao.OrderItemDao;
 import com.example.oss.entity.OrderItem;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.math.BigDecimal;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class OrderItemRepository {
     private OrderItemDao orderItemDao;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
 
-    public OrderItemRepository(Application application) {
+    OrderItemRepository(Application application) {
         AppDatabase database = AppDatabase.getDatabase(application);
         orderItemDao = database.orderItemDao();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
@@ -27,7 +29,7 @@ public class OrderItemRepository {
     }
 
     public Future<List<OrderItem>> getOrderItemsSync(int orderId) {
-        return executor.submit(() -> orderItemDao.getOrderItemsSync(orderId));
+        return readExecutor.submit(() -> orderItemDao.getOrderItemsSync(orderId));
     }
 
     public LiveData<List<OrderItemDao.OrderItemWithProduct>> getOrderItemsWithProduct(int orderId) {
@@ -47,7 +49,7 @@ public class OrderItemRepository {
     }
 
     public Future<BigDecimal> getOrderTotalSync(int orderId) {
-        return executor.submit(() -> orderItemDao.getOrderTotalSync(orderId));
+        return readExecutor.submit(() -> orderItemDao.getOrderTotalSync(orderId));
     }
 
     public LiveData<Integer> getTotalQuantityForOrder(int orderId) {
@@ -60,27 +62,27 @@ public class OrderItemRepository {
 
     // Write operations
     public void insertOrderItem(OrderItem orderItem) {
-        executor.execute(() -> orderItemDao.insertOrderItem(orderItem));
+        writeExecutor.execute(() -> orderItemDao.insertOrderItem(orderItem));
     }
 
     public void insertOrderItems(List<OrderItem> orderItems) {
-        executor.execute(() -> orderItemDao.insertOrderItems(orderItems));
+        writeExecutor.execute(() -> orderItemDao.insertOrderItems(orderItems));
     }
 
     public void updateOrderItem(OrderItem orderItem) {
-        executor.execute(() -> orderItemDao.updateOrderItem(orderItem));
+        writeExecutor.execute(() -> orderItemDao.updateOrderItem(orderItem));
     }
 
     public void deleteOrderItem(OrderItem orderItem) {
-        executor.execute(() -> orderItemDao.deleteOrderItem(orderItem));
+        writeExecutor.execute(() -> orderItemDao.deleteOrderItem(orderItem));
     }
 
     public void deleteOrderItemById(int orderItemId) {
-        executor.execute(() -> orderItemDao.deleteOrderItemById(orderItemId));
+        writeExecutor.execute(() -> orderItemDao.deleteOrderItemById(orderItemId));
     }
 
     public void deleteOrderItemsByOrderId(int orderId) {
-        executor.execute(() -> orderItemDao.deleteOrderItemsByOrderId(orderId));
+        writeExecutor.execute(() -> orderItemDao.deleteOrderItemsByOrderId(orderId));
     }
 
     // Business logic methods
@@ -95,7 +97,7 @@ public class OrderItemRepository {
     }
 
     public void updateOrderItemQuantity(int orderItemId, int newQuantity) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             OrderItem orderItem = orderItemDao.getOrderItemById(orderItemId).getValue();
             if (orderItem != null) {
                 orderItem.setQuantity(newQuantity);
@@ -105,7 +107,7 @@ public class OrderItemRepository {
     }
 
     public Future<BigDecimal> calculateItemTotal(int orderItemId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             OrderItem orderItem = orderItemDao.getOrderItemById(orderItemId).getValue();
             if (orderItem != null) {
                 return orderItem.getPriceAtPurchase()
@@ -116,14 +118,14 @@ public class OrderItemRepository {
     }
 
     public Future<Boolean> hasOrderItems(int orderId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Integer count = orderItemDao.getOrderItemCount(orderId).getValue();
             return count != null && count > 0;
         });
     }
 
     public Future<List<OrderItem>> createOrderItemsFromCart(int orderId, List<CartItem> cartItems) {
-        return executor.submit(() -> {
+        return writeExecutor.submit(() -> {
             List<OrderItem> orderItems = new java.util.ArrayList<>();
 
             for (CartItem cartItem : cartItems) {
@@ -143,14 +145,14 @@ public class OrderItemRepository {
     }
 
     public Future<Integer> getTotalItemsInOrder(int orderId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             List<OrderItem> items = orderItemDao.getOrderItemsSync(orderId);
             return items.stream().mapToInt(OrderItem::getQuantity).sum();
         });
     }
 
     public Future<Boolean> canModifyOrderItems(int orderId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             // Logic to check if order items can be modified
             // For example, only pending orders can be modified
             // This would require accessing Order status
@@ -160,7 +162,7 @@ public class OrderItemRepository {
 
     // Utility methods
     public Future<String> getOrderSummary(int orderId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             List<OrderItem> items = orderItemDao.getOrderItemsSync(orderId);
             int totalItems = items.size();
             int totalQuantity = items.stream().mapToInt(OrderItem::getQuantity).sum();
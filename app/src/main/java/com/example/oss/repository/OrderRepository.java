@@ -8,38 +8,37 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
-import com.example.oss.bean.OrderData;
+import com.example.oss.bean.OrderDisplay;
 import com.example.oss.bean.OrderStatistics;
 import com.example.oss.database.AppDatabase;
+import com.example.oss.dao.CheckoutDao;
 import com.example.oss.dao.OrderDao;
-import com.example.oss.dao.OrderItemDao;
-import com.example.oss.dao.ProductDao;
 import com.example.oss.entity.Order;
 import com.example.oss.entity.OrderItem;
-import com.example.oss.entity.Product;
+import com.example.oss.util.AppExecutors;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Date;
 import java.math.BigDecimal;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class OrderRepository {
     private OrderDao orderDao;
-    private OrderItemDao orderItemDao;
-    private ProductDao productDao;
-    private ExecutorService executor;
+    private CheckoutDao checkoutDao;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
+    private MembershipIndex membershipIndex;
 
-    public OrderRepository(Application application) {
+    OrderRepository(Application application, MembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
         AppDatabase database = AppDatabase.getDatabase(application);
         orderDao = database.orderDao();
-        orderItemDao = database.orderItemDao();
-        productDao = database.productDao();
-        executor = Executors.newFixedThreadPool(2);
+        checkoutDao = database.checkoutDao();
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
@@ -51,103 +50,62 @@ public class OrderRepository {
         return orderDao.getOrdersByUser(userId);
     }
 
-    public LiveData<OrderData> getAllOrderManagementDisplays(@Nullable String filterStatus) {
-        MediatorLiveData<OrderData> result = new MediatorLiveData<>();
-
-        // Lấy danh sách Orders kèm thông tin khách hàng
-        LiveData<List<OrderDao.OrdersWithCustomer>> ordersLiveData = orderDao.getOrdersWithCustomer();
-
-        result.addSource(ordersLiveData, ordersWithCustomers -> {
-            if (ordersWithCustomers == null || ordersWithCustomers.isEmpty()) {
-                result.setValue(new OrderData(new ArrayList<>(), new OrderStatistics(0, 0, 0)));
-                return;
-            }
-
-            // Áp dụng filter nếu cần
-            List<OrderDao.OrdersWithCustomer> filteredList;
-            if (filterStatus == null || filterStatus.equals("Tất cả")) {
-                filteredList = ordersWithCustomers;
-            } else {
-                filteredList = new ArrayList<>();
-                for (OrderDao.OrdersWithCustomer order : ordersWithCustomers) {
-                    if (filterStatus.equals(order.order.getStatus())) {
-                        filteredList.add(order);
-                    }
+    // Một query cho cả danh sách (xem OrderDao.getOrderManagementRows); chi tiết sản phẩm của đơn
+    // chỉ tải khi mở màn chi tiết. Việc dựng OrderDisplay chạy trên readExecutor, không chặn main thread.
+    // statusCode null = tất cả trạng thái, ngược lại lọc ngay trong SQL.
+    public LiveData<List<OrderDisplay>> getOrderManagementDisplays(@Nullable String statusCode) {
+        MediatorLiveData<List<OrderDisplay>> result = new MediatorLiveData<>();
+        AtomicInteger generation = new AtomicInteger();
+        LiveData<List<OrderDao.OrdersWithCustomer>> rowsLiveData = statusCode == null
+                ? orderDao.getOrderManagementRows()
+                : orderDao.getOrderManagementRowsByStatus(statusCode);
+
+        result.addSource(rowsLiveData, rows -> {
+            int current = generation.incrementAndGet();
+            readExecutor.execute(() -> {
+                List<OrderDisplay> displays = toOrderDisplays(rows);
+                // Bỏ kết quả cũ nếu trong lúc dựng đã có dữ liệu mới hơn
+                if (current == generation.get()) {
+                    result.postValue(displays);
                 }
-            }
-
-            if (filteredList.isEmpty()) {
-                result.setValue(new OrderData(new ArrayList<>(), new OrderStatistics(0, 0, 0)));
-                return;
-            }
-
-            List<com.example.oss.bean.OrderDisplay> tempList = Collections.synchronizedList(new ArrayList<>());
-            AtomicInteger loadedCount = new AtomicInteger(0);
-            int totalOrders = filteredList.size();
-            AtomicInteger pendingOrders = new AtomicInteger(0);
-            AtomicInteger completedOrders = new AtomicInteger(0);
-
-            for (OrderDao.OrdersWithCustomer orderWithCustomer : filteredList){
-                int orderId = orderWithCustomer.order.getId();
-                LiveData<List<OrderItemDao.OrderItemWithProduct>> itemsLiveData = orderItemDao.getOrderItemsWithProduct(orderId);
-
-                result.addSource(itemsLiveData, orderItems -> {
-                    result.removeSource(itemsLiveData); // tránh leak
-
-                    com.example.oss.bean.OrderDisplay display = new com.example.oss.bean.OrderDisplay();
-                    display.orderId = orderWithCustomer.order.getId();
-                    display.orderDate = orderWithCustomer.order.getOrderDate();
-                    display.orderStatus = orderWithCustomer.order.getStatus();
-                    display.customerName = orderWithCustomer.customerName;
-                    display.customerEmail = orderWithCustomer.customerEmail;
-                    display.customerPhone = orderWithCustomer.customerPhone;
-                    display.productList = new ArrayList<>(orderItems);
-                    display.totalAmount = orderWithCustomer.order.getTotalAmount();
-                    display.paymentMethod = orderWithCustomer.order.getPaymentMethod();
-
-                    display.itemCount = 0;
-                    StringBuilder sb = new StringBuilder();
-                    for (OrderItemDao.OrderItemWithProduct item : orderItems) {
-                        sb.append(item.productName)
-                                .append(" (x")
-                                .append(item.orderItem.getQuantity())
-                                .append("), ");
-                        display.itemCount += item.orderItem.getQuantity();
-                    }
-
-                    if (sb.length() > 0) {
-                        sb.setLength(sb.length() - 2);
-                    }
-
-                    display.productSummary = sb.toString();
-                    tempList.add(display);
-
-                    // Thống kê
-                    switch (orderWithCustomer.order.getStatus()) {
-                        case "Chờ xử lý":
-                            pendingOrders.incrementAndGet();
-                            break;
-                        case "Đã hoàn thành":
-                            completedOrders.incrementAndGet();
-                            break;
-                    }
-
-                    if (loadedCount.incrementAndGet() == totalOrders) {
-                        OrderStatistics statistics = new OrderStatistics(totalOrders, pendingOrders.get(), completedOrders.get());
-                        result.setValue(new OrderData(new ArrayList<>(tempList), statistics));
-                    }
-                });
-            }
+            });
         });
         return result;
     }
 
+    public LiveData<OrderStatistics> getOrderStatistics() {
+        return orderDao.getOrderStatistics();
+    }
+
+    private List<OrderDisplay> toOrderDisplays(@Nullable List<OrderDao.OrdersWithCustomer> rows) {
+        List<OrderDisplay> displays = new ArrayList<>();
+        if (rows == null) {
+            return displays;
+        }
+
+        for (OrderDao.OrdersWithCustomer row : rows) {
+            OrderDisplay display = new OrderDisplay();
+            display.orderId = row.order.getId();
+            display.orderDate = row.order.getOrderDate();
+            display.orderStatus = row.order.getStatus();
+            display.customerName = row.customerName;
+            display.customerEmail = row.customerEmail;
+            display.customerPhone = row.customerPhone;
+            display.totalAmount = row.order.getTotalAmount();
+            display.paymentMethod = row.order.getPaymentMethod();
+            display.itemCount = row.itemCount;
+            display.productSummary = row.productSummary != null ? row.productSummary : "";
+            displays.add(display);
+        }
+        return displays;
+    }
+
     public LiveData<Order> getOrderById(int id) {
         return orderDao.getOrderById(id);
     }
 
     public Future<Order> getOrderByIdSync(int id) {
-        return executor.submit(() -> orderDao.getOrderByIdSync(id));
+        return readExecutor.submit(() -> orderDao.getOrderByIdSync(id));
     }
 
     public LiveData<List<Order>> getOrdersByStatus(String status) {
@@ -176,29 +134,33 @@ public class OrderRepository {
 
     // Write operations
     public void insertOrder(Order order) {
-        executor.execute(() -> orderDao.insertOrder(order));
+        writeExecutor.execute(() -> orderDao.insertOrder(order));
     }
 
     public void updateOrder(Order order) {
-        executor.execute(() -> orderDao.updateOrder(order));
+        writeExecutor.execute(() -> orderDao.updateOrder(order));
     }
 
     public void deleteOrder(Order order) {
-        executor.execute(() -> orderDao.deleteOrder(order));
+        writeExecutor.execute(() -> orderDao.deleteOrder(order));
     }
 
-    public void updateOrderStatus(int orderId, String status) {
-        executor.execute(() -> orderDao.updateOrderStatus(orderId, status));
+    // Mọi lần đổi trạng thái đi qua CheckoutDao để vào/ra 'cancelled' luôn hoàn/lấy lại kho và bộ đếm bán hàng.
+    // Future ném CheckoutDao.InsufficientStockException nếu mở lại đơn đã hủy mà không đủ hàng.
+    public Future<Boolean> updateOrderStatus(int orderId, String status) {
+        return writeExecutor.submit(() -> checkoutDao.changeOrderStatus(orderId, status));
     }
 
     public void deleteOrderById(int orderId) {
-        executor.execute(() -> orderDao.deleteOrderById(orderId));
+        writeExecutor.execute(() -> orderDao.deleteOrderById(orderId));
     }
 
     // Business logic methods
+    // Ghi đơn + trừ kho trong một transaction; thiếu hàng thì Future ném CheckoutDao.InsufficientStockException.
+    // clearCart = true khi đặt từ giỏ hàng, giỏ được xóa trong cùng transaction đó.
     public Future<Long> createOrder(int userId, Integer shippingAddressId,
-            List<OrderItem> orderItems, String paymentMethod) {
-        return executor.submit(() -> {
+            List<OrderItem> orderItems, String paymentMethod, boolean clearCart) {
+        return writeExecutor.submit(() -> {
             // Tính tổng tiền
             BigDecimal totalAmount = calculateTotalAmount(orderItems);
 
@@ -212,19 +174,10 @@ public class OrderRepository {
                     .paymentMethod(paymentMethod)
                     .build();
 
-            long orderId = orderDao.insertOrder(order);
-
-            if (orderId > 0) {
-                // Thêm order items
-                for (OrderItem item : orderItems) {
-                    item.setOrderId((int) orderId);
-                    orderItemDao.insertOrderItem(item);
-                }
-
-                // Cập nhật stock quantity
-                updateProductStock(orderItems);
+            long orderId = checkoutDao.placeOrder(order, orderItems, clearCart);
+            if (clearCart) {
+                membershipIndex.clearCart(userId);
             }
-
             return orderId;
         });
     }
@@ -242,18 +195,12 @@ public class OrderRepository {
     }
 
     public void cancelOrder(int orderId) {
-        executor.execute(() -> {
-            // Hoàn trả stock
-            List<OrderItem> orderItems = orderItemDao.getOrderItemsSync(orderId);
-            restoreProductStock(orderItems);
-
-            // Cập nhật status
-            orderDao.updateOrderStatus(orderId, "cancelled");
-        });
+        // Đổi status và hoàn trả stock cùng một transaction; đơn đã hủy rồi thì không cộng kho lần nữa
+        writeExecutor.execute(() -> checkoutDao.cancelOrder(orderId));
     }
 
     public Future<Boolean> canCancelOrder(int orderId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Order order = orderDao.getOrderByIdSync(orderId);
             return order != null &&
                     ("pending".equals(order.getStatus()) || "confirmed".equals(order.getStatus()));
@@ -261,11 +208,11 @@ public class OrderRepository {
     }
 
     public Future<List<Order>> getPendingOrders() {
-        return executor.submit(() -> orderDao.getOrdersByStatus("pending").getValue());
+        return readExecutor.submit(() -> orderDao.getOrdersByStatus("pending").getValue());
     }
 
     public Future<List<Order>> getShippedOrders() {
-        return executor.submit(() -> orderDao.getOrdersByStatus("shipped").getValue());
+        return readExecutor.submit(() -> orderDao.getOrdersByStatus("shipped").getValue());
     }
 
     // Utility methods
@@ -279,28 +226,6 @@ public class OrderRepository {
         return total;
     }
 
-    private void updateProductStock(List<OrderItem> orderItems) {
-        for (OrderItem item : orderItems) {
-            Product product = productDao.getProductById(item.getProductId()).getValue();
-            if (product != null) {
-                int newStock = product.getStockQuantity() - item.getQuantity();
-                product.setStockQuantity(Math.max(0, newStock)); // Prevent negative stock
-                productDao.updateProduct(product);
-            }
-        }
-    }
-
-    private void restoreProductStock(List<OrderItem> orderItems) {
-        for (OrderItem item : orderItems) {
-            Product product = productDao.getProductById(item.getProductId()).getValue();
-            if (product != null) {
-                int newStock = product.getStockQuantity() + item.getQuantity();
-                product.setStockQuantity(newStock);
-                productDao.updateProduct(product);
-            }
-        }
-    }
-
     // Order status constants
     public static final String STATUS_PENDING = "pending";
     public static final String STATUS_CONFIRMED = "confirmed";
@@ -0,0 +1,76 @@
+package com.example.oss.repository;
+
+import androidx.annotation.Nullable;
+import com.example.oss.dao.ProductDao;
+import com.example.oss.database.AppDatabase;
+import com.example.oss.entity.Product;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Danh sách sản phẩm tải theo trang bằng keyset cursor (sản phẩm cuối của trang trước),
+ * không dùng OFFSET nên mỗi trang chỉ đi một đoạn index, bất kể đã cuộn sâu bao nhiêu.
+ *
+ * Có thể ghép nhiều nguồn nối tiếp nhau (vd. tìm kiếm: khớp tên trước, chỉ khớp mô tả sau).
+ * Mỗi dòng kèm thống kê đánh giá; khi products hoặc product_rating_stats thay đổi thì nạp lại
+ * đúng số dòng đang hiển thị (xem {@link KeysetPager}).
+ * Mọi hàm public gọi trên main thread.
+ */
+public class ProductPager extends KeysetPager<ProductDao.RatedProduct, ProductPager.Position> {
+
+    public static final int PAGE_SIZE = 40;
+    // Còn cách cuối danh sách chừng này item thì tải trước trang kế tiếp
+    public static final int PREFETCH_DISTANCE = 20;
+
+    public interface PageSource {
+        /**
+         * Chạy trên background thread.
+         * @param last sản phẩm cuối đã tải từ nguồn này, null nếu là trang đầu
+         */
+        List<ProductDao.RatedProduct> loadAfter(@Nullable Product last, int limit);
+    }
+
+    // Cursor: đang ở nguồn nào và sản phẩm cuối đã tải từ nguồn đó
+    static final class Position {
+        final int sourceIndex;
+        final Product lastInSource;
+
+        Position(int sourceIndex, Product lastInSource) {
+            this.sourceIndex = sourceIndex;
+            this.lastInSource = lastInSource;
+        }
+    }
+
+    ProductPager(AppDatabase database, ExecutorService executor, List<PageSource> sources) {
+        super(database, executor, PAGE_SIZE, (after, limit) -> fetch(sources, after, limit),
+                "products", "product_rating_stats");
+    }
+
+    // Gọi từ scroll listener: tải thêm khi item cuối đang thấy đã gần cuối danh sách
+    public void onItemVisible(int position) {
+        if (position >= loadedCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+
+    // Background thread: lấy tối đa limit dòng, hết nguồn này thì chuyển sang nguồn kế tiếp
+    private static Page<ProductDao.RatedProduct, Position> fetch(List<PageSource> sources,
+            @Nullable Position after, int limit) {
+        List<ProductDao.RatedProduct> result = new ArrayList<>(limit);
+        int index = after != null ? after.sourceIndex : 0;
+        Product last = after != null ? after.lastInSource : null;
+        while (index < sources.size() && result.size() < limit) {
+            int want = limit - result.size();
+            List<ProductDao.RatedProduct> chunk = sources.get(index).loadAfter(last, want);
+            result.addAll(chunk);
+            if (chunk.size() < want) {
+                index++;
+                last = null;
+            } else {
+                last = chunk.get(chunk.size() - 1).product;
+            }
+        }
+        return new Page<>(result, new Position(index, last), index < sources.size());
+    }
+}
@@ -4,24 +4,31 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
 import com.example.oss.dao.ProductDao;
+import com.example.oss.dao.ProductSalesDao;
 import com.example.oss.entity.Product;
+import com.example.oss.util.FtsQueryBuilder;
 import com.example.oss.util.SearchFilter;
+import com.example.oss.util.AppExecutors;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class ProductRepository {
+    private AppDatabase database;
     private ProductDao productDao;
+    private ProductSalesDao productSalesDao;
     private LiveData<List<Product>> allProducts;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
 
-    public ProductRepository(Application application) {
-        AppDatabase database = AppDatabase.getDatabase(application);
+    ProductRepository(Application application) {
+        database = AppDatabase.getDatabase(application);
         productDao = database.productDao();
+        productSalesDao = database.productSalesDao();
         allProducts = productDao.getAllActiveProducts();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     public LiveData<List<Product>> getAllProducts() {
@@ -36,13 +43,76 @@ public class ProductRepository {
         return productDao.getProductById(id);
     }
 
+    // Đọc từ bộ đếm product_sales/product_weekly_sales (cập nhật khi đặt/hủy đơn), không GROUP BY order_items
+    public LiveData<List<ProductSalesDao.RankedProduct>> getBestSellers(int limit) {
+        return productSalesDao.getBestSellers(limit);
+    }
+
+    public LiveData<List<ProductSalesDao.RankedProduct>> getTrendingThisWeek(int limit) {
+        return productSalesDao.getTrendingThisWeek(limit);
+    }
+
+    public enum FeedOrder {
+        NAME, PRICE, NEWEST
+    }
+
+    // Feed trang chủ tải theo trang; caller phải gọi dispose() khi không dùng nữa
+    public ProductPager pageActiveProducts(FeedOrder order) {
+        ProductPager.PageSource source;
+        switch (order) {
+            case PRICE:
+                source = (last, limit) -> productDao.getActiveProductsPageByPrice(
+                        last != null ? last.getPrice() : BigDecimal.valueOf(-1),
+                        last != null ? last.getId() : 0, limit);
+                break;
+            case NEWEST:
+                source = (last, limit) -> productDao.getActiveProductsPageNewest(
+                        last != null ? last.getId() : Integer.MAX_VALUE, limit);
+                break;
+            default:
+                source = (last, limit) -> productDao.getActiveProductsPageByName(
+                        last != null ? last.getName() : "",
+                        last != null ? last.getId() : 0, limit);
+                break;
+        }
+        return new ProductPager(database, readExecutor, List.of(source));
+    }
+
+    public ProductPager pageProductsByCategory(int categoryId) {
+        return new ProductPager(database, readExecutor, List.of(
+                (last, limit) -> productDao.getCategoryProductsPageByName(categoryId,
+                        last != null ? last.getName() : "",
+                        last != null ? last.getId() : 0, limit)));
+    }
+
+    // Cùng thứ tự như searchProducts: khớp tên trước, chỉ khớp mô tả sau
+    public ProductPager pageSearchResults(String query) {
+        String matchQuery = FtsQueryBuilder.build(query);
+        if (matchQuery.isEmpty()) {
+            return pageActiveProducts(FeedOrder.NAME);
+        }
+        String nameMatchQuery = FtsQueryBuilder.buildForColumn(query, "search_name");
+        return new ProductPager(database, readExecutor, List.of(
+                (last, limit) -> productDao.searchNameMatchesPage(nameMatchQuery,
+                        last != null ? last.getName() : "",
+                        last != null ? last.getId() : 0, limit),
+                (last, limit) -> productDao.searchOtherMatchesPage(matchQuery, nameMatchQuery,
+                        last != null ? last.getName() : "",
+                        last != null ? last.getId() : 0, limit)));
+    }
+
+    // Tìm kiếm qua chỉ mục FTS, kết quả khớp tên được xếp trước kết quả chỉ khớp mô tả
     public LiveData<List<Product>> searchProducts(String query) {
-        return productDao.searchProducts(query);
+        String matchQuery = FtsQueryBuilder.build(query);
+        if (matchQuery.isEmpty()) {
+            return allProducts;
+        }
+        return productDao.searchProducts(matchQuery, FtsQueryBuilder.buildForColumn(query, "search_name"));
     }
 
     public LiveData<List<Product>> searchProductsWithCategory(String query, int categoryId) {
         return productDao.searchProductsAdvanced(
-                query,
+                FtsQueryBuilder.build(query),
                 List.of(categoryId),
                 BigDecimal.ZERO,
                 new BigDecimal("100000000"),
@@ -52,7 +122,7 @@ public class ProductRepository {
 
     public LiveData<List<Product>> searchProductsWithCategories(String query, List<Integer> categoryIds) {
         return productDao.searchProductsAdvanced(
-                query,
+                FtsQueryBuilder.build(query),
                 categoryIds,
                 BigDecimal.ZERO,
                 new BigDecimal("100000000"),
@@ -81,13 +151,6 @@ public class ProductRepository {
                     ", InStock: " + filterState.isInStockOnly() +
                     ", Sort: " + filterState.getSortOption().getValue());
 
-            // Debug: Test simple search first
-            if (!filterState.getSearchQuery().isEmpty()) {
-                android.util.Log.d("ProductRepository", "Testing simple search for: " + filterState.getSearchQuery());
-                LiveData<List<Product>> simpleResult = productDao.searchProducts(filterState.getSearchQuery());
-                // Log this result in observer
-            }
-
             // Try workaround for BigDecimal issues
             BigDecimal minPrice = filterState.getPriceRange().getMinPrice();
             BigDecimal maxPrice = filterState.getPriceRange().getMaxPrice();
@@ -97,13 +160,32 @@ public class ProductRepository {
                     " (type: " + minPrice.getClass().getSimpleName() + "), Max: " + maxPrice +
                     " (type: " + maxPrice.getClass().getSimpleName() + ")");
 
-            return productDao.searchProductsAdvanced(
-                    filterState.getSearchQuery(),
-                    categoryIds.isEmpty() ? null : categoryIds,
-                    minPrice,
-                    maxPrice,
-                    filterState.isInStockOnly(),
-                    filterState.getSortOption().getValue());
+            String matchQuery = FtsQueryBuilder.build(filterState.getNormalizedSearchQuery());
+
+            switch (filterState.getSortOption()) {
+                case PRICE_ASC:
+                    return productDao.searchProductsByPriceAsc(
+                            matchQuery,
+                            categoryIds.isEmpty() ? null : categoryIds,
+                            minPrice,
+                            maxPrice,
+                            filterState.isInStockOnly());
+                case PRICE_DESC:
+                    return productDao.searchProductsByPriceDesc(
+                            matchQuery,
+                            categoryIds.isEmpty() ? null : categoryIds,
+                            minPrice,
+                            maxPrice,
+                            filterState.isInStockOnly());
+                default:
+                    return productDao.searchProductsAdvanced(
+                            matchQuery,
+                            categoryIds.isEmpty() ? null : categoryIds,
+                            minPrice,
+                            maxPrice,
+                            filterState.isInStockOnly(),
+                            filterState.getSortOption().getValue());
+            }
         } catch (Exception e) {
             android.util.Log.e("ProductRepository", "Error in searchProductsAdvanced", e);
             // Return empty LiveData instead of crashing
@@ -120,9 +202,10 @@ public class ProductRepository {
     }
 
     public Future<SearchFilter.PriceRange> getPriceRangeForFilter(String searchQuery, List<Integer> categoryIds) {
-        return executor.submit(() -> {
-            BigDecimal minPrice = productDao.getMinPriceForFilter(searchQuery, categoryIds);
-            BigDecimal maxPrice = productDao.getMaxPriceForFilter(searchQuery, categoryIds);
+        return readExecutor.submit(() -> {
+            String matchQuery = FtsQueryBuilder.build(searchQuery);
+            BigDecimal minPrice = productDao.getMinPriceForFilter(matchQuery, categoryIds);
+            BigDecimal maxPrice = productDao.getMaxPriceForFilter(matchQuery, categoryIds);
 
             if (minPrice == null)
                 minPrice = BigDecimal.ZERO;
@@ -134,25 +217,29 @@ public class ProductRepository {
     }
 
     public void insertProduct(Product product) {
-        executor.execute(() -> productDao.insertProduct(product));
+        writeExecutor.execute(() -> productDao.insertProduct(product));
     }
 
     public void updateProduct(Product product) {
-        executor.execute(() -> productDao.updateProduct(product));
+        writeExecutor.execute(() -> productDao.updateProduct(product));
     }
 
     public void deleteProduct(Product product) {
-        executor.execute(() -> productDao.deleteProduct(product));
+        writeExecutor.execute(() -> productDao.deleteProduct(product));
     }
 
     // Debug methods
+    // Chỉ đọc: chạy trên pool đọc, không chiếm thread ghi duy nhất (checkout, flush giỏ hàng...)
     public void debugDatabaseState(String searchQuery) {
-        executor.execute(() -> {
+        readExecutor.execute(() -> {
             try {
                 int totalProducts = productDao.getTotalProductCount();
                 int activeProducts = productDao.getActiveProductCount();
                 android.util.Log.d("ProductRepository",
                         "Database state - Total: " + totalProducts + ", Active: " + activeProducts);
+                for (AppExecutors.PoolStats stats : AppExecutors.getInstance().getStats()) {
+                    android.util.Log.d("ProductRepository", "Executor " + stats);
+                }
 
                 if (!searchQuery.isEmpty()) {
                     List<Product> debugResults = productDao.debugSearchSync(searchQuery);
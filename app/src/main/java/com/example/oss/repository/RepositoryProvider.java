@@ -0,0 +1,132 @@
+package com.example.oss.repository;
+
+import android.app.Application;
+import android.content.Context;
+import com.example.oss.database.AppDatabase;
+import com.example.oss.util.AppExecutors;
+
+/**
+ * Giữ một instance duy nhất cho mỗi repository trong cả process.
+ * Repository chỉ được tạo khi có màn hình cần tới lần đầu; các ViewModel sau đó dùng lại,
+ * nên DAO, LiveData và cache bên trong repository được chia sẻ giữa các màn hình.
+ */
+public class RepositoryProvider {
+
+    private static volatile RepositoryProvider instance;
+
+    private final Application application;
+
+    private AddressRepository addressRepository;
+    private AdminProductRepository adminProductRepository;
+    private CartRepository cartRepository;
+    private CategoryRepository categoryRepository;
+    private OrderItemRepository orderItemRepository;
+    private OrderRepository orderRepository;
+    private ProductRepository productRepository;
+    private ReviewRepository reviewRepository;
+    private StatisticsRepository statisticsRepository;
+    private UserRepository userRepository;
+    private WishlistRepository wishlistRepository;
+    private MembershipIndex membershipIndex;
+
+    private RepositoryProvider(Application application) {
+        this.application = application;
+    }
+
+    public static RepositoryProvider getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RepositoryProvider.class) {
+                if (instance == null) {
+                    instance = new RepositoryProvider((Application) context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized AddressRepository getAddressRepository() {
+        if (addressRepository == null) {
+            addressRepository = new AddressRepository(application);
+        }
+        return addressRepository;
+    }
+
+    public synchronized AdminProductRepository getAdminProductRepository() {
+        if (adminProductRepository == null) {
+            adminProductRepository = new AdminProductRepository(application);
+        }
+        return adminProductRepository;
+    }
+
+    public synchronized CartRepository getCartRepository() {
+        if (cartRepository == null) {
+            cartRepository = new CartRepository(application, getMembershipIndex());
+        }
+        return cartRepository;
+    }
+
+    public synchronized CategoryRepository getCategoryRepository() {
+        if (categoryRepository == null) {
+            categoryRepository = new CategoryRepository(application);
+        }
+        return categoryRepository;
+    }
+
+    public synchronized OrderItemRepository getOrderItemRepository() {
+        if (orderItemRepository == null) {
+            orderItemRepository = new OrderItemRepository(application);
+        }
+        return orderItemRepository;
+    }
+
+    public synchronized OrderRepository getOrderRepository() {
+        if (orderRepository == null) {
+            orderRepository = new OrderRepository(application, getMembershipIndex());
+        }
+        return orderRepository;
+    }
+
+    public synchronized ProductRepository getProductRepository() {
+        if (productRepository == null) {
+            productRepository = new ProductRepository(application);
+        }
+        return productRepository;
+    }
+
+    public synchronized ReviewRepository getReviewRepository() {
+        if (reviewRepository == null) {
+            reviewRepository = new ReviewRepository(application);
+        }
+        return reviewRepository;
+    }
+
+    public synchronized StatisticsRepository getStatisticsRepository() {
+        if (statisticsRepository == null) {
+            statisticsRepository = new StatisticsRepository(application);
+        }
+        return statisticsRepository;
+    }
+
+    public synchronized UserRepository getUserRepository() {
+        if (userRepository == null) {
+            userRepository = new UserRepository(application);
+        }
+        return userRepository;
+    }
+
+    public synchronized WishlistRepository getWishlistRepository() {
+        if (wishlistRepository == null) {
+            wishlistRepository = new WishlistRepository(application, getMembershipIndex());
+        }
+        return wishlistRepository;
+    }
+
+    // Wishlist/giỏ hàng của user đang đăng nhập; các repository trên báo thay đổi vào đây
+    public synchronized MembershipIndex getMembershipIndex() {
+        if (membershipIndex == null) {
+            membershipIndex = new MembershipIndex(AppDatabase.getDatabase(application),
+                    AppExecutors.getInstance().diskRead());
+        }
+        return membershipIndex;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.oss.repository;
+
+import androidx.annotation.Nullable;
+import com.example.oss.dao.ReviewDao;
+import com.example.oss.database.AppDatabase;
+import com.example.oss.entity.Review;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Review của một sản phẩm kèm tên người viết, tải theo trang bằng keyset (created_at, id) của dòng cuối,
+ * mỗi trang là một query trên index (product_id, created_at).
+ *
+ * Khi reviews hoặc users thay đổi thì nạp lại đúng số dòng đang hiển thị (xem {@link KeysetPager}).
+ * Mọi hàm public gọi trên main thread.
+ */
+public class ReviewPager extends KeysetPager<ReviewDao.ReviewWithAuthor, Review> {
+
+    public static final int PAGE_SIZE = 20;
+
+    ReviewPager(AppDatabase database, ExecutorService executor, int productId) {
+        super(database, executor, PAGE_SIZE,
+                (after, limit) -> fetch(database.reviewDao(), productId, after, limit),
+                "reviews", "users");
+    }
+
+    // Background thread
+    private static Page<ReviewDao.ReviewWithAuthor, Review> fetch(ReviewDao reviewDao, int productId,
+            @Nullable Review after, int limit) {
+        long beforeCreatedAt = after != null ? after.getCreatedAt().getTime() : Long.MAX_VALUE;
+        int beforeId = after != null ? after.getId() : Integer.MAX_VALUE;
+        List<ReviewDao.ReviewWithAuthor> page =
+                reviewDao.getReviewsWithAuthorPage(productId, beforeCreatedAt, beforeId, limit);
+        Review last = page.isEmpty() ? null : page.get(page.size() - 1).review;
+        // Dòng cuối không có created_at thì không tạo được cursor cho trang sau
+        return new Page<>(page, last, page.size() == limit && last != null && last.getCreatedAt() != null);
+    }
+}
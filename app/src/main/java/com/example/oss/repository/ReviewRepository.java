@@ -3,25 +3,31 @@ package com.example.oss.repository;
 import android.app.Application;
 import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
+import com.example.oss.dao.ProductRatingStatsDao;
 import com.example.oss.dao.ReviewDao;
+import com.example.oss.entity.ProductRatingStats;
 import com.example.oss.entity.Review;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.Date;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class ReviewRepository {
     private ReviewDao reviewDao;
+    private ProductRatingStatsDao ratingStatsDao;
     private AppDatabase database;
     private LiveData<List<Review>> allReviews;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
 
-    public ReviewRepository(Application application) {
+    ReviewRepository(Application application) {
         database = AppDatabase.getDatabase(application);
         reviewDao = database.reviewDao();
+        ratingStatsDao = database.productRatingStatsDao();
         allReviews = reviewDao.getAllReviews();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
@@ -33,6 +39,11 @@ public class ReviewRepository {
         return reviewDao.getReviewsByProduct(productId);
     }
 
+    // Review kèm tên người viết, tải theo trang; caller phải gọi dispose() khi không dùng nữa
+    public ReviewPager pageReviewsWithAuthor(int productId) {
+        return new ReviewPager(database, readExecutor, productId);
+    }
+
     public LiveData<List<Review>> getReviewsByUser(int userId) {
         return reviewDao.getReviewsByUser(userId);
     }
@@ -41,33 +52,30 @@ public class ReviewRepository {
         return reviewDao.getReviewById(id);
     }
 
-    public LiveData<Double> getAverageRatingForProduct(int productId) {
-        return reviewDao.getAverageRatingForProduct(productId);
-    }
-
-    public LiveData<Integer> getReviewCountForProduct(int productId) {
-        return reviewDao.getReviewCountForProduct(productId);
+    // Số review, điểm trung bình và phân bố sao; đọc một dòng theo khóa chính thay vì AVG/COUNT trên reviews
+    public LiveData<ProductRatingStats> getRatingStats(int productId) {
+        return ratingStatsDao.getStatsForProduct(productId);
     }
 
     public Future<Review> getUserReviewForProduct(int userId, int productId) {
-        return executor.submit(() -> reviewDao.getUserReviewForProduct(userId, productId));
+        return readExecutor.submit(() -> reviewDao.getUserReviewForProduct(userId, productId));
     }
 
     // Write operations
     public void insertReview(Review review) {
-        executor.execute(() -> reviewDao.insertReview(review));
+        writeExecutor.execute(() -> reviewDao.insertReview(review));
     }
 
     public void updateReview(Review review) {
-        executor.execute(() -> reviewDao.updateReview(review));
+        writeExecutor.execute(() -> reviewDao.updateReview(review));
     }
 
     public void deleteReview(Review review) {
-        executor.execute(() -> reviewDao.deleteReview(review));
+        writeExecutor.execute(() -> reviewDao.deleteReview(review));
     }
 
     public void deleteReviewById(int reviewId) {
-        executor.execute(() -> reviewDao.deleteReviewById(reviewId));
+        writeExecutor.execute(() -> reviewDao.deleteReviewById(reviewId));
     }
 
     // Business logic methods
@@ -78,14 +86,14 @@ public class ReviewRepository {
     }
 
     public Future<Boolean> canUserReviewProduct(int userId, int productId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Review existingReview = reviewDao.getUserReviewForProduct(userId, productId);
             return existingReview == null; // User chỉ có thể review 1 lần cho mỗi sản phẩm
         });
     }
 
     public void updateReview(int reviewId, int rating, String comment) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             Review review = reviewDao.getReviewById(reviewId).getValue();
             if (review != null) {
                 review.setRating(rating);
@@ -96,7 +104,7 @@ public class ReviewRepository {
     }
 
     public Future<Boolean> hasUserPurchasedProduct(int userId, int productId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             try {
                 // Check if user has any delivered orders containing this product
                 return database.orderItemDao().hasUserPurchasedProduct(userId, productId) > 0;
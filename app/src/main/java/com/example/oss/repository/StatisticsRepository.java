@@ -0,0 +1,151 @@
+package com.example.oss.repository;
+
+import android.app.Application;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import com.example.oss.dao.ProductSalesDao;
+import com.example.oss.dao.SalesRollupDao;
+import com.example.oss.database.AppDatabase;
+import com.example.oss.entity.SalesRollup;
+import com.example.oss.util.AppExecutors;
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class StatisticsRepository {
+    private AppDatabase database;
+    private SalesRollupDao salesRollupDao;
+    private ProductSalesDao productSalesDao;
+    private ExecutorService readExecutor;
+
+    // Các khoảng thời gian màn thống kê cho chọn
+    public enum Range {
+        LAST_7_DAYS(SalesRollup.DAY, 7),
+        LAST_12_WEEKS(SalesRollup.WEEK, 12),
+        LAST_12_MONTHS(SalesRollup.MONTH, 12);
+
+        final String granularity;
+        final int periods;
+
+        Range(String granularity, int periods) {
+            this.granularity = granularity;
+            this.periods = periods;
+        }
+    }
+
+    StatisticsRepository(Application application) {
+        database = AppDatabase.getDatabase(application);
+        salesRollupDao = database.salesRollupDao();
+        productSalesDao = database.productSalesDao();
+        readExecutor = AppExecutors.getInstance().diskRead();
+    }
+
+    public LiveData<SalesRollupDao.SalesTotals> getSalesTotals() {
+        return salesRollupDao.getTotals();
+    }
+
+    // Đủ range.periods phần tử, cũ trước mới sau; kỳ không có đơn được điền 0
+    public LiveData<List<SalesRollup>> getSalesSeries(Range range) {
+        List<String> periods = periodStarts(range, Calendar.getInstance());
+        return Transformations.map(salesRollupDao.getRollupsSince(range.granularity, periods.get(0)),
+                rows -> fillGaps(range, periods, rows));
+    }
+
+    public LiveData<List<ProductSalesDao.RankedProduct>> getTopProducts(int limit) {
+        return productSalesDao.getBestSellers(limit);
+    }
+
+    public LiveData<List<ProductSalesDao.CategoryRevenue>> getCategoryLeaderboard(int limit) {
+        return productSalesDao.getCategoryLeaderboard(limit);
+    }
+
+    public Future<InventorySummary> getInventorySummary() {
+        return readExecutor.submit(() -> new InventorySummary(
+                database.productDao().getActiveProductCount(),
+                database.productDao().getTotalStockQuantity(),
+                database.userDao().getCustomerCountSync()));
+    }
+
+    // Ngày đầu của range.periods kỳ gần nhất, tính theo giờ máy giống trigger (date(..., 'localtime'))
+    static List<String> periodStarts(Range range, Calendar now) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+        Calendar calendar = (Calendar) now.clone();
+        calendar.set(Calendar.HOUR_OF_DAY, 12);
+        int field;
+        switch (range.granularity) {
+            case SalesRollup.WEEK:
+                int daysSinceMonday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+                calendar.add(Calendar.DAY_OF_MONTH, -daysSinceMonday);
+                field = Calendar.WEEK_OF_YEAR;
+                break;
+            case SalesRollup.MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                field = Calendar.MONTH;
+                break;
+            default:
+                field = Calendar.DAY_OF_MONTH;
+                break;
+        }
+        calendar.add(field, -(range.periods - 1));
+
+        List<String> periods = new ArrayList<>(range.periods);
+        for (int i = 0; i < range.periods; i++) {
+            periods.add(format.format(calendar.getTime()));
+            calendar.add(field, 1);
+        }
+        return periods;
+    }
+
+    private static List<SalesRollup> fillGaps(Range range, List<String> periods, List<SalesRollup> rows) {
+        Map<String, SalesRollup> byPeriod = new HashMap<>();
+        if (rows != null) {
+            for (SalesRollup row : rows) {
+                byPeriod.put(row.getPeriodStart(), row);
+            }
+        }
+        List<SalesRollup> series = new ArrayList<>(periods.size());
+        for (String period : periods) {
+            SalesRollup row = byPeriod.get(period);
+            if (row == null) {
+                row = SalesRollup.builder()
+                        .granularity(range.granularity)
+                        .periodStart(period)
+                        .revenue(BigDecimal.ZERO)
+                        .build();
+            }
+            series.add(row);
+        }
+        return series;
+    }
+
+    public static class InventorySummary {
+        private int productCount;
+        private int stockQuantity;
+        private int customerCount;
+
+        public InventorySummary(int productCount, int stockQuantity, int customerCount) {
+            this.productCount = productCount;
+            this.stockQuantity = stockQuantity;
+            this.customerCount = customerCount;
+        }
+
+        public int getProductCount() {
+            return productCount;
+        }
+
+        public int getStockQuantity() {
+            return stockQuantity;
+        }
+
+        public int getCustomerCount() {
+            return customerCount;
+        }
+    }
+}
@@ -9,23 +9,27 @@ import com.example.oss.entity.User;
 import java.util.List;
 import java.util.Date;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import com.example.oss.util.SecurityUtils;
 import com.example.oss.util.UserRole;
 import com.example.oss.util.UserStatus;
+import com.example.oss.util.AppExecutors;
 
 public class UserRepository {
     private UserDao userDao;
     private LiveData<List<User>> allUsers;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
+    private ExecutorService networkExecutor;
     private MutableLiveData<User> currentUser;
 
-    public UserRepository(Application application) {
+    UserRepository(Application application) {
         AppDatabase db = AppDatabase.getDatabase(application);
         userDao = db.userDao();
         allUsers = userDao.getAllUsers();
-        executor = Executors.newSingleThreadExecutor();
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
+        networkExecutor = AppExecutors.getInstance().network();
         currentUser = new MutableLiveData<>();
     }
 
@@ -44,7 +48,7 @@ public class UserRepository {
 
     // Authentication methods
     public Future<User> login(String email, String password) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             try {
                 User user = userDao.getUserByEmail(email);
                 if (user != null && SecurityUtils.verifyPassword(password, user.getPassword())) {
@@ -58,7 +62,7 @@ public class UserRepository {
     }
 
     public Future<Boolean> register(String fullName, String email, String password, String phoneNumber) {
-        return executor.submit(() -> {
+        return writeExecutor.submit(() -> {
             try {
                 // Hash password
                 String hashedPassword = SecurityUtils.hashPassword(password);
@@ -86,7 +90,7 @@ public class UserRepository {
     }
 
     public Future<Boolean> changePassword(int userId, String oldPassword, String newPassword) {
-        return executor.submit(() -> {
+        return writeExecutor.submit(() -> {
             User user = userDao.getUserById(userId).getValue();
             if (user != null && user.getPassword().equals(SecurityUtils.hashPassword(oldPassword))) {
                 user.setPassword(SecurityUtils.hashPassword(newPassword));
@@ -99,11 +103,11 @@ public class UserRepository {
 
     // Write operations
     public void insertUser(User user) {
-        executor.execute(() -> userDao.insertUser(user));
+        writeExecutor.execute(() -> userDao.insertUser(user));
     }
 
     public void updateUser(User user) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             userDao.updateUser(user);
             // Cập nhật current user nếu đang login
             if (currentUser.getValue() != null &&
@@ -114,12 +118,12 @@ public class UserRepository {
     }
 
     public void deleteUser(User user) {
-        executor.execute(() -> userDao.deleteUser(user));
+        writeExecutor.execute(() -> userDao.deleteUser(user));
     }
 
     // Business logic methods
     public void updateUserProfile(int userId, String fullName, String phoneNumber) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             User user = userDao.getUserById(userId).getValue();
             if (user != null) {
                 user.setFullName(fullName);
@@ -130,7 +134,7 @@ public class UserRepository {
     }
 
     public void changeUserStatus(int userId, String status) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             User user = userDao.getUserById(userId).getValue();
             if (user != null) {
                 user.setStatus(status);
@@ -151,14 +155,14 @@ public class UserRepository {
     // Synchronous method để get user by ID (cho validation)
     public User getUserByIdSync(int userId) {
         try {
-            return executor.submit(() -> userDao.getUserByIdSync(userId)).get();
+            return readExecutor.submit(() -> userDao.getUserByIdSync(userId)).get();
         } catch (Exception e) {
             return null;
         }
     }
 
     public void updateUserStatus(int userId, String newStatus) {
-        executor.execute(() -> userDao.updateUserStatus(userId, newStatus));
+        writeExecutor.execute(() -> userDao.updateUserStatus(userId, newStatus));
     }
 
     public boolean isEmailExists(String email) {
@@ -171,8 +175,9 @@ public class UserRepository {
     }
 
     // Reset password methods
+    // Chạy trên pool network vì phải chờ gửi mail; phần ghi DB vẫn đi qua writeExecutor
     public Future<Boolean> resetPassword(String email) {
-        return executor.submit(() -> {
+        return networkExecutor.submit(() -> {
             try {
                 // Kiểm tra email có tồn tại không
                 User user = userDao.getUserByEmail(email);
@@ -186,7 +191,7 @@ public class UserRepository {
                 // Hash mật khẩu mới và cập nhật trong database
                 String hashedPassword = SecurityUtils.hashPassword(newPassword);
                 user.setPassword(hashedPassword);
-                userDao.updateUser(user);
+                writeExecutor.submit(() -> userDao.updateUser(user)).get();
 
                 // Gửi email với mật khẩu mới
                 boolean emailSent = com.example.oss.util.MailGun.sendResetPasswordEmail(
@@ -209,7 +214,7 @@ public class UserRepository {
 
     // Method để lấy user theo email cho forgot password
     public Future<User> getUserByEmail(String email) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             try {
                 return userDao.getUserByEmail(email);
             } catch (Exception e) {
@@ -3,27 +3,31 @@ package com.example.oss.repository;
 import android.app.Application;
 import androidx.lifecycle.LiveData;
 import com.example.oss.database.AppDatabase;
+import com.example.oss.dao.ProductDao;
 import com.example.oss.dao.WishlistDao;
 import com.example.oss.entity.Wishlist;
-import com.example.oss.entity.Product;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.Date;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 public class WishlistRepository {
     private WishlistDao wishlistDao;
-    private ExecutorService executor;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
+    private MembershipIndex membershipIndex;
 
-    public WishlistRepository(Application application) {
+    WishlistRepository(Application application, MembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
         AppDatabase database = AppDatabase.getDatabase(application);
         wishlistDao = database.wishlistDao();
-        executor = Executors.newFixedThreadPool(2);
+        readExecutor = AppExecutors.getInstance().diskRead();
+        writeExecutor = AppExecutors.getInstance().diskWrite();
     }
 
     // Read operations
-    public LiveData<List<Product>> getWishlistProducts(int userId) {
+    public LiveData<List<ProductDao.RatedProduct>> getWishlistProducts(int userId) {
         return wishlistDao.getWishlistProducts(userId);
     }
 
@@ -40,57 +44,69 @@ public class WishlistRepository {
     }
 
     public Future<Wishlist> getWishlistItem(int userId, int productId) {
-        return executor.submit(() -> wishlistDao.getWishlistItem(userId, productId));
+        return readExecutor.submit(() -> wishlistDao.getWishlistItem(userId, productId));
     }
 
     // Write operations
     public void addToWishlist(int userId, int productId) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             Wishlist wishlist = new Wishlist(userId, productId);
             wishlist.setAddedAt(new Date());
             wishlistDao.addToWishlist(wishlist);
+            membershipIndex.setInWishlist(userId, productId, true);
         });
     }
 
     public void removeFromWishlist(int userId, int productId) {
-        executor.execute(() -> wishlistDao.removeFromWishlist(userId, productId));
+        writeExecutor.execute(() -> {
+            wishlistDao.removeFromWishlist(userId, productId);
+            membershipIndex.setInWishlist(userId, productId, false);
+        });
     }
 
     public void removeFromWishlist(Wishlist wishlist) {
-        executor.execute(() -> wishlistDao.removeFromWishlist(wishlist));
+        writeExecutor.execute(() -> {
+            wishlistDao.removeFromWishlist(wishlist);
+            membershipIndex.setInWishlist(wishlist.getUserId(), wishlist.getProductId(), false);
+        });
     }
 
     public void clearWishlist(int userId) {
-        executor.execute(() -> wishlistDao.clearWishlist(userId));
+        writeExecutor.execute(() -> {
+            wishlistDao.clearWishlist(userId);
+            membershipIndex.clearWishlist(userId);
+        });
     }
 
     // Business logic methods
     public Future<Boolean> toggleWishlist(int userId, int productId) {
-        return executor.submit(() -> {
+        return writeExecutor.submit(() -> {
             Wishlist existingItem = wishlistDao.getWishlistItem(userId, productId);
             if (existingItem != null) {
                 // Remove from wishlist
                 wishlistDao.removeFromWishlist(existingItem);
+                membershipIndex.setInWishlist(userId, productId, false);
                 return false; // Removed
             } else {
                 // Add to wishlist
                 Wishlist newItem = new Wishlist(userId, productId);
                 newItem.setAddedAt(new Date());
                 wishlistDao.addToWishlist(newItem);
+                membershipIndex.setInWishlist(userId, productId, true);
                 return true; // Added
             }
         });
     }
 
     public Future<Boolean> isWishlistEmpty(int userId) {
-        return executor.submit(() -> {
+        return readExecutor.submit(() -> {
             Integer count = wishlistDao.getWishlistCount(userId).getValue();
             return count == null || count == 0;
         });
     }
 
     public void moveAllToCart(int userId) {
-        executor.execute(() -> {
+        writeExecutor.execute(() -> {
             // TODO: Implement logic to move all wishlist items to cart
             // This would require integration with cart/order system
 
@@ -101,14 +117,6 @@ public class WishlistRepository {
 
     // Utility methods
     public Future<List<Integer>> getWishlistProductIds(int userId) {
-        return executor.submit(() -> {
-            List<Wishlist> wishlistItems = wishlistDao.getWishlistByUser(userId).getValue();
-            if (wishlistItems != null) {
-                return wishlistItems.stream()
-                        .map(Wishlist::getProductId)
-                        .collect(java.util.stream.Collectors.toList());
-            }
-            return new java.util.ArrayList<>();
-        });
+        return readExecutor.submit(() -> wishlistDao.getWishlistProductIdsSync(userId));
     }
 }
\ No newline at end of file
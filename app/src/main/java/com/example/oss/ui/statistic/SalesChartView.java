@@ -0,0 +1,86 @@
+package com.example.oss.ui.statistic;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import com.example.oss.R;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Biểu đồ cột doanh thu theo kỳ cho màn thống kê.
+ * Chỉ vẽ những gì đã được tính sẵn trong sales_rollups, không tự tính toán gì thêm.
+ */
+public class SalesChartView extends View {
+    private final Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint axisPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final List<String> labels = new ArrayList<>();
+    private final List<Long> values = new ArrayList<>();
+    private final float density;
+
+    public SalesChartView(Context context) {
+        this(context, null);
+    }
+
+    public SalesChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+        barPaint.setColor(ContextCompat.getColor(context, R.color.primary));
+        axisPaint.setColor(ContextCompat.getColor(context, R.color.outline));
+        axisPaint.setStrokeWidth(density);
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.on_surface_variant));
+        labelPaint.setTextSize(10 * getResources().getDisplayMetrics().scaledDensity);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    // labels và values cùng độ dài, theo thứ tự từ cũ đến mới
+    public void setData(List<String> newLabels, List<Long> newValues) {
+        labels.clear();
+        labels.addAll(newLabels);
+        values.clear();
+        values.addAll(newValues);
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int count = values.size();
+        if (count == 0) {
+            return;
+        }
+
+        float left = getPaddingLeft();
+        float right = getWidth() - getPaddingRight();
+        float labelHeight = labelPaint.getTextSize() + 4 * density;
+        float bottom = getHeight() - getPaddingBottom() - labelHeight;
+        float top = getPaddingTop();
+
+        long max = 0;
+        for (Long value : values) {
+            max = Math.max(max, value);
+        }
+
+        float slot = (right - left) / count;
+        float barWidth = slot * 0.6f;
+        // Nhãn dày quá thì chỉ vẽ cách quãng cho khỏi chồng lên nhau
+        int labelStep = Math.max(1, (int) Math.ceil(labelPaint.measureText("00/00") * 1.2f / slot));
+
+        for (int i = 0; i < count; i++) {
+            float centerX = left + slot * i + slot / 2;
+            if (max > 0 && values.get(i) > 0) {
+                float barTop = bottom - (bottom - top) * values.get(i) / max;
+                canvas.drawRect(centerX - barWidth / 2, barTop, centerX + barWidth / 2, bottom, barPaint);
+            }
+            if (i % labelStep == (count - 1) % labelStep && i < labels.size()) {
+                canvas.drawText(labels.get(i), centerX, getHeight() - getPaddingBottom() - 2 * density, labelPaint);
+            }
+        }
+        canvas.drawLine(left, bottom, right, bottom, axisPaint);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.oss.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Các thread pool dùng chung cho cả app, thay cho việc mỗi repository/ViewModel tự tạo pool riêng.
+ *
+ * - diskRead: đọc Room, vài thread chạy song song (WAL cho phép nhiều reader).
+ * - diskWrite: một thread duy nhất, ghi tuần tự nên không tranh khóa ghi của SQLite.
+ * - network: gọi HTTP (MailGun...).
+ *
+ * Task gửi vào pool từ chính một thread của pool đó được chạy luôn tại chỗ,
+ * nên code kiểu submit(...).get() bên trong một task không thể tự khóa chết pool.
+ *
+ * Chỉ diskRead có hàng đợi giới hạn: đầy thì thread nền tự chạy task (đọc không cần thứ tự),
+ * main thread thì chờ đến khi có chỗ. diskWrite và network không giới hạn hàng đợi, không bao giờ
+ * chạy task ở thread khác hay từ chối, nên mọi lần ghi vẫn tuần tự trên đúng một thread.
+ */
+public final class AppExecutors {
+
+    private static final String TAG = "AppExecutors";
+    private static final int READ_QUEUE_CAPACITY = 256;
+
+    private static volatile AppExecutors INSTANCE;
+
+    private final Pool diskRead;
+    private final Pool diskWrite;
+    private final Pool network;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        int readers = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        diskRead = new Pool("disk-read", readers, READ_QUEUE_CAPACITY);
+        diskWrite = new Pool("disk-write", 1, Integer.MAX_VALUE);
+        network = new Pool("network", 3, Integer.MAX_VALUE);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public ExecutorService diskRead() {
+        return diskRead;
+    }
+
+    public ExecutorService diskWrite() {
+        return diskWrite;
+    }
+
+    public ExecutorService network() {
+        return network;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    // Số liệu hiện tại của từng pool (diskRead, diskWrite, network) để soi hiệu năng
+    public PoolStats[] getStats() {
+        return new PoolStats[] { diskRead.getStats(), diskWrite.getStats(), network.getStats() };
+    }
+
+    public static final class PoolStats {
+        public final String name;
+        public final int activeThreads;
+        public final int queued;
+        public final long completed;
+        public final long rejected;
+        public final long avgWaitMs;
+        public final long maxWaitMs;
+        public final long avgRunMs;
+
+        PoolStats(String name, int activeThreads, int queued, long completed, long rejected,
+                long avgWaitMs, long maxWaitMs, long avgRunMs) {
+            this.name = name;
+            this.activeThreads = activeThreads;
+            this.queued = queued;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.avgRunMs = avgRunMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: active=%d queued=%d completed=%d rejected=%d wait(avg/max)=%d/%dms run(avg)=%dms",
+                    name, activeThreads, queued, completed, rejected, avgWaitMs, maxWaitMs, avgRunMs);
+        }
+    }
+
+    private static final class PoolThread extends Thread {
+        final Pool owner;
+
+        PoolThread(Pool owner, Runnable runnable, String name) {
+            super(runnable, name);
+            this.owner = owner;
+        }
+    }
+
+    // ThreadPoolExecutor đo thời gian chờ trong hàng đợi và thời gian chạy của từng task
+    private static final class Pool extends ThreadPoolExecutor {
+        private final String name;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+        private final ThreadLocal<Long> runStart = new ThreadLocal<>();
+
+        Pool(String name, int threads, int queueCapacity) {
+            super(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity));
+            this.name = name;
+            allowCoreThreadTimeOut(true);
+            setThreadFactory(new NamedThreadFactory(this, name));
+            // Hàng đợi không giới hạn thì chỉ bị từ chối sau shutdown, giữ AbortPolicy mặc định
+            if (queueCapacity != Integer.MAX_VALUE) {
+                setRejectedExecutionHandler(this::onQueueFull);
+            }
+        }
+
+        private void onQueueFull(Runnable task, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException(name + " is shut down");
+            }
+            rejected.incrementAndGet();
+            Log.w(TAG, name + " queue full, " + getStats());
+            if (Looper.myLooper() != Looper.getMainLooper()) {
+                task.run();
+                return;
+            }
+            // Không được chạy Room trên main thread: chờ chỗ trống, các reader sẽ rút hàng đợi rất nhanh
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    pool.getQueue().put(task);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            Thread current = Thread.currentThread();
+            if (current instanceof PoolThread && ((PoolThread) current).owner == this) {
+                command.run();
+                return;
+            }
+            super.execute(new TimedTask(command));
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable task) {
+            super.beforeExecute(thread, task);
+            long now = System.nanoTime();
+            if (task instanceof TimedTask) {
+                long wait = now - ((TimedTask) task).enqueuedAt;
+                totalWaitNanos.addAndGet(wait);
+                maxWaitNanos.accumulateAndGet(wait, Math::max);
+            }
+            runStart.set(now);
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable throwable) {
+            super.afterExecute(task, throwable);
+            Long start = runStart.get();
+            if (start != null) {
+                totalRunNanos.addAndGet(System.nanoTime() - start);
+            }
+            completed.incrementAndGet();
+            if (throwable != null) {
+                Log.e(TAG, name + " task failed", throwable);
+            }
+        }
+
+        PoolStats getStats() {
+            long done = completed.get();
+            long avgWait = done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / done);
+            long avgRun = done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRunNanos.get() / done);
+            return new PoolStats(name, getActiveCount(), getQueue().size(), done, rejected.get(),
+                    avgWait, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()), avgRun);
+        }
+    }
+
+    private static final class TimedTask implements Runnable {
+        final Runnable delegate;
+        final long enqueuedAt = System.nanoTime();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final Pool owner;
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(Pool owner, String prefix) {
+            this.owner = owner;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new PoolThread(owner, runnable, prefix + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
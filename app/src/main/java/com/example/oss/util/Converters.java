@@ -2,6 +2,7 @@ package com.example.oss.util;
 
 import androidx.room.TypeConverter;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Date;
 
 public class Converters {
@@ -15,13 +16,15 @@ public class Converters {
         return date == null ? null : date.getTime();
     }
 
+    // Tiền được lưu dưới dạng INTEGER (đơn vị đồng) để SQLite so sánh/sắp xếp
+    // theo số và dùng được index, thay vì TEXT như trước
     @TypeConverter
-    public static BigDecimal fromString(String value) {
-        return value == null ? null : new BigDecimal(value);
+    public static BigDecimal fromMinorUnits(Long value) {
+        return value == null ? null : BigDecimal.valueOf(value);
     }
 
     @TypeConverter
-    public static String bigDecimalToString(BigDecimal bigDecimal) {
-        return bigDecimal == null ? null : bigDecimal.toString();
+    public static Long bigDecimalToMinorUnits(BigDecimal bigDecimal) {
+        return bigDecimal == null ? null : bigDecimal.setScale(0, RoundingMode.HALF_UP).longValueExact();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.example.oss.util;
+
+/**
+ * Chuyển chuỗi người dùng gõ thành biểu thức MATCH cho bảng products_fts.
+ * Chuỗi được bỏ dấu trước (giống khóa search_name/search_description trong DB),
+ * mỗi từ thành một prefix term ("Áo thun" -> "ao* thun*"), các term được AND với nhau.
+ */
+public final class FtsQueryBuilder {
+
+    private FtsQueryBuilder() {
+    }
+
+    /**
+     * Biểu thức MATCH trên mọi cột. Trả về "" nếu không còn từ nào hợp lệ.
+     */
+    public static String build(String rawQuery) {
+        return build(rawQuery, null);
+    }
+
+    /**
+     * Biểu thức MATCH chỉ trên một cột, dùng để xếp hạng kết quả khớp tên lên trước.
+     */
+    public static String buildForColumn(String rawQuery, String column) {
+        return build(rawQuery, column);
+    }
+
+    private static String build(String rawQuery, String column) {
+        String folded = SearchNormalizer.fold(rawQuery);
+        if (folded.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0, n = folded.length(); i <= n; i++) {
+            char c = i < n ? folded.charAt(i) : ' ';
+            // Bỏ các ký tự đặc biệt của cú pháp FTS (", *, -, :, ^, ngoặc...)
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                if (column != null) {
+                    sb.append(column).append(':');
+                }
+                sb.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return sb.toString();
+    }
+}
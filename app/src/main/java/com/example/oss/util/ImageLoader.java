@@ -1,13 +1,56 @@
 package com.example.oss.util;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.widget.ImageView;
+import com.squareup.picasso.LruCache;
 import com.squareup.picasso.Picasso;
 import com.squareup.picasso.Callback;
 import com.example.oss.R;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ImageLoader {
 
+    // Cache ảnh đã tải trên đĩa, OkHttp tự xóa ảnh ít dùng nhất khi vượt giới hạn
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+    // Phần bộ nhớ heap của app dành cho bitmap đã decode
+    private static final int MEMORY_CACHE_FRACTION = 6;
+    // Mọi request ảnh sản phẩm mang tag này để tạm dừng khi fling (xem ImagePrefetchScrollListener)
+    private static final Object PRODUCT_TAG = new Object();
+
+    private static final String DRAWABLE_SCHEME = "drawable://";
+
+    private static volatile Picasso picasso;
+    // Tham chiếu ảnh local (URL drawable:// hoặc tên icon) -> resource id, 0 nếu không có.
+    // Id chỉ cố định trong một bản build nên chỉ cache trong bộ nhớ, không lưu vào database.
+    private static final Map<String, Integer> drawableIds = new ConcurrentHashMap<>();
+
+    /**
+     * Picasso dùng chung: memory LRU theo memory class của máy, cache đĩa có giới hạn qua OkHttp.
+     * Ảnh luôn được load với kích thước view (fit/resize) nên Picasso decode với inSampleSize,
+     * không giữ bitmap full-size trong bộ nhớ.
+     */
+    private static Picasso picasso(Context context) {
+        if (picasso == null) {
+            synchronized (ImageLoader.class) {
+                if (picasso == null) {
+                    Context appContext = context.getApplicationContext();
+                    ActivityManager activityManager =
+                            (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+                    int memoryCacheBytes = activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_FRACTION;
+                    picasso = new Picasso.Builder(appContext)
+                            .memoryCache(new LruCache(memoryCacheBytes))
+                            .downloader(new OkHttpImageDownloader(
+                                    new File(appContext.getCacheDir(), "product-images"), DISK_CACHE_BYTES))
+                            .build();
+                }
+            }
+        }
+        return picasso;
+    }
+
     /**
      * Load ảnh sản phẩm với fallback
      */
@@ -19,9 +62,8 @@ public class ImageLoader {
         }
 
         // Nếu là drawable resource (local image)
-        if (imageUrl.startsWith("drawable://")) {
-            String resourceName = imageUrl.replace("drawable://", "");
-            int resourceId = getDrawableResourceId(context, resourceName);
+        if (imageUrl.startsWith(DRAWABLE_SCHEME)) {
+            int resourceId = getDrawableResourceId(context, imageUrl);
             if (resourceId != 0) {
                 imageView.setImageResource(resourceId);
                 return;
@@ -29,8 +71,9 @@ public class ImageLoader {
         }
 
         // Load ảnh từ URL với Picasso
-        Picasso.with(context)
+        picasso(context)
                 .load(imageUrl)
+                .tag(PRODUCT_TAG)
                 .placeholder(R.drawable.ic_image_placeholder) // Hiển thị khi đang load
                 .error(R.drawable.ic_image_placeholder) // Hiển thị khi load lỗi
                 .fit()
@@ -68,27 +111,54 @@ public class ImageLoader {
     }
 
     /**
-     * Get drawable resource ID từ tên
+     * Get drawable resource ID từ tên (hoặc URL drawable://tên). getIdentifier là tra cứu
+     * theo chuỗi qua reflection nên chỉ gọi một lần cho mỗi tên, các lần bind sau chỉ tra map
      */
-    private static int getDrawableResourceId(Context context, String resourceName) {
+    private static int getDrawableResourceId(Context context, String reference) {
+        Integer cached = drawableIds.get(reference);
+        if (cached != null) {
+            return cached;
+        }
+        String resourceName = reference.startsWith(DRAWABLE_SCHEME)
+                ? reference.substring(DRAWABLE_SCHEME.length())
+                : reference;
+        int resourceId;
         try {
-            return context.getResources().getIdentifier(
+            resourceId = context.getResources().getIdentifier(
                     resourceName,
                     "drawable",
                     context.getPackageName());
         } catch (Exception e) {
-            return 0;
+            resourceId = 0;
         }
+        drawableIds.put(reference, resourceId);
+        return resourceId;
     }
 
     /**
-     * Preload ảnh để cache
+     * Preload ảnh để cache, decode sẵn đúng kích thước ô (width x height) nên trùng key
+     * với lần loadProductImage sau đó và lấy thẳng từ memory cache
      */
-    public static void preloadImage(Context context, String imageUrl) {
-        if (imageUrl != null && !imageUrl.isEmpty() && imageUrl.startsWith("http")) {
-            Picasso.with(context)
+    public static void preloadImage(Context context, String imageUrl, int width, int height) {
+        if (imageUrl != null && imageUrl.startsWith("http") && width > 0 && height > 0) {
+            picasso(context)
                     .load(imageUrl)
+                    .tag(PRODUCT_TAG)
+                    .resize(width, height)
+                    .centerCrop()
+                    .priority(Picasso.Priority.LOW)
                     .fetch(); // Chỉ download không hiển thị
         }
     }
+
+    /**
+     * Tạm dừng các request ảnh sản phẩm (đang fling), request mới được xếp hàng chờ
+     */
+    public static void pauseRequests(Context context) {
+        picasso(context).pauseTag(PRODUCT_TAG);
+    }
+
+    public static void resumeRequests(Context context) {
+        picasso(context).resumeTag(PRODUCT_TAG);
+    }
 }
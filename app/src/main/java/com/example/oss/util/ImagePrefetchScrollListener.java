@@ -0,0 +1,179 @@
+package com.example.oss.util;
+
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Cho lưới sản phẩm: tạm dừng tải ảnh khi fling (các ô chỉ lướt qua), chạy tiếp khi dừng/kéo tay,
+ * và khi cuộn xuống thì tải trước ảnh của khoảng một màn hình kế tiếp, đúng kích thước ô.
+ * Dùng được cho cả GridLayoutManager (là LinearLayoutManager).
+ * Khi danh sách của adapter bị thay đổi phía trên cửa sổ đã preload thì cửa sổ đó được bỏ,
+ * vì các vị trí cũ không còn ứng với cùng sản phẩm.
+ */
+public class ImagePrefetchScrollListener extends RecyclerView.OnScrollListener
+        implements View.OnAttachStateChangeListener {
+
+    public interface ImageUrlProvider {
+        // null nếu vị trí không có ảnh cần tải
+        String getImageUrl(int position);
+    }
+
+    private final LinearLayoutManager layoutManager;
+    private final ImageUrlProvider provider;
+    private final int imageViewId;
+    private boolean paused = false;
+    private boolean attachListenerAdded = false;
+    private boolean scrollingDown = false;
+    // Các vị trí [prefetchedFrom, prefetchedUntil] đã gửi preload
+    private int prefetchedFrom = RecyclerView.NO_POSITION;
+    private int prefetchedUntil = RecyclerView.NO_POSITION;
+    // Adapter đang theo dõi để bỏ cửa sổ preload khi danh sách đổi; đăng ký ở lần preload đầu tiên
+    private RecyclerView.Adapter<?> observedAdapter;
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            resetPrefetchWindow();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            onPositionsShifted(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            onPositionsShifted(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onPositionsShifted(Math.min(fromPosition, toPosition));
+        }
+    };
+
+    public ImagePrefetchScrollListener(LinearLayoutManager layoutManager, ImageUrlProvider provider,
+            int imageViewId) {
+        this.layoutManager = layoutManager;
+        this.provider = provider;
+        this.imageViewId = imageViewId;
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (!attachListenerAdded) {
+            // View bị gỡ giữa lúc fling thì phải resume, nếu không mọi ảnh sản phẩm sau đó đều bị treo
+            recyclerView.addOnAttachStateChangeListener(this);
+            attachListenerAdded = true;
+        }
+        if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+            setPaused(recyclerView, true);
+        } else {
+            setPaused(recyclerView, false);
+            // Trong lúc fling không preload, dừng lại thì bù cho màn hình kế tiếp
+            if (newState == RecyclerView.SCROLL_STATE_IDLE && scrollingDown) {
+                prefetchNextScreen(recyclerView);
+            }
+        }
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy == 0) {
+            return;
+        }
+        scrollingDown = dy > 0;
+        if (scrollingDown && !paused) {
+            prefetchNextScreen(recyclerView);
+        }
+    }
+
+    private void prefetchNextScreen(RecyclerView recyclerView) {
+        observeAdapter(recyclerView.getAdapter());
+        int firstVisible = layoutManager.findFirstVisibleItemPosition();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (firstVisible == RecyclerView.NO_POSITION || lastVisible == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int from = lastVisible + 1;
+        int until = Math.min(lastVisible + (lastVisible - firstVisible + 1), layoutManager.getItemCount() - 1);
+        if (from > until) {
+            return;
+        }
+        if (from >= prefetchedFrom && until <= prefetchedUntil) {
+            return;
+        }
+
+        View imageView = findVisibleImageView(recyclerView);
+        if (imageView == null || imageView.getWidth() == 0 || imageView.getHeight() == 0) {
+            return;
+        }
+        // Chỉ gửi phần chưa preload khi cửa sổ trượt tiếp xuống
+        int start = from >= prefetchedFrom && from <= prefetchedUntil ? prefetchedUntil + 1 : from;
+        for (int position = start; position <= until; position++) {
+            ImageLoader.preloadImage(recyclerView.getContext(), provider.getImageUrl(position),
+                    imageView.getWidth(), imageView.getHeight());
+        }
+        prefetchedFrom = from;
+        prefetchedUntil = until;
+    }
+
+    private void observeAdapter(RecyclerView.Adapter<?> adapter) {
+        if (adapter == observedAdapter) {
+            return;
+        }
+        if (observedAdapter != null) {
+            observedAdapter.unregisterAdapterDataObserver(dataObserver);
+        }
+        observedAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(dataObserver);
+        }
+        resetPrefetchWindow();
+    }
+
+    // Nối thêm trang phía sau cửa sổ thì các vị trí đã preload vẫn đúng, không cần bỏ
+    private void onPositionsShifted(int positionStart) {
+        if (positionStart <= prefetchedUntil) {
+            resetPrefetchWindow();
+        }
+    }
+
+    private void resetPrefetchWindow() {
+        prefetchedFrom = RecyclerView.NO_POSITION;
+        prefetchedUntil = RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull View view) {
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull View view) {
+        setPaused(view, false);
+    }
+
+    private void setPaused(View view, boolean pause) {
+        if (paused == pause) {
+            return;
+        }
+        paused = pause;
+        if (pause) {
+            ImageLoader.pauseRequests(view.getContext());
+        } else {
+            ImageLoader.resumeRequests(view.getContext());
+        }
+    }
+
+    // Ô đang hiển thị nào cũng có cùng kích thước ảnh, lấy làm kích thước decode cho preload
+    private View findVisibleImageView(RecyclerView recyclerView) {
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            View imageView = recyclerView.getChildAt(i).findViewById(imageViewId);
+            if (imageView != null) {
+                return imageView;
+            }
+        }
+        return null;
+    }
+}
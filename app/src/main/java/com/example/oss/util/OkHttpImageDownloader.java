@@ -0,0 +1,80 @@
+package com.example.oss.util;
+
+import android.net.Uri;
+import com.squareup.picasso.Downloader;
+import com.squareup.picasso.NetworkPolicy;
+import java.io.File;
+import java.io.IOException;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+
+/**
+ * Downloader cho Picasso 2.5.2 chạy trên OkHttp 3 (Picasso chỉ có sẵn bản cho OkHttp 2),
+ * với cache đĩa LRU có giới hạn dung lượng.
+ */
+final class OkHttpImageDownloader implements Downloader {
+
+    // Server ảnh không gửi header cache thì vẫn giữ ảnh trên đĩa một tuần
+    private static final String DEFAULT_CACHE_CONTROL = "public, max-age=604800";
+
+    private final Cache cache;
+    private final OkHttpClient client;
+
+    OkHttpImageDownloader(File cacheDir, long maxSizeBytes) {
+        this.cache = new Cache(cacheDir, maxSizeBytes);
+        this.client = new OkHttpClient.Builder()
+                .cache(cache)
+                .addNetworkInterceptor(chain -> {
+                    okhttp3.Response response = chain.proceed(chain.request());
+                    if (response.header("Cache-Control") != null || response.header("Expires") != null) {
+                        return response;
+                    }
+                    return response.newBuilder()
+                            .header("Cache-Control", DEFAULT_CACHE_CONTROL)
+                            .build();
+                })
+                .build();
+    }
+
+    @Override
+    public Response load(Uri uri, int networkPolicy) throws IOException {
+        Request.Builder request = new Request.Builder().url(uri.toString());
+        if (networkPolicy != 0) {
+            if (NetworkPolicy.isOfflineOnly(networkPolicy)) {
+                request.cacheControl(CacheControl.FORCE_CACHE);
+            } else {
+                CacheControl.Builder cacheControl = new CacheControl.Builder();
+                if (!NetworkPolicy.shouldReadFromDiskCache(networkPolicy)) {
+                    cacheControl.noCache();
+                }
+                if (!NetworkPolicy.shouldWriteToDiskCache(networkPolicy)) {
+                    cacheControl.noStore();
+                }
+                request.cacheControl(cacheControl.build());
+            }
+        }
+
+        okhttp3.Response response = client.newCall(request.build()).execute();
+        ResponseBody body = response.body();
+        if (!response.isSuccessful()) {
+            if (body != null) {
+                body.close();
+            }
+            throw new ResponseException(response.code() + " " + response.message(), networkPolicy, response.code());
+        }
+        boolean fromCache = response.cacheResponse() != null;
+        return new Response(body.byteStream(), fromCache, body.contentLength());
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            cache.close();
+        } catch (IOException ignored) {
+            // Cache đĩa đóng lỗi không ảnh hưởng gì khi đã shutdown
+        }
+    }
+}
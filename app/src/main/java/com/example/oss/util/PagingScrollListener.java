@@ -0,0 +1,35 @@
+package com.example.oss.util;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Báo vị trí item cuối đang thấy mỗi khi cuộn xuống, để ProductPager tải trước trang kế tiếp.
+ * Dùng được cho cả GridLayoutManager (là LinearLayoutManager).
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+
+    public interface OnLastVisibleListener {
+        void onLastVisible(int position);
+    }
+
+    private final LinearLayoutManager layoutManager;
+    private final OnLastVisibleListener listener;
+
+    public PagingScrollListener(LinearLayoutManager layoutManager, OnLastVisibleListener listener) {
+        this.layoutManager = layoutManager;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0) {
+            return;
+        }
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible != RecyclerView.NO_POSITION) {
+            listener.onLastVisible(lastVisible);
+        }
+    }
+}
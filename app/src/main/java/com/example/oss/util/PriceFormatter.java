@@ -0,0 +1,88 @@
+package com.example.oss.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Định dạng giá VND dạng "1.250.000₫" cho mọi màn hình.
+ *
+ * VND không có phần lẻ nên giá được làm tròn về số đồng (long) rồi tự chèn dấu chấm
+ * phân cách hàng nghìn, không tạo NumberFormat/Locale mỗi lần bind. Mỗi thread giữ
+ * buffer và một cache nhỏ các chuỗi đã định dạng (ghi đè theo slot, không bao giờ lớn thêm),
+ * nên cuộn nhanh qua các giá lặp lại không cấp phát gì.
+ */
+public final class PriceFormatter {
+
+    private static final String CURRENCY_SUFFIX = "₫";
+    private static final char GROUPING_SEPARATOR = '.';
+    // Lũy thừa của 2 để lấy slot bằng phép dịch bit
+    private static final int CACHE_BITS = 8;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private PriceFormatter() {
+    }
+
+    // null hiển thị như 0₫
+    public static String format(BigDecimal amount) {
+        if (amount == null) {
+            return format(0L);
+        }
+        if (amount.scale() > 0) {
+            amount = amount.setScale(0, RoundingMode.HALF_EVEN);
+        }
+        return format(amount.longValue());
+    }
+
+    public static String format(double amount) {
+        return format((long) Math.rint(amount));
+    }
+
+    public static String format(long amount) {
+        return STATE.get().format(amount);
+    }
+
+    private static final class State {
+        private static final int CACHE_SIZE = 1 << CACHE_BITS;
+
+        private final long[] keys = new long[CACHE_SIZE];
+        private final String[] values = new String[CACHE_SIZE];
+        // Đủ cho Long.MIN_VALUE: 19 chữ số, 6 dấu chấm, dấu trừ
+        private final char[] buffer = new char[32];
+
+        String format(long amount) {
+            // Giá thường là bội của 1000, nhân với hằng số Fibonacci để trải đều các slot
+            int slot = (int) ((amount * 0x9E3779B97F4A7C15L) >>> (64 - CACHE_BITS));
+            String cached = values[slot];
+            if (cached != null && keys[slot] == amount) {
+                return cached;
+            }
+            String formatted = build(amount);
+            keys[slot] = amount;
+            values[slot] = formatted;
+            return formatted;
+        }
+
+        // Tính trên số âm để Long.MIN_VALUE không bị tràn khi đổi dấu
+        private String build(long amount) {
+            long remaining = amount > 0 ? -amount : amount;
+            int position = buffer.length;
+            int digits = 0;
+            do {
+                if (digits > 0 && digits % 3 == 0) {
+                    buffer[--position] = GROUPING_SEPARATOR;
+                }
+                buffer[--position] = (char) ('0' - (remaining % 10));
+                remaining /= 10;
+                digits++;
+            } while (remaining != 0);
+            if (amount < 0) {
+                buffer[--position] = '-';
+            }
+            return new StringBuilder(buffer.length - position + CURRENCY_SUFFIX.length())
+                    .append(buffer, position, buffer.length - position)
+                    .append(CURRENCY_SUFFIX)
+                    .toString();
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.example.oss.entity.*;
 import com.example.oss.dao.*;
 import java.math.BigDecimal;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import com.example.oss.dao.AddressDao;
 import com.example.oss.dao.OrderDao;
 import com.example.oss.dao.OrderItemDao;
@@ -38,7 +37,7 @@ public class SampleDataManager {
                 this.context = context.getApplicationContext();
                 this.database = AppDatabase.getDatabase(context);
                 this.preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-                this.executor = Executors.newSingleThreadExecutor();
+                this.executor = AppExecutors.getInstance().diskWrite();
         }
 
         public void initializeSampleData() {
@@ -505,6 +504,12 @@ public class SampleDataManager {
                                                                                                             // boxing
                         orderItemDao.insertOrderItem(item4_1);
 
+                        // Đơn mẫu không đi qua CheckoutDao.placeOrder nên tự cộng vào bộ đếm bán hàng
+                        CheckoutDao checkoutDao = database.checkoutDao();
+                        for (long orderId : new long[] { orderId1, orderId2, orderId3, orderId4 }) {
+                                checkoutDao.recordSales((int) orderId, 1);
+                        }
+
                         Log.d("SampleDataManager", "Sample orders inserted successfully");
                 } catch (Exception e) {
                         Log.e("SampleDataManager", "Error inserting sample orders", e);
@@ -91,6 +91,7 @@ public class SearchFilter {
     // Complete Filter State
     public static class FilterState {
         private String searchQuery = "";
+        private String normalizedSearchQuery = "";
         private Set<Integer> categoryIds = new HashSet<>();
         private PriceRange priceRange = new PriceRange();
         private SortOption sortOption = SortOption.NAME_ASC;
@@ -106,6 +107,12 @@ public class SearchFilter {
 
         public void setSearchQuery(String searchQuery) {
             this.searchQuery = searchQuery != null ? searchQuery : "";
+            this.normalizedSearchQuery = SearchNormalizer.fold(this.searchQuery);
+        }
+
+        // Chuỗi đã bỏ dấu, dùng để query; searchQuery giữ nguyên để hiển thị
+        public String getNormalizedSearchQuery() {
+            return normalizedSearchQuery;
         }
 
         public Set<Integer> getCategoryIds() {
@@ -0,0 +1,33 @@
+package com.example.oss.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa chuỗi tiếng Việt để tìm kiếm không phân biệt dấu:
+ * "Áo Thun Đẹp" -> "ao thun dep".
+ * Dùng chung cho khóa tìm kiếm lưu trong DB và cho chuỗi người dùng gõ.
+ */
+public final class SearchNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchNormalizer() {
+    }
+
+    public static String fold(String input) {
+        if (input == null || input.isEmpty()) {
+            return "";
+        }
+
+        // NFD tách dấu thanh/dấu mũ thành ký tự kết hợp rồi bỏ đi;
+        // riêng đ/Đ là chữ cái độc lập nên phải thay tay
+        String decomposed = Normalizer.normalize(input, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return NON_WORD.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -7,6 +7,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.example.oss.entity.Address;
 import com.example.oss.repository.AddressRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
 import java.util.List;
 
@@ -20,7 +21,7 @@ public class AddressViewModel extends AndroidViewModel {
 
     public AddressViewModel(@NonNull Application application) {
         super(application);
-        addressRepository = new AddressRepository(application);
+        addressRepository = RepositoryProvider.getInstance(application).getAddressRepository();
         sessionManager = SessionManager.getInstance(application);
     }
 
@@ -9,20 +9,17 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.oss.entity.Product;
 import com.example.oss.repository.AdminProductRepository;
+import com.example.oss.repository.RepositoryProvider;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AdminProductViewModel extends AndroidViewModel {
     private final AdminProductRepository adminProductRepository;
-    private final ExecutorService executor;
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
 
     public AdminProductViewModel(@NonNull Application application) {
         super(application);
-        adminProductRepository = new AdminProductRepository(application);
-        executor = Executors.newSingleThreadExecutor();
+        adminProductRepository = RepositoryProvider.getInstance(application).getAdminProductRepository();
     }
 
     public LiveData<List<Product>> getAllProducts() {
@@ -42,15 +39,15 @@ public class AdminProductViewModel extends AndroidViewModel {
     }
 
     public void insertProduct(Product product) {
-        executor.execute(() -> adminProductRepository.insertProduct(product));
+        adminProductRepository.insertProduct(product);
     }
 
     public void updateProduct(Product product) {
-        executor.execute(() -> adminProductRepository.updateProduct(product));
+        adminProductRepository.updateProduct(product);
     }
 
     public void deleteProduct(Product product) {
-        executor.execute(() -> adminProductRepository.deleteProduct(product));
+        adminProductRepository.deleteProduct(product);
     }
 
     public MutableLiveData<String> getErrorMessage() {
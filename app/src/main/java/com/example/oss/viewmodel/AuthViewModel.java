@@ -5,14 +5,15 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.LiveData;
 import com.example.oss.repository.UserRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.entity.User;
 import com.example.oss.util.SecurityUtils;
 import com.example.oss.util.SessionManager;
 import com.example.oss.util.UserRole;
 import com.example.oss.util.UserStatus;
+import com.example.oss.util.AppExecutors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import androidx.annotation.NonNull;
 
 public class AuthViewModel extends AndroidViewModel {
@@ -69,9 +70,9 @@ public class AuthViewModel extends AndroidViewModel {
 
     public AuthViewModel(@NonNull Application application) {
         super(application);
-        userRepository = new UserRepository(application);
+        userRepository = RepositoryProvider.getInstance(application).getUserRepository();
         sessionManager = SessionManager.getInstance(application);
-        executor = Executors.newSingleThreadExecutor();
+        executor = AppExecutors.getInstance().diskRead();
 
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>();
@@ -127,7 +128,7 @@ public class AuthViewModel extends AndroidViewModel {
 
         Future<User> loginFuture = userRepository.login(email, password);
 
-        new Thread(() -> {
+        executor.execute(() -> {
             try {
                 User user = loginFuture.get();
                 isLoading.postValue(false);
@@ -162,7 +163,7 @@ public class AuthViewModel extends AndroidViewModel {
                 errorMessage.postValue(message);
                 loginResult.postValue(new LoginResult(false, message));
             }
-        }).start();
+        });
     }
 
     // Register method
@@ -177,7 +178,7 @@ public class AuthViewModel extends AndroidViewModel {
 
         Future<Boolean> registerFuture = userRepository.register(fullName, email, password, phoneNumber);
 
-        new Thread(() -> {
+        executor.execute(() -> {
             try {
                 Boolean success = registerFuture.get();
                 isLoading.postValue(false);
@@ -191,12 +192,14 @@ public class AuthViewModel extends AndroidViewModel {
                 isLoading.postValue(false);
                 errorMessage.postValue("Lỗi đăng ký: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     // Logout method
     public void logout() {
         sessionManager.logoutUser();
+        // Bỏ đánh dấu wishlist/giỏ hàng của user cũ trên các lưới sản phẩm
+        RepositoryProvider.getInstance(getApplication()).getMembershipIndex().reset();
         isLoggedIn.postValue(false);
         currentUser.postValue(null);
     }
@@ -424,7 +427,7 @@ public class AuthViewModel extends AndroidViewModel {
 
         Future<Boolean> resetFuture = userRepository.resetPassword(email);
 
-        new Thread(() -> {
+        executor.execute(() -> {
             try {
                 Boolean success = resetFuture.get();
                 isLoading.postValue(false);
@@ -442,7 +445,7 @@ public class AuthViewModel extends AndroidViewModel {
                 errorMessage.postValue(message);
                 forgotPasswordResult.postValue(new ForgotPasswordResult(false, message));
             }
-        }).start();
+        });
     }
 
     // Validation for forgot password
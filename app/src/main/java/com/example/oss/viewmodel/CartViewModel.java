@@ -5,12 +5,9 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import com.example.oss.dao.CartDao;
 import com.example.oss.repository.CartRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 
 public class CartViewModel extends AndroidViewModel {
 
@@ -18,10 +15,12 @@ public class CartViewModel extends AndroidViewModel {
     private SessionManager sessionManager;
     private MutableLiveData<String> errorMessage;
     private MutableLiveData<Boolean> isLoading;
+    private LiveData<CartRepository.CartSnapshot> cartSnapshot;
+    private int snapshotUserId = -1;
 
     public CartViewModel(@NonNull Application application) {
         super(application);
-        cartRepository = new CartRepository(application);
+        cartRepository = RepositoryProvider.getInstance(application).getCartRepository();
         sessionManager = SessionManager.getInstance(application);
         errorMessage = new MutableLiveData<>();
         isLoading = new MutableLiveData<>(false);
@@ -47,44 +46,18 @@ public class CartViewModel extends AndroidViewModel {
         return isLoading;
     }
 
-    public LiveData<List<CartDao.CartWithProduct>> getCartItems() {
+    // Giỏ hàng của user đang đăng nhập (dòng + tổng), dùng chung một LiveData cho cả ViewModel;
+    // chưa đăng nhập thì là giỏ rỗng
+    public LiveData<CartRepository.CartSnapshot> getCartSnapshot() {
         int userId = getCurrentUserId();
-        if (userId != -1) {
-            return cartRepository.getCartWithProducts(userId);
+        if (userId == -1) {
+            return new MutableLiveData<>(CartRepository.CartSnapshot.EMPTY);
         }
-        return new MutableLiveData<>();
-    }
-
-    public LiveData<Integer> getCartCount() {
-        int userId = getCurrentUserId();
-        if (userId != -1) {
-            return cartRepository.getCartCount(userId);
+        if (cartSnapshot == null || snapshotUserId != userId) {
+            cartSnapshot = cartRepository.getCartSnapshot(userId);
+            snapshotUserId = userId;
         }
-        return new MutableLiveData<>(0);
-    }
-
-    public LiveData<Integer> getTotalQuantity() {
-        int userId = getCurrentUserId();
-        if (userId != -1) {
-            return cartRepository.getTotalQuantity(userId);
-        }
-        return new MutableLiveData<>(0);
-    }
-
-    public LiveData<BigDecimal> getCartTotal() {
-        int userId = getCurrentUserId();
-        if (userId != -1) {
-            return cartRepository.getCartTotal(userId);
-        }
-        return new MutableLiveData<>(BigDecimal.ZERO);
-    }
-
-    public LiveData<List<CartDao.CartWithProduct>> getCartWithProducts() {
-        SessionManager.SessionUser currentUser = getCurrentUser();
-        if (currentUser != null) {
-            return cartRepository.getCartWithProducts(currentUser.getId());
-        }
-        return new MutableLiveData<>(new ArrayList<>());
+        return cartSnapshot;
     }
 
     // Cart operations
@@ -119,6 +92,10 @@ public class CartViewModel extends AndroidViewModel {
         }
     }
 
+    public void flushPendingQuantities() {
+        cartRepository.flushPendingQuantities();
+    }
+
     public void removeFromCart(int productId) {
         SessionManager.SessionUser currentUser = getCurrentUser();
         if (currentUser == null) {
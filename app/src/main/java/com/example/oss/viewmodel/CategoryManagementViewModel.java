@@ -6,15 +6,19 @@ import android.os.Looper;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import com.example.oss.entity.Category;
 import com.example.oss.repository.CategoryRepository;
+import com.example.oss.repository.RepositoryProvider;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class CategoryManagementViewModel extends AndroidViewModel {
     private CategoryRepository repository;
     private LiveData<List<Category>> allCategories;
+    private final MutableLiveData<String> searchQuery = new MutableLiveData<>("");
+    private LiveData<List<Category>> categories;
     private LiveData<List<Category>> rootCategories;
     private MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private ExecutorService executor;
@@ -26,10 +30,12 @@ public class CategoryManagementViewModel extends AndroidViewModel {
 
     public CategoryManagementViewModel(Application application) {
         super(application);
-        repository = new CategoryRepository(application);
+        repository = RepositoryProvider.getInstance(application).getCategoryRepository();
         allCategories = repository.getAllCategories();
+        // Chuỗi tìm rỗng thì repository trả về luôn allCategories
+        categories = Transformations.switchMap(searchQuery, repository::searchCategories);
         rootCategories = repository.getRootCategories();
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskRead();
         mainHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -37,6 +43,18 @@ public class CategoryManagementViewModel extends AndroidViewModel {
         return allCategories;
     }
 
+    // Danh sách hiển thị: mọi danh mục, hoặc các danh mục khớp tiền tố đang tìm
+    public LiveData<List<Category>> getCategories() {
+        return categories;
+    }
+
+    public void setSearchQuery(String query) {
+        String value = query != null ? query : "";
+        if (!value.equals(searchQuery.getValue())) {
+            searchQuery.setValue(value);
+        }
+    }
+
     public LiveData<List<Category>> getRootCategories() {
         return rootCategories;
     }
@@ -6,19 +6,17 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.example.oss.entity.Order;
-import com.example.oss.entity.OrderItem;
 import com.example.oss.repository.OrderRepository;
-import com.example.oss.repository.OrderItemRepository;
 import com.example.oss.repository.CartRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class OrderHistoryViewModel extends AndroidViewModel {
 
     private OrderRepository orderRepository;
-    private OrderItemRepository orderItemRepository;
     private CartRepository cartRepository;
     private SessionManager sessionManager;
     private ExecutorService executor;
@@ -29,11 +27,10 @@ public class OrderHistoryViewModel extends AndroidViewModel {
 
     public OrderHistoryViewModel(@NonNull Application application) {
         super(application);
-        orderRepository = new OrderRepository(application);
-        orderItemRepository = new OrderItemRepository(application);
-        cartRepository = new CartRepository(application);
+        orderRepository = RepositoryProvider.getInstance(application).getOrderRepository();
+        cartRepository = RepositoryProvider.getInstance(application).getCartRepository();
         sessionManager = SessionManager.getInstance(application);
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskRead();
     }
 
     // Getters for LiveData
@@ -93,21 +90,13 @@ public class OrderHistoryViewModel extends AndroidViewModel {
                     return;
                 }
 
-                // Get order items
-                List<OrderItem> orderItems = orderItemRepository.getOrderItemsSync(orderId).get();
+                CartRepository.ReorderResult result =
+                        cartRepository.reorder(currentUser.getId(), orderId).get();
 
-                if (orderItems != null && !orderItems.isEmpty()) {
-                    // Add each item back to cart
-                    for (OrderItem item : orderItems) {
-                        cartRepository.addToCart(
-                                currentUser.getId(),
-                                item.getProductId(),
-                                item.getQuantity());
-                    }
-
-                    successMessage.postValue(String.format("Đã thêm %d sản phẩm vào giỏ hàng", orderItems.size()));
-                } else {
+                if (result.isEmpty()) {
                     errorMessage.postValue("Không tìm thấy sản phẩm trong đơn hàng này");
+                } else {
+                    successMessage.postValue(buildReorderMessage(result));
                 }
             } catch (Exception e) {
                 errorMessage.postValue("Lỗi khi thêm sản phẩm vào giỏ hàng: " + e.getMessage());
@@ -117,6 +106,20 @@ public class OrderHistoryViewModel extends AndroidViewModel {
         });
     }
 
+    private static String buildReorderMessage(CartRepository.ReorderResult result) {
+        StringBuilder message = new StringBuilder(
+                String.format("Đã thêm %d sản phẩm vào giỏ hàng", result.getAddedCount()));
+        if (!result.getClampedProducts().isEmpty()) {
+            message.append("\nChỉ còn đủ hàng cho số lượng tối đa: ")
+                    .append(String.join(", ", result.getClampedProducts()));
+        }
+        if (!result.getUnavailableProducts().isEmpty()) {
+            message.append("\nĐã hết hàng: ")
+                    .append(String.join(", ", result.getUnavailableProducts()));
+        }
+        return message.toString();
+    }
+
     // Get order statistics
     public LiveData<Integer> getUserOrderCount(int userId) {
         return orderRepository.getUserOrderCount(userId);
@@ -126,12 +129,4 @@ public class OrderHistoryViewModel extends AndroidViewModel {
         errorMessage.postValue(null);
         successMessage.postValue(null);
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -5,39 +5,53 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 import androidx.lifecycle.Transformations;
 
-import com.example.oss.bean.OrderData;
+import com.example.oss.bean.OrderDisplay;
+import com.example.oss.bean.OrderStatistics;
+import com.example.oss.dao.CheckoutDao;
+import com.example.oss.dao.OrderItemDao;
+import com.example.oss.repository.OrderItemRepository;
 import com.example.oss.repository.OrderRepository;
+import com.example.oss.repository.RepositoryProvider;
+import com.example.oss.util.AppExecutors;
 import com.example.oss.util.SearchFilter;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class OrderManagementViewModel extends AndroidViewModel {
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private MutableLiveData<Boolean> isLoading;
     private MutableLiveData<String> errorMessage;
     private MutableLiveData<SearchFilter.FilterState> currentFilter;
     private MutableLiveData<String> filterStatus = new MutableLiveData<>("Tất cả");
-    private LiveData<com.example.oss.bean.OrderData> orderDisplays;
-    private final MutableLiveData<OrderData> allOrders = new MutableLiveData<>();
+    private LiveData<List<OrderDisplay>> orderDisplays;
+    private final LiveData<OrderStatistics> orderStatistics;
 
     public OrderManagementViewModel(Application application) {
         super(application);
-        orderRepository = new OrderRepository(application);
+        orderRepository = RepositoryProvider.getInstance(application).getOrderRepository();
+        orderItemRepository = RepositoryProvider.getInstance(application).getOrderItemRepository();
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>();
         currentFilter = new MutableLiveData<>(new SearchFilter.FilterState());
+        // Đổi filter thì query lại đúng phần đơn của trạng thái đó
         orderDisplays = Transformations.switchMap(filterStatus, status -> {
-            return orderRepository.getAllOrderManagementDisplays(mapStatus(status));
+            return orderRepository.getOrderManagementDisplays(mapStatus(status));
         });
+        orderStatistics = orderRepository.getOrderStatistics();
     }
 
-    public LiveData<com.example.oss.bean.OrderData> getOrderDisplays() {
+    public LiveData<List<OrderDisplay>> getOrderDisplays() {
         return orderDisplays;
     }
 
+    public LiveData<OrderStatistics> getOrderStatistics() {
+        return orderStatistics;
+    }
+
     public LiveData<SearchFilter.FilterState> getCurrentFilter() {
         return currentFilter;
     }
@@ -58,14 +72,31 @@ public class OrderManagementViewModel extends AndroidViewModel {
         errorMessage.setValue(null);
     }
 
+    // Room tự phát lại danh sách và thống kê khi bảng orders đổi, không cần set lại filter
     public void updateOrderStatus(int orderId, String newStatus) {
-        orderRepository.updateOrderStatus(orderId, newStatus);
-        String currentStatus = filterStatus.getValue();
-        filterStatus.setValue(currentStatus == null ? "Tất cả" : currentStatus);
+        AppExecutors.getInstance().diskRead().execute(() -> {
+            try {
+                orderRepository.updateOrderStatus(orderId, newStatus).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CheckoutDao.InsufficientStockException) {
+                    errorMessage.postValue("Không đủ hàng trong kho để mở lại đơn #" + orderId);
+                } else {
+                    errorMessage.postValue("Lỗi khi cập nhật trạng thái đơn hàng");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
 
+    public LiveData<List<OrderItemDao.OrderItemWithProduct>> getOrderItems(int orderId) {
+        return orderItemRepository.getOrderItemsWithProduct(orderId);
     }
+
     public void setFilterStatus(String status) {
-        filterStatus.setValue(status);
+        if (!status.equals(filterStatus.getValue())) {
+            filterStatus.setValue(status);
+        }
     }
 
     private String mapStatus(String vi) {
@@ -78,17 +109,4 @@ public class OrderManagementViewModel extends AndroidViewModel {
             default: return null; // "Tất cả" hoặc unknown
         }
     }
-
-    public void loadAllOrders() {
-        orderRepository.getAllOrderManagementDisplays("Tất cả").observeForever(new Observer<OrderData>() {
-            @Override
-            public void onChanged(OrderData data) {
-                allOrders.postValue(data);
-            }
-        });
-    }
-
-    public LiveData<OrderData> getAllOrders() {
-        return allOrders;
-    }
 }
@@ -9,15 +9,18 @@ import com.example.oss.entity.Cart;
 import com.example.oss.entity.Order;
 import com.example.oss.entity.OrderItem;
 import com.example.oss.dao.CartDao;
+import com.example.oss.dao.CheckoutDao;
 import com.example.oss.repository.CartRepository;
 import com.example.oss.repository.OrderRepository;
 import com.example.oss.repository.OrderItemRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
+import com.example.oss.util.AppExecutors;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
 
 public class OrderViewModel extends AndroidViewModel {
 
@@ -33,11 +36,11 @@ public class OrderViewModel extends AndroidViewModel {
 
     public OrderViewModel(@NonNull Application application) {
         super(application);
-        orderRepository = new OrderRepository(application);
-        cartRepository = new CartRepository(application);
-        orderItemRepository = new OrderItemRepository(application);
+        orderRepository = RepositoryProvider.getInstance(application).getOrderRepository();
+        cartRepository = RepositoryProvider.getInstance(application).getCartRepository();
+        orderItemRepository = RepositoryProvider.getInstance(application).getOrderItemRepository();
         sessionManager = SessionManager.getInstance(application);
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskRead();
     }
 
     // Getters for LiveData
@@ -76,39 +79,28 @@ public class OrderViewModel extends AndroidViewModel {
                     return;
                 }
 
-                // 2. Validate stock availability
-                if (!validateStockAvailability(cartItems)) {
-                    handleError("Một số sản phẩm không đủ hàng trong kho");
-                    return;
-                }
-
-                // 3. Convert cart items to order items
-                List<OrderItemRepository.CartItem> orderCartItems = new ArrayList<>();
-                for (CartDao.CartWithProduct cart : cartItems) {
-                    orderCartItems.add(new OrderItemRepository.CartItem(
-                            cart.getProductId(),
-                            cart.getQuantity(),
-                            cart.getPrice()));
-                }
-
-                // 4. Create order
+                // 2. Tạo order, trừ kho và xóa giỏ trong một transaction (thiếu hàng thì rollback hết)
                 long orderId = orderRepository.createOrder(
                         userId,
                         shippingAddressId,
                         convertToOrderItems(cartItems),
-                        paymentMethod).get();
+                        paymentMethod,
+                        true).get();
 
                 if (orderId > 0) {
-                    // 5. Clear cart after successful order creation
-                    cartRepository.clearCartSync(userId);
-
-                    // 6. Return success result
+                    // 3. Return success result
                     OrderCreationResult result = new OrderCreationResult(true, (int) orderId, null);
                     orderCreationResult.postValue(result);
                 } else {
                     handleError("Không thể tạo đơn hàng");
                 }
 
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CheckoutDao.InsufficientStockException) {
+                    handleError("Một số sản phẩm không đủ hàng trong kho");
+                } else {
+                    handleError("Lỗi: " + e.getCause().getMessage());
+                }
             } catch (Exception e) {
                 handleError("Lỗi: " + e.getMessage());
             } finally {
@@ -117,12 +109,6 @@ public class OrderViewModel extends AndroidViewModel {
         });
     }
 
-    private boolean validateStockAvailability(List<CartDao.CartWithProduct> cartItems) {
-        // TODO: Implement stock validation
-        // For now, assume all items are available
-        return true;
-    }
-
     private List<OrderItem> convertToOrderItems(List<CartDao.CartWithProduct> cartItems) {
         List<OrderItem> orderItems = new ArrayList<>();
         for (CartDao.CartWithProduct cart : cartItems) {
@@ -171,12 +157,4 @@ public class OrderViewModel extends AndroidViewModel {
             return errorMessage;
         }
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -4,15 +4,20 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import com.example.oss.dao.ProductDao;
+import com.example.oss.dao.ProductSalesDao;
+import com.example.oss.repository.ProductPager;
 import com.example.oss.repository.ProductRepository;
 import com.example.oss.repository.CategoryRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.entity.Product;
 import com.example.oss.entity.Category;
 import com.example.oss.util.SearchFilter;
+import com.example.oss.util.AppExecutors;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class ProductViewModel extends AndroidViewModel {
 
@@ -24,17 +29,31 @@ public class ProductViewModel extends AndroidViewModel {
     private MutableLiveData<Boolean> isLoading;
     private MutableLiveData<String> errorMessage;
     private MutableLiveData<SearchFilter.FilterState> currentFilter;
+    // Danh sách đang hiển thị (trang chủ/danh mục/tìm kiếm), tải dần theo trang khi cuộn
+    private MutableLiveData<ProductPager> pager;
+    private LiveData<List<ProductDao.RatedProduct>> pagedProducts;
+
+    // Dải "bán chạy"/"xu hướng tuần này" ở trang chủ
+    private static final int HIGHLIGHT_LIMIT = 10;
+    private MutableLiveData<Boolean> showTrending;
+    private LiveData<List<ProductSalesDao.RankedProduct>> highlightedProducts;
 
     public ProductViewModel(Application application) {
         super(application);
-        productRepository = new ProductRepository(application);
-        categoryRepository = new CategoryRepository(application);
-        executor = Executors.newFixedThreadPool(2);
+        productRepository = RepositoryProvider.getInstance(application).getProductRepository();
+        categoryRepository = RepositoryProvider.getInstance(application).getCategoryRepository();
+        executor = AppExecutors.getInstance().diskRead();
 
         // Initialize LiveData
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>();
         currentFilter = new MutableLiveData<>(new SearchFilter.FilterState());
+        pager = new MutableLiveData<>();
+        pagedProducts = Transformations.switchMap(pager, ProductPager::getItems);
+        showTrending = new MutableLiveData<>(false);
+        highlightedProducts = Transformations.switchMap(showTrending, trending -> trending
+                ? productRepository.getTrendingThisWeek(HIGHLIGHT_LIMIT)
+                : productRepository.getBestSellers(HIGHLIGHT_LIMIT));
     }
 
     // Getters for LiveData
@@ -46,6 +65,57 @@ public class ProductViewModel extends AndroidViewModel {
         return productRepository.getProductsByCategory(categoryId);
     }
 
+    public LiveData<List<ProductDao.RatedProduct>> getPagedProducts() {
+        return pagedProducts;
+    }
+
+    public LiveData<List<ProductSalesDao.RankedProduct>> getHighlightedProducts() {
+        return highlightedProducts;
+    }
+
+    public void setShowTrending(boolean trending) {
+        if (!Boolean.valueOf(trending).equals(showTrending.getValue())) {
+            showTrending.setValue(trending);
+        }
+    }
+
+    public boolean hasProductFeed() {
+        return pager.getValue() != null;
+    }
+
+    public void showAllProducts() {
+        setPager(productRepository.pageActiveProducts(ProductRepository.FeedOrder.NAME));
+    }
+
+    public void showProductsByCategory(int categoryId) {
+        setPager(productRepository.pageProductsByCategory(categoryId));
+    }
+
+    public void showSearchResults(String query) {
+        setPager(productRepository.pageSearchResults(query));
+    }
+
+    // position: item cuối cùng đang thấy trên màn hình
+    public void onProductVisible(int position) {
+        ProductPager current = pager.getValue();
+        if (current != null) {
+            current.onItemVisible(position);
+        }
+    }
+
+    public boolean hasMoreProducts() {
+        ProductPager current = pager.getValue();
+        return current != null && current.hasMore();
+    }
+
+    private void setPager(ProductPager next) {
+        ProductPager previous = pager.getValue();
+        if (previous != null) {
+            previous.dispose();
+        }
+        pager.setValue(next);
+    }
+
     public LiveData<Product> getProductById(int productId) {
         return productRepository.getProductById(productId);
     }
@@ -154,8 +224,9 @@ public class ProductViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
+        ProductPager current = pager.getValue();
+        if (current != null) {
+            current.dispose();
         }
     }
 }
\ No newline at end of file
@@ -5,12 +5,16 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.oss.dao.ReviewDao;
+import com.example.oss.entity.ProductRatingStats;
 import com.example.oss.entity.Review;
+import com.example.oss.repository.ReviewPager;
 import com.example.oss.repository.ReviewRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class ReviewViewModel extends AndroidViewModel {
 
@@ -22,12 +26,13 @@ public class ReviewViewModel extends AndroidViewModel {
     private MutableLiveData<Boolean> isLoading;
     private MutableLiveData<String> successMessage;
     private MutableLiveData<Boolean> canWriteReview = new MutableLiveData<>(false);
+    private ReviewPager reviewPager;
 
     public ReviewViewModel(@NonNull Application application) {
         super(application);
-        reviewRepository = new ReviewRepository(application);
+        reviewRepository = RepositoryProvider.getInstance(application).getReviewRepository();
         sessionManager = SessionManager.getInstance(application);
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskRead();
 
         errorMessage = new MutableLiveData<>();
         isLoading = new MutableLiveData<>(false);
@@ -62,14 +67,27 @@ public class ReviewViewModel extends AndroidViewModel {
         return reviewRepository.getReviewsByProduct(productId);
     }
 
-    // Get average rating for a product
-    public LiveData<Double> getAverageRatingForProduct(int productId) {
-        return reviewRepository.getAverageRatingForProduct(productId);
+    // Review kèm tên người viết cho trang chi tiết; một ViewModel chỉ phục vụ một sản phẩm
+    public LiveData<List<ReviewDao.ReviewWithAuthor>> getReviewFeed(int productId) {
+        if (reviewPager == null) {
+            reviewPager = reviewRepository.pageReviewsWithAuthor(productId);
+        }
+        return reviewPager.getItems();
     }
 
-    // Get review count for a product
-    public LiveData<Integer> getReviewCountForProduct(int productId) {
-        return reviewRepository.getReviewCountForProduct(productId);
+    public void loadMoreReviews() {
+        if (reviewPager != null) {
+            reviewPager.loadNextPage();
+        }
+    }
+
+    public boolean hasMoreReviews() {
+        return reviewPager != null && reviewPager.hasMore();
+    }
+
+    // Thống kê đánh giá của sản phẩm, null nếu chưa có review
+    public LiveData<ProductRatingStats> getRatingStats(int productId) {
+        return reviewRepository.getRatingStats(productId);
     }
 
     // Check if user can write review for a product
@@ -220,4 +238,12 @@ public class ReviewViewModel extends AndroidViewModel {
     public void clearError() {
         errorMessage.setValue(null);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (reviewPager != null) {
+            reviewPager.dispose();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.oss.viewmodel;
+
+import android.app.Application;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import com.example.oss.dao.ProductSalesDao;
+import com.example.oss.dao.SalesRollupDao;
+import com.example.oss.entity.SalesRollup;
+import com.example.oss.repository.RepositoryProvider;
+import com.example.oss.repository.StatisticsRepository;
+import com.example.oss.util.AppExecutors;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+public class StatisticViewModel extends AndroidViewModel {
+    private static final String TAG = "StatisticViewModel";
+    private static final int LEADERBOARD_LIMIT = 5;
+
+    private final StatisticsRepository repository;
+    private final ExecutorService executor;
+    private final MutableLiveData<StatisticsRepository.Range> range =
+            new MutableLiveData<>(StatisticsRepository.Range.LAST_7_DAYS);
+    private final LiveData<List<SalesRollup>> salesSeries;
+    private final LiveData<SalesRollupDao.SalesTotals> salesTotals;
+    private final LiveData<List<ProductSalesDao.RankedProduct>> topProducts;
+    private final LiveData<List<ProductSalesDao.CategoryRevenue>> categoryLeaderboard;
+    private final MutableLiveData<StatisticsRepository.InventorySummary> inventorySummary = new MutableLiveData<>();
+
+    public StatisticViewModel(@NonNull Application application) {
+        super(application);
+        repository = RepositoryProvider.getInstance(application).getStatisticsRepository();
+        executor = AppExecutors.getInstance().diskRead();
+        salesSeries = Transformations.switchMap(range, repository::getSalesSeries);
+        salesTotals = repository.getSalesTotals();
+        topProducts = repository.getTopProducts(LEADERBOARD_LIMIT);
+        categoryLeaderboard = repository.getCategoryLeaderboard(LEADERBOARD_LIMIT);
+    }
+
+    public LiveData<StatisticsRepository.Range> getRange() {
+        return range;
+    }
+
+    public void setRange(StatisticsRepository.Range newRange) {
+        if (newRange != range.getValue()) {
+            range.setValue(newRange);
+        }
+    }
+
+    public LiveData<List<SalesRollup>> getSalesSeries() {
+        return salesSeries;
+    }
+
+    public LiveData<SalesRollupDao.SalesTotals> getSalesTotals() {
+        return salesTotals;
+    }
+
+    public LiveData<List<ProductSalesDao.RankedProduct>> getTopProducts() {
+        return topProducts;
+    }
+
+    public LiveData<List<ProductSalesDao.CategoryRevenue>> getCategoryLeaderboard() {
+        return categoryLeaderboard;
+    }
+
+    public LiveData<StatisticsRepository.InventorySummary> getInventorySummary() {
+        return inventorySummary;
+    }
+
+    public void loadInventorySummary() {
+        executor.execute(() -> {
+            try {
+                inventorySummary.postValue(repository.getInventorySummary().get());
+            } catch (Exception e) {
+                Log.e(TAG, "Không tải được số liệu tồn kho", e);
+            }
+        });
+    }
+}
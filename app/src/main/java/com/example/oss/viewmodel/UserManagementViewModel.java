@@ -6,6 +6,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import com.example.oss.entity.User;
 import com.example.oss.repository.UserRepository;
+import com.example.oss.repository.RepositoryProvider;
 import java.util.List;
 
 public class UserManagementViewModel extends AndroidViewModel {
@@ -14,7 +15,7 @@ public class UserManagementViewModel extends AndroidViewModel {
 
     public UserManagementViewModel(@NonNull Application application) {
         super(application);
-        repository = new UserRepository(application);
+        repository = RepositoryProvider.getInstance(application).getUserRepository();
         allUsers = repository.getAllUsers();
     }
 
@@ -5,17 +5,20 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import com.example.oss.entity.Product;
+import com.example.oss.dao.ProductDao;
 import com.example.oss.entity.Wishlist;
+import com.example.oss.repository.MembershipIndex;
 import com.example.oss.repository.WishlistRepository;
+import com.example.oss.repository.RepositoryProvider;
 import com.example.oss.util.SessionManager;
+import com.example.oss.util.AppExecutors;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class WishlistViewModel extends AndroidViewModel {
 
     private WishlistRepository wishlistRepository;
+    private MembershipIndex membershipIndex;
     private SessionManager sessionManager;
     private ExecutorService executor;
 
@@ -26,9 +29,10 @@ public class WishlistViewModel extends AndroidViewModel {
 
     public WishlistViewModel(@NonNull Application application) {
         super(application);
-        wishlistRepository = new WishlistRepository(application);
+        wishlistRepository = RepositoryProvider.getInstance(application).getWishlistRepository();
+        membershipIndex = RepositoryProvider.getInstance(application).getMembershipIndex();
         sessionManager = SessionManager.getInstance(application);
-        executor = Executors.newFixedThreadPool(2);
+        executor = AppExecutors.getInstance().diskRead();
 
         errorMessage = new MutableLiveData<>();
         isLoading = new MutableLiveData<>(false);
@@ -54,7 +58,7 @@ public class WishlistViewModel extends AndroidViewModel {
         return successMessage;
     }
 
-    public LiveData<List<Product>> getWishlistProducts() {
+    public LiveData<List<ProductDao.RatedProduct>> getWishlistProducts() {
         int userId = getCurrentUserId();
         if (userId != -1) {
             return wishlistRepository.getWishlistProducts(userId);
@@ -62,6 +66,12 @@ public class WishlistViewModel extends AndroidViewModel {
         return new MutableLiveData<>();
     }
 
+    // Trạng thái wishlist/giỏ hàng cho các lưới sản phẩm, đã nạp cho user hiện tại (chưa đăng nhập thì rỗng)
+    public MembershipIndex getMembershipIndex() {
+        membershipIndex.load(getCurrentUserId());
+        return membershipIndex;
+    }
+
     public LiveData<Integer> getWishlistCount() {
         int userId = getCurrentUserId();
         if (userId != -1) {
@@ -186,12 +196,4 @@ public class WishlistViewModel extends AndroidViewModel {
     public void clearSuccess() {
         successMessage.setValue(null);
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
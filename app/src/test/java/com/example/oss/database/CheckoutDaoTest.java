@@ -0,0 +1,269 @@
+package com.example.oss.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.oss.dao.CheckoutDao;
+import com.example.oss.entity.Order;
+import com.example.oss.entity.OrderItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Các transaction của CheckoutDao trên SQLite thật: tồn kho và các bảng đếm phải khớp sau mỗi bước,
+ * và thiếu hàng thì không được ghi lại gì.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class CheckoutDaoTest {
+
+    // 1700000000000 là giữa tháng 11/2023 ở mọi múi giờ
+    private static final long ORDER_DATE = 1700000000000L;
+
+    private static final String[] SEED = {
+            "INSERT INTO categories (id, name) VALUES (1, 'Điện thoại'), (2, 'Phụ kiện')",
+            "INSERT INTO users (id, full_name, email, phone_number, role, status) " +
+                    "VALUES (1, 'Nguyễn Văn A', 'a@example.com', '0900000001', 'customer', 'active')",
+            "INSERT INTO products (id, category_id, name, price, stock_quantity, is_active) " +
+                    "VALUES (1, 1, 'Điện thoại', 100000, 10, 1), (2, 2, 'Ốp lưng', 50000, 1, 1)",
+            "INSERT INTO cart (user_id, product_id, quantity, added_at) VALUES (1, 1, 2, 1700000000000)"
+    };
+
+    private AppDatabase db;
+    private SupportSQLiteDatabase sqlite;
+    private CheckoutDao checkoutDao;
+
+    @Before
+    public void openDatabase() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS)
+                .allowMainThreadQueries()
+                .build();
+        sqlite = db.getOpenHelper().getWritableDatabase();
+        for (String statement : SEED) {
+            sqlite.execSQL(statement);
+        }
+        checkoutDao = db.checkoutDao();
+    }
+
+    @After
+    public void closeDatabase() {
+        db.close();
+    }
+
+    @Test
+    public void placeOrder_decrementsStockAndClearsCart() {
+        int orderId = placeOrder(ORDER_DATE, item(1, 2, 100000), item(2, 1, 50000));
+
+        assertEquals(8, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(0, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertEquals(2, longValue("SELECT COUNT(*) FROM order_items WHERE order_id = " + orderId));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM cart"));
+    }
+
+    @Test
+    public void placeOrder_shortStock_rollsBackEverything() {
+        assertThrows(CheckoutDao.InsufficientStockException.class,
+                () -> placeOrder(ORDER_DATE, item(1, 1, 100000), item(2, 2, 50000)));
+
+        // Sản phẩm 1 đủ hàng và đã bị trừ trong transaction, phải được trả lại khi rollback
+        assertEquals(10, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(1, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM orders"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM order_items"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM product_sales"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM category_sales"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM sales_rollups"));
+        assertEquals(1, longValue("SELECT COUNT(*) FROM cart"));
+    }
+
+    @Test
+    public void placeOrder_sameProductOnTwoLines_checksCombinedQuantity() {
+        assertThrows(CheckoutDao.InsufficientStockException.class,
+                () -> placeOrder(ORDER_DATE, item(2, 1, 50000), item(2, 1, 50000)));
+
+        assertEquals(1, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertEquals(0, longValue("SELECT COUNT(*) FROM orders"));
+    }
+
+    @Test
+    public void placeThenCancel_restoresStockAndCounters() {
+        int orderId = placeOrder(ORDER_DATE, item(1, 2, 100000), item(2, 1, 50000));
+
+        assertSales(1, 2, 200000);
+        assertSales(2, 1, 50000);
+        assertEquals(ORDER_DATE, longValue("SELECT last_sold_at FROM product_sales WHERE product_id = 1"));
+        assertEquals(2, longValue("SELECT SUM(units_sold) FROM product_weekly_sales WHERE product_id = 1"));
+        assertCategorySales(1, 2, 200000);
+        assertCategorySales(2, 1, 50000);
+        assertMonthRollup(1, 0, 0);
+
+        assertTrue(checkoutDao.cancelOrder(orderId));
+
+        assertEquals(10, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(1, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertSales(1, 0, 0);
+        assertSales(2, 0, 0);
+        assertNull(stringValue("SELECT last_sold_at FROM product_sales WHERE product_id = 1"));
+        assertEquals(0, longValue("SELECT SUM(units_sold) FROM product_weekly_sales"));
+        assertCategorySales(1, 0, 0);
+        assertCategorySales(2, 0, 0);
+        // Đơn hủy vẫn được đếm, chỉ không tính doanh thu
+        assertMonthRollup(1, 0, 0);
+
+        // Hủy lần hai không cộng kho thêm lần nữa
+        assertFalse(checkoutDao.cancelOrder(orderId));
+        assertEquals(10, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+    }
+
+    @Test
+    public void cancel_afterProductChangesCategory_debitsCategoryAtSaleTime() {
+        int orderId = placeOrder(ORDER_DATE, item(1, 1, 100000));
+        sqlite.execSQL("UPDATE products SET category_id = 2 WHERE id = 1");
+
+        assertTrue(checkoutDao.cancelOrder(orderId));
+
+        assertCategorySales(1, 0, 0);
+        assertEquals(0, longValue("SELECT COUNT(*) FROM category_sales WHERE category_id = 2"));
+    }
+
+    @Test
+    public void cancel_recomputesLastSoldAtFromRemainingOrders() {
+        placeOrder(ORDER_DATE, item(1, 1, 100000));
+        int laterOrder = placeOrder(ORDER_DATE + 1000, item(1, 1, 100000));
+        assertEquals(ORDER_DATE + 1000, longValue("SELECT last_sold_at FROM product_sales WHERE product_id = 1"));
+
+        assertTrue(checkoutDao.cancelOrder(laterOrder));
+
+        assertEquals(ORDER_DATE, longValue("SELECT last_sold_at FROM product_sales WHERE product_id = 1"));
+        assertSales(1, 1, 100000);
+    }
+
+    @Test
+    public void changeOrderStatus_cancelThenReopen_balancesStockAndCounters() {
+        int orderId = placeOrder(ORDER_DATE, item(1, 2, 100000), item(2, 1, 50000));
+
+        assertTrue(checkoutDao.changeOrderStatus(orderId, "cancelled"));
+        assertEquals(10, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(1, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertSales(1, 0, 0);
+        assertCategorySales(2, 0, 0);
+        assertEquals(0, longValue("SELECT SUM(units_sold) FROM product_weekly_sales"));
+
+        assertTrue(checkoutDao.changeOrderStatus(orderId, "confirmed"));
+        assertEquals("confirmed", checkoutDao.getOrderStatus(orderId));
+        assertEquals(8, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(0, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertSales(1, 2, 200000);
+        assertSales(2, 1, 50000);
+        assertEquals(ORDER_DATE, longValue("SELECT last_sold_at FROM product_sales WHERE product_id = 1"));
+        assertEquals(3, longValue("SELECT SUM(units_sold) FROM product_weekly_sales"));
+        assertCategorySales(1, 2, 200000);
+        assertCategorySales(2, 1, 50000);
+        assertMonthRollup(1, 1, 250000);
+
+        // Đổi giữa các trạng thái không hủy thì kho và bộ đếm giữ nguyên
+        assertTrue(checkoutDao.changeOrderStatus(orderId, "shipped"));
+        assertEquals(8, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertSales(1, 2, 200000);
+    }
+
+    @Test
+    public void changeOrderStatus_reopenWithoutStock_rollsBack() {
+        int orderId = placeOrder(ORDER_DATE, item(1, 1, 100000), item(2, 1, 50000));
+        assertTrue(checkoutDao.changeOrderStatus(orderId, "cancelled"));
+        // Trong lúc đơn bị hủy, ốp lưng cuối cùng đã được bán cho người khác
+        sqlite.execSQL("UPDATE products SET stock_quantity = 0 WHERE id = 2");
+
+        assertThrows(CheckoutDao.InsufficientStockException.class,
+                () -> checkoutDao.changeOrderStatus(orderId, "confirmed"));
+
+        assertEquals("cancelled", checkoutDao.getOrderStatus(orderId));
+        assertEquals(10, longValue("SELECT stock_quantity FROM products WHERE id = 1"));
+        assertEquals(0, longValue("SELECT stock_quantity FROM products WHERE id = 2"));
+        assertSales(1, 0, 0);
+        assertCategorySales(1, 0, 0);
+        assertMonthRollup(1, 0, 0);
+    }
+
+    @Test
+    public void changeOrderStatus_missingOrder_returnsFalse() {
+        assertFalse(checkoutDao.changeOrderStatus(42, "confirmed"));
+    }
+
+    private void assertSales(int productId, int unitsSold, long revenue) {
+        try (Cursor cursor = sqlite.query("SELECT units_sold, revenue FROM product_sales WHERE product_id = "
+                + productId)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(unitsSold, cursor.getInt(0));
+            assertEquals(revenue, cursor.getLong(1));
+        }
+    }
+
+    private void assertCategorySales(int categoryId, int unitsSold, long revenue) {
+        try (Cursor cursor = sqlite.query("SELECT units_sold, revenue FROM category_sales WHERE category_id = "
+                + categoryId)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(unitsSold, cursor.getInt(0));
+            assertEquals(revenue, cursor.getLong(1));
+        }
+    }
+
+    private void assertMonthRollup(int orders, int revenueOrders, long revenue) {
+        try (Cursor cursor = sqlite.query("SELECT order_count, revenue_order_count, revenue FROM sales_rollups " +
+                "WHERE granularity = 'month' AND period_start = '2023-11-01'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(orders, cursor.getInt(0));
+            assertEquals(revenueOrders, cursor.getInt(1));
+            assertEquals(revenue, cursor.getLong(2));
+        }
+    }
+
+    private int placeOrder(long orderDate, OrderItem... items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            total = total.add(item.getPriceAtPurchase().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        Order order = Order.builder()
+                .userId(1)
+                .totalAmount(total)
+                .orderDate(new Date(orderDate))
+                .paymentMethod("cash")
+                .build();
+        return (int) checkoutDao.placeOrder(order, Arrays.asList(items), true);
+    }
+
+    private static OrderItem item(int productId, int quantity, long price) {
+        return new OrderItem(0, productId, quantity, BigDecimal.valueOf(price));
+    }
+
+    private String stringValue(String sql) {
+        try (Cursor cursor = sqlite.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.isNull(0) ? null : cursor.getString(0);
+        }
+    }
+
+    private long longValue(String sql) {
+        try (Cursor cursor = sqlite.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.oss.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.oss.dao.ProductDao;
+import com.example.oss.entity.Product;
+import com.example.oss.util.FtsQueryBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tạo một file database v3 (schema lúc chưa có migration nào) có dữ liệu, rồi mở bằng Room
+ * chỉ với Migrations.ALL. Room tự kiểm tra schema sau migration với entity hiện tại và ném
+ * IllegalStateException nếu lệch, nên test này fail khi thiếu/sai một bước migration.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class MigrationTest {
+
+    private static final String DB_NAME = "migration-test.db";
+
+    // DDL do Room sinh cho version 3
+    private static final String[] V3_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT, `description` TEXT, `parent_id` INTEGER, " +
+                    "FOREIGN KEY(`parent_id`) REFERENCES `categories`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL )",
+            "CREATE INDEX IF NOT EXISTS `index_categories_parent_id` ON `categories` (`parent_id`)",
+            "CREATE TABLE IF NOT EXISTS `users` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`full_name` TEXT, `email` TEXT, `password` TEXT, `phone_number` TEXT, `role` TEXT, " +
+                    "`status` TEXT, `created_at` INTEGER)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_users_email` ON `users` (`email`)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_users_phone_number` ON `users` (`phone_number`)",
+            "CREATE TABLE IF NOT EXISTS `products` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`category_id` INTEGER NOT NULL, `name` TEXT, `description` TEXT, `price` TEXT, " +
+                    "`stock_quantity` INTEGER NOT NULL, `image_url` TEXT, `is_active` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_products_category_id` ON `products` (`category_id`)",
+            "CREATE TABLE IF NOT EXISTS `reviews` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`user_id` INTEGER NOT NULL, `product_id` INTEGER NOT NULL, `rating` INTEGER NOT NULL, " +
+                    "`comment` TEXT, `created_at` INTEGER, " +
+                    "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_reviews_user_id` ON `reviews` (`user_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_reviews_product_id` ON `reviews` (`product_id`)",
+            "CREATE TABLE IF NOT EXISTS `wishlist` (`user_id` INTEGER NOT NULL, `product_id` INTEGER NOT NULL, " +
+                    "`added_at` INTEGER, PRIMARY KEY(`user_id`, `product_id`), " +
+                    "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_wishlist_user_id` ON `wishlist` (`user_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_wishlist_product_id` ON `wishlist` (`product_id`)",
+            "CREATE TABLE IF NOT EXISTS `addresses` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`user_id` INTEGER NOT NULL, `receiver_name` TEXT, `phone_number` TEXT, " +
+                    "`street_address` TEXT, `district` TEXT, `city` TEXT, `postal_code` TEXT, " +
+                    "`is_default` INTEGER NOT NULL, `address_type` TEXT, `notes` TEXT, " +
+                    "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_addresses_user_id` ON `addresses` (`user_id`)",
+            "CREATE TABLE IF NOT EXISTS `orders` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`user_id` INTEGER NOT NULL, `shipping_address_id` INTEGER, `total_amount` TEXT, " +
+                    "`status` TEXT, `order_date` INTEGER, `payment_method` TEXT, " +
+                    "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                    "FOREIGN KEY(`shipping_address_id`) REFERENCES `addresses`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE SET NULL )",
+            "CREATE INDEX IF NOT EXISTS `index_orders_user_id` ON `orders` (`user_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_orders_shipping_address_id` ON `orders` (`shipping_address_id`)",
+            "CREATE TABLE IF NOT EXISTS `order_items` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`order_id` INTEGER NOT NULL, `product_id` INTEGER NOT NULL, `quantity` INTEGER NOT NULL, " +
+                    "`price_at_purchase` TEXT, " +
+                    "FOREIGN KEY(`order_id`) REFERENCES `orders`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_order_items_order_id` ON `order_items` (`order_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_order_items_product_id` ON `order_items` (`product_id`)",
+            "CREATE TABLE IF NOT EXISTS `cart` (`user_id` INTEGER NOT NULL, `product_id` INTEGER NOT NULL, " +
+                    "`quantity` INTEGER NOT NULL, `added_at` INTEGER, PRIMARY KEY(`user_id`, `product_id`), " +
+                    "FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                    "FOREIGN KEY(`product_id`) REFERENCES `products`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_cart_user_id` ON `cart` (`user_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_cart_product_id` ON `cart` (`product_id`)"
+    };
+
+    // Tiền ở v3 là BigDecimal.toString(), có dòng còn phần thập phân
+    private static final String[] V3_DATA = {
+            "INSERT INTO categories (id, name, description, parent_id) VALUES (1, 'Điện thoại', NULL, NULL)",
+            "INSERT INTO users (id, full_name, email, password, phone_number, role, status, created_at) " +
+                    "VALUES (1, 'Nguyễn Văn A', 'a@example.com', 'hash', '0900000001', 'customer', 'active', " +
+                    "1700000000000)",
+            "INSERT INTO addresses (id, user_id, receiver_name, phone_number, street_address, district, city, " +
+                    "postal_code, is_default, address_type, notes) " +
+                    "VALUES (1, 1, 'Nguyễn Văn A', '0900000001', '1 Lê Lợi', 'Quận 1', 'TP.HCM', NULL, 1, 'HOME', NULL)",
+            "INSERT INTO products (id, category_id, name, description, price, stock_quantity, image_url, is_active) " +
+                    "VALUES (1, 1, 'Điện thoại Đồng Hồ', 'Màn hình lớn', '29990000.00', 10, NULL, 1)",
+            "INSERT INTO products (id, category_id, name, description, price, stock_quantity, image_url, is_active) " +
+                    "VALUES (2, 1, 'Ốp lưng', 'Dành cho điện thoại', '149999.5', 0, NULL, 1)",
+            "INSERT INTO orders (id, user_id, shipping_address_id, total_amount, status, order_date, payment_method) " +
+                    "VALUES (1, 1, 1, '30139999.50', 'delivered', 1700000000000, 'cash')",
+            "INSERT INTO order_items (id, order_id, product_id, quantity, price_at_purchase) " +
+                    "VALUES (1, 1, 1, 1, '29990000'), (2, 1, 2, 1, '149999.5')",
+            "INSERT INTO reviews (id, user_id, product_id, rating, comment, created_at) " +
+                    "VALUES (1, 1, 1, 5, 'Tốt', 1700000000000)",
+            "INSERT INTO cart (user_id, product_id, quantity, added_at) VALUES (1, 2, 3, 1700000000000)",
+            "INSERT INTO wishlist (user_id, product_id, added_at) VALUES (1, 1, 1700000000000)"
+    };
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void createVersion3Database() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        try (SQLiteDatabase v3 = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DB_NAME), null)) {
+            for (String statement : V3_SCHEMA) {
+                v3.execSQL(statement);
+            }
+            for (String statement : V3_DATA) {
+                v3.execSQL(statement);
+            }
+            v3.setVersion(3);
+        }
+    }
+
+    @After
+    public void deleteDatabase() {
+        if (db != null) {
+            db.close();
+        }
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void migrateFrom3_keepsRowsAndConvertsMoney() {
+        db = openWithMigrations();
+
+        assertEquals(1, db.userDao().getUserCountSync());
+        assertEquals(2, db.productDao().getTotalProductCount());
+
+        List<Product> products = db.productDao().getAllActiveProductsSync();
+        Product phone = products.get(0).getId() == 1 ? products.get(0) : products.get(1);
+        Product phoneCase = products.get(0).getId() == 2 ? products.get(0) : products.get(1);
+        assertEquals(0, new BigDecimal("29990000").compareTo(phone.getPrice()));
+        // 149999.5 làm tròn HALF_UP về đồng
+        assertEquals(0, new BigDecimal("150000").compareTo(phoneCase.getPrice()));
+
+        assertEquals(0, new BigDecimal("30140000").compareTo(db.orderDao().getOrderByIdSync(1).getTotalAmount()));
+        assertEquals(0, new BigDecimal("30140000").compareTo(db.orderItemDao().getOrderTotalSync(1)));
+
+        assertEquals(1, db.cartDao().getCartItemsSync(1).size());
+        assertEquals(3, db.cartDao().getCartItem(1, 2).getQuantity());
+        assertNotNull(db.wishlistDao().getWishlistItem(1, 1));
+        assertNotNull(db.reviewDao().getUserReviewForProduct(1, 1));
+    }
+
+    @Test
+    public void migrateFrom3_backfillsSearchKeysAndFtsIndex() {
+        db = openWithMigrations();
+
+        // Tìm không dấu phải ra tên có dấu (search_name được backfill, products_fts được rebuild)
+        List<Product> byName = db.productDao().searchProductsSync(FtsQueryBuilder.build("dong ho"));
+        assertEquals(1, byName.size());
+        assertEquals(1, byName.get(0).getId());
+
+        List<Product> byDescription = db.productDao().searchProductsSync(FtsQueryBuilder.build("dien thoai"));
+        assertEquals(2, byDescription.size());
+
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query("SELECT search_name FROM categories WHERE id = 1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("dien thoai", cursor.getString(0));
+        }
+    }
+
+    @Test
+    public void migrateFrom3_triggersKeepFtsInSync() {
+        db = openWithMigrations();
+
+        Product phone = db.productDao().getAllActiveProductsSync().get(0);
+        phone.setName("Máy tính bảng");
+        db.productDao().updateProduct(phone);
+
+        assertEquals(1, db.productDao().searchProductsSync(FtsQueryBuilder.build("may tinh")).size());
+    }
+
+    @Test
+    public void migrateFrom3_createsCompositeIndexes() {
+        db = openWithMigrations();
+
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new Object[] { "index_orders_user_id_order_date" })) {
+            assertTrue(cursor.moveToFirst());
+        }
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new Object[] { "index_products_category_id" })) {
+            assertFalse(cursor.moveToFirst());
+        }
+    }
+
+    @Test
+    public void migrateFrom3_backfillsSalesRollupsAndTriggersKeepThemCurrent() {
+        db = openWithMigrations();
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+
+        // 1700000000000 là giữa tháng 11/2023 ở mọi múi giờ
+        assertMonthRollup(sqlite, 1, 1, 30140000L);
+
+        sqlite.execSQL("UPDATE orders SET status = 'cancelled' WHERE id = 1");
+        assertMonthRollup(sqlite, 1, 0, 0L);
+
+        sqlite.execSQL("INSERT INTO orders (user_id, shipping_address_id, total_amount, status, order_date, " +
+                "payment_method) VALUES (1, 1, 500000, 'confirmed', 1700000000000, 'cash')");
+        assertMonthRollup(sqlite, 2, 1, 500000L);
+
+        sqlite.execSQL("DELETE FROM orders WHERE id = 1");
+        assertMonthRollup(sqlite, 1, 1, 500000L);
+    }
+
+    @Test
+    public void migrateFrom3_backfillsSalesCounters() {
+        db = openWithMigrations();
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getReadableDatabase();
+
+        try (Cursor cursor = sqlite.query("SELECT units_sold, revenue FROM product_sales WHERE product_id = 1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getInt(0));
+            assertEquals(29990000L, cursor.getLong(1));
+        }
+        try (Cursor cursor = sqlite.query("SELECT units_sold, revenue FROM category_sales WHERE category_id = 1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+            assertEquals(30140000L, cursor.getLong(1));
+        }
+        try (Cursor cursor = sqlite.query("SELECT COUNT(*) FROM order_items WHERE category_id = 1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrateFrom3_backfillsRatingStatsAndTriggersKeepThemCurrent() {
+        db = openWithMigrations();
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+
+        assertRatingStats(sqlite, 1, 5, 1, 0);
+
+        sqlite.execSQL("INSERT INTO reviews (user_id, product_id, rating, comment, created_at) " +
+                "VALUES (1, 1, 3, 'Tạm được', 1700000000001)");
+        assertRatingStats(sqlite, 2, 8, 1, 1);
+
+        sqlite.execSQL("UPDATE reviews SET rating = 4 WHERE id = 1");
+        assertRatingStats(sqlite, 2, 7, 0, 1);
+
+        // Trang sản phẩm mang theo thống kê; sản phẩm chưa có review thì ratingStats null
+        List<ProductDao.RatedProduct> page = db.productDao().getActiveProductsPageByName("", 0, 10);
+        assertEquals(2, page.size());
+        for (ProductDao.RatedProduct item : page) {
+            if (item.product.getId() == 1) {
+                assertEquals(2, item.ratingStats.getRatingCount());
+                assertEquals(3.5, item.ratingStats.getAverageRating(), 0.001);
+            } else {
+                assertNull(item.ratingStats);
+            }
+        }
+
+        sqlite.execSQL("DELETE FROM reviews WHERE product_id = 1");
+        try (Cursor cursor = sqlite.query("SELECT * FROM product_rating_stats WHERE product_id = 1")) {
+            assertFalse(cursor.moveToFirst());
+        }
+    }
+
+    private void assertRatingStats(SupportSQLiteDatabase sqlite, int count, int sum, int fiveStars, int threeStars) {
+        try (Cursor cursor = sqlite.query("SELECT rating_count, rating_sum, star_5, star_3 " +
+                "FROM product_rating_stats WHERE product_id = 1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(count, cursor.getInt(0));
+            assertEquals(sum, cursor.getInt(1));
+            assertEquals(fiveStars, cursor.getInt(2));
+            assertEquals(threeStars, cursor.getInt(3));
+        }
+    }
+
+    private void assertMonthRollup(SupportSQLiteDatabase sqlite, int orders, int revenueOrders, long revenue) {
+        try (Cursor cursor = sqlite.query("SELECT order_count, revenue_order_count, revenue FROM sales_rollups " +
+                "WHERE granularity = 'month' AND period_start = '2023-11-01'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(orders, cursor.getInt(0));
+            assertEquals(revenueOrders, cursor.getInt(1));
+            assertEquals(revenue, cursor.getLong(2));
+        }
+    }
+
+    // Không có fallbackToDestructiveMigration: thiếu bước nào là Room ném lỗi thay vì xóa dữ liệu
+    private AppDatabase openWithMigrations() {
+        AppDatabase database = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(Migrations.ALL)
+                .allowMainThreadQueries()
+                .build();
+        database.getOpenHelper().getWritableDatabase();
+        return database;
+    }
+}
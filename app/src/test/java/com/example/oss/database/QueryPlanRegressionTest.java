@@ -0,0 +1,344 @@
+package com.example.oss.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Chạy EXPLAIN QUERY PLAN cho mọi @Query trong package dao trên AppDatabase in-memory có dữ liệu
+ * cỡ thật, và fail khi query trên bảng nóng quét cả bảng (SCAN) hoặc phải sort bằng temp B-tree.
+ *
+ * Room không giữ @Query lúc runtime nên SQL được đọc thẳng từ source của DAO.
+ * Query nào cố ý quét/sort thì ghi vào ALLOWED kèm lý do; query nóng phải đi đúng index ghép
+ * nào thì ghi vào EXPECTED_INDEX.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class QueryPlanRegressionTest {
+
+    private static final File DAO_SOURCE_DIR = new File("src/main/java/com/example/oss/dao");
+
+    private static final Set<String> HOT_TABLES = Set.of(
+            "products", "orders", "order_items", "reviews", "cart", "wishlist");
+
+    private static final Map<String, String> ALLOWED = new HashMap<>();
+
+    static {
+        ALLOWED.put("OrderDao.getAllOrders", "Danh sách toàn bộ đơn cho admin, đi theo index order_date");
+        ALLOWED.put("OrderDao.getAllOrdersSync", "Danh sách toàn bộ đơn cho admin, đi theo index order_date");
+        ALLOWED.put("OrderDao.getOrderManagementRows", "Màn quản lý đơn của admin, đi theo index order_date");
+        ALLOWED.put("OrderDao.getOrderStatistics", "Đếm theo status trên toàn bảng, quét covering index");
+        ALLOWED.put("ReviewDao.getAllReviews", "Danh sách toàn bộ review cho admin, đi theo index created_at");
+        ALLOWED.put("ProductDao.getAllProducts", "Admin xem cả sản phẩm đã ẩn");
+        ALLOWED.put("ProductDao.getAllProductsByCategory", "Admin, chỉ sort các sản phẩm của một danh mục");
+        ALLOWED.put("ProductDao.getTotalProductCount", "COUNT(*) toàn bảng cho thống kê");
+        ALLOWED.put("ProductDao.searchProductsAdvanced", "ORDER BY CASE theo sortBy, không index nào khớp");
+        // Các query tìm kiếm chỉ sort tập kết quả khớp MATCH, không phải cả bảng
+        ALLOWED.put("ProductDao.searchAllProducts", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchAllProductsByCategory", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchProducts", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchProductsWithCategories", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchProductsSync", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchNameMatchesPage", "Sort tập khớp FTS");
+        ALLOWED.put("ProductDao.searchOtherMatchesPage", "Sort tập khớp FTS");
+    }
+
+    // Query nóng -> index ghép (user-005) mà kế hoạch phải dùng, không được sort bằng temp B-tree
+    private static final Map<String, String> EXPECTED_INDEX = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEX.put("ProductDao.getActiveProductsPageByName", "index_products_is_active_name");
+        EXPECTED_INDEX.put("ProductDao.getActiveProductsPageByPrice", "index_products_is_active_price");
+        EXPECTED_INDEX.put("ProductDao.getCategoryProductsPageByName", "index_products_category_id_is_active_name");
+        EXPECTED_INDEX.put("ProductDao.getProductsByCategory", "index_products_category_id_is_active_name");
+        EXPECTED_INDEX.put("OrderDao.getOrdersByUser", "index_orders_user_id_order_date");
+        EXPECTED_INDEX.put("OrderDao.getOrdersByStatus", "index_orders_status_order_date");
+        EXPECTED_INDEX.put("OrderDao.getAllOrders", "index_orders_order_date");
+        EXPECTED_INDEX.put("OrderDao.getOrdersByDateRange", "index_orders_order_date");
+        EXPECTED_INDEX.put("ReviewDao.getReviewsByProduct", "index_reviews_product_id_created_at");
+        EXPECTED_INDEX.put("ReviewDao.getReviewsByUser", "index_reviews_user_id_created_at");
+        EXPECTED_INDEX.put("ReviewDao.getAllReviews", "index_reviews_created_at");
+        EXPECTED_INDEX.put("CartDao.getCartItems", "index_cart_user_id_added_at");
+        EXPECTED_INDEX.put("CartDao.getCartWithProducts", "index_cart_user_id_added_at");
+        EXPECTED_INDEX.put("WishlistDao.getWishlistByUser", "index_wishlist_user_id_added_at");
+        EXPECTED_INDEX.put("WishlistDao.getWishlistProducts", "index_wishlist_user_id_added_at");
+    }
+
+    private static final String[] SEED = {
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 20) " +
+                    "INSERT INTO categories (id, name, description, parent_id, search_name) " +
+                    "SELECT i, 'Category ' || i, NULL, NULL, 'category ' || i FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) " +
+                    "INSERT INTO users (id, full_name, email, password, phone_number, role, status, created_at) " +
+                    "SELECT i, 'User ' || i, 'user' || i || '@example.com', 'x', '09' || (10000000 + i), " +
+                    "CASE WHEN i % 100 = 0 THEN 'admin' ELSE 'customer' END, 'active', " +
+                    "1700000000000 + i * 60000 FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) " +
+                    "INSERT INTO addresses (id, user_id, receiver_name, phone_number, street_address, district, " +
+                    "city, postal_code, is_default, address_type, notes) " +
+                    "SELECT i, i, 'User ' || i, '09' || (10000000 + i), 'Street ' || i, 'District', 'City', " +
+                    "NULL, 1, 'HOME', NULL FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 5000) " +
+                    "INSERT INTO products (id, category_id, name, description, price, stock_quantity, image_url, " +
+                    "is_active, search_name, search_description) " +
+                    "SELECT i, 1 + i % 20, 'Product ' || i, 'Description ' || i, 10000 + (i * 7919) % 50000000, " +
+                    "i % 50, NULL, CASE WHEN i % 20 = 0 THEN 0 ELSE 1 END, 'product ' || i, " +
+                    "'description ' || i FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 20000) " +
+                    "INSERT INTO orders (id, user_id, shipping_address_id, total_amount, status, order_date, " +
+                    "payment_method) " +
+                    "SELECT i, 1 + i % 2000, 1 + i % 2000, 100000 + i, CASE i % 5 WHEN 0 THEN 'pending' " +
+                    "WHEN 1 THEN 'confirmed' WHEN 2 THEN 'shipped' WHEN 3 THEN 'delivered' ELSE 'cancelled' END, " +
+                    "1700000000000 + i * 600000, 'COD' FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 60000) " +
+                    "INSERT INTO order_items (id, order_id, product_id, quantity, price_at_purchase) " +
+                    "SELECT i, 1 + i % 20000, 1 + (i * 31) % 5000, 1 + i % 3, 10000 + i FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 30000) " +
+                    "INSERT INTO reviews (id, user_id, product_id, rating, comment, created_at) " +
+                    "SELECT i, 1 + i % 2000, 1 + (i * 17) % 5000, 1 + i % 5, 'Review ' || i, " +
+                    "1700000000000 + i * 60000 FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 10000) " +
+                    "INSERT OR IGNORE INTO cart (user_id, product_id, quantity, added_at) " +
+                    "SELECT 1 + i % 2000, 1 + (i * 13) % 5000, 1 + i % 4, 1700000000000 + i * 1000 FROM n",
+            "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 10000) " +
+                    "INSERT OR IGNORE INTO wishlist (user_id, product_id, added_at) " +
+                    "SELECT 1 + i % 2000, 1 + (i * 7) % 5000, 1700000000000 + i * 1000 FROM n"
+    };
+
+    private static final Pattern STRING_CONSTANT = Pattern.compile("\\bString\\s+([A-Z][A-Z0-9_]*)\\s*=");
+    private static final Pattern SCAN_OR_SEARCH = Pattern.compile("^(SCAN|SEARCH) (?:TABLE )?(\\w+)");
+    private static final Pattern TABLE_REF = Pattern.compile(
+            "\\b(?:FROM|JOIN)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(\\w+))?", Pattern.CASE_INSENSITIVE);
+    private static final Set<String> NOT_ALIASES = Set.of(
+            "WHERE", "INNER", "LEFT", "CROSS", "JOIN", "ON", "ORDER", "GROUP", "LIMIT", "SET", "UNION");
+
+    private AppDatabase db;
+    private SupportSQLiteDatabase sqlite;
+
+    @Before
+    public void openDatabase() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        sqlite = db.getOpenHelper().getWritableDatabase();
+        for (String statement : SEED) {
+            sqlite.execSQL(statement);
+        }
+    }
+
+    @After
+    public void closeDatabase() {
+        db.close();
+    }
+
+    // Máy người dùng không chạy ANALYZE nên planner chỉ dựa vào heuristic
+    @Test
+    public void daoQueries_withoutStatistics_avoidScansOnHotTables() throws IOException {
+        assertNoViolations(checkAllQueries());
+    }
+
+    // Sau ANALYZE (vd. PRAGMA optimize) planner có thể đổi ý, kế hoạch vẫn phải giữ được
+    @Test
+    public void daoQueries_withStatistics_avoidScansOnHotTables() throws IOException {
+        sqlite.execSQL("ANALYZE");
+        assertNoViolations(checkAllQueries());
+    }
+
+    @Test
+    public void hotQueries_withoutStatistics_useExpectedIndexes() throws IOException {
+        assertNoViolations(checkExpectedIndexes());
+    }
+
+    @Test
+    public void hotQueries_withStatistics_useExpectedIndexes() throws IOException {
+        sqlite.execSQL("ANALYZE");
+        assertNoViolations(checkExpectedIndexes());
+    }
+
+    @Test
+    public void allowList_onlyNamesExistingQueries() throws IOException {
+        Map<String, String> queries = readDaoQueries();
+        for (String name : ALLOWED.keySet()) {
+            assertTrue("ALLOWED names a query that no longer exists: " + name, queries.containsKey(name));
+        }
+        for (String name : EXPECTED_INDEX.keySet()) {
+            assertTrue("EXPECTED_INDEX names a query that no longer exists: " + name, queries.containsKey(name));
+        }
+    }
+
+    private List<String> checkExpectedIndexes() throws IOException {
+        Map<String, String> queries = readDaoQueries();
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, String> expected : EXPECTED_INDEX.entrySet()) {
+            String sql = queries.get(expected.getKey());
+            assertNotNull("EXPECTED_INDEX names a query that no longer exists: " + expected.getKey(), sql);
+            List<String> plan = explainQueryPlan(sql);
+            String joined = String.join("\n    ", plan);
+            if (!joined.contains(expected.getValue()) || joined.contains("TEMP B-TREE")) {
+                violations.add(expected.getKey() + ": expected " + expected.getValue() + " without sort\n    " + joined);
+            }
+        }
+        return violations;
+    }
+
+    private List<String> checkAllQueries() throws IOException {
+        Map<String, String> queries = readDaoQueries();
+        assertFalse("No @Query found under " + DAO_SOURCE_DIR.getAbsolutePath(), queries.isEmpty());
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            if (ALLOWED.containsKey(query.getKey())) {
+                continue;
+            }
+            String sql = query.getValue();
+            List<String> plan = explainQueryPlan(sql);
+            Map<String, String> tables = tablesByAlias(sql);
+            for (String step : plan) {
+                if (isViolation(step, tables)) {
+                    violations.add(query.getKey() + ": " + step + "\n    " + String.join("\n    ", plan));
+                    break;
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static boolean isViolation(String step, Map<String, String> tables) {
+        if (step.contains("TEMP B-TREE")) {
+            for (String table : tables.values()) {
+                if (HOT_TABLES.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Matcher matcher = SCAN_OR_SEARCH.matcher(step);
+        if (!matcher.find() || !matcher.group(1).equals("SCAN") || step.contains("VIRTUAL TABLE")) {
+            return false;
+        }
+        String name = matcher.group(2);
+        String table = tables.getOrDefault(name.toLowerCase(Locale.ROOT), name);
+        return HOT_TABLES.contains(table.toLowerCase(Locale.ROOT));
+    }
+
+    private static void assertNoViolations(List<String> violations) {
+        if (!violations.isEmpty()) {
+            fail("Full scan, temp B-tree or missing index on a hot table:\n" + String.join("\n", violations));
+        }
+    }
+
+    private List<String> explainQueryPlan(String sql) {
+        // Tham số Room (:name) -> ?, không bind (NULL) vẫn ra được kế hoạch
+        String bindable = sql.replaceAll(":\\w+", "?");
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = sqlite.query("EXPLAIN QUERY PLAN " + bindable)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        return plan;
+    }
+
+    private static Map<String, String> tablesByAlias(String sql) {
+        Map<String, String> tables = new HashMap<>();
+        Matcher matcher = TABLE_REF.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            tables.put(table, table);
+            String alias = matcher.group(2);
+            if (alias != null && !NOT_ALIASES.contains(alias.toUpperCase(Locale.ROOT))) {
+                tables.put(alias.toLowerCase(Locale.ROOT), table);
+            }
+        }
+        return tables;
+    }
+
+    // Ghép các chuỗi literal và hằng đã biết từ pos tới ký tự end đầu tiên nằm ngoài chuỗi; trả về vị trí của end
+    private static int readSql(String code, int pos, char end, Map<String, String> constants, StringBuilder sql) {
+        while (code.charAt(pos) != end) {
+            char c = code.charAt(pos);
+            if (c == '"') {
+                pos++;
+                while (code.charAt(pos) != '"') {
+                    if (code.charAt(pos) == '\\') {
+                        pos++;
+                    }
+                    sql.append(code.charAt(pos));
+                    pos++;
+                }
+                pos++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = pos;
+                while (Character.isJavaIdentifierPart(code.charAt(pos))) {
+                    pos++;
+                }
+                String name = code.substring(start, pos);
+                assertTrue("Unknown constant in @Query: " + name, constants.containsKey(name));
+                sql.append(constants.get(name));
+            } else {
+                pos++;
+            }
+        }
+        return pos;
+    }
+
+    // "XxxDao.method" -> SQL, ghép các chuỗi "..." + "..." trong @Query(...)
+    private static Map<String, String> readDaoQueries() throws IOException {
+        File[] sources = DAO_SOURCE_DIR.listFiles((dir, name) -> name.endsWith("Dao.java"));
+        assertNotNull("DAO sources not found at " + DAO_SOURCE_DIR.getAbsolutePath(), sources);
+        Arrays.sort(sources);
+
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (File source : sources) {
+            String dao = source.getName().replace(".java", "");
+            String code = new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8);
+            // Hằng String khai báo trong DAO, dùng chung phần SQL giữa các @Query
+            Map<String, String> constants = new HashMap<>();
+            Matcher constant = STRING_CONSTANT.matcher(code);
+            while (constant.find()) {
+                StringBuilder value = new StringBuilder();
+                readSql(code, constant.end(), ';', constants, value);
+                constants.put(constant.group(1), value.toString());
+            }
+            int at = code.indexOf("@Query(");
+            while (at >= 0) {
+                StringBuilder sql = new StringBuilder();
+                int pos = readSql(code, at + "@Query(".length(), ')', constants, sql);
+                Matcher method = Pattern.compile("(\\w+)\\s*\\(").matcher(code);
+                assertTrue("No method after @Query in " + dao, method.find(pos + 1));
+                queries.put(dao + "." + method.group(1), sql.toString());
+                at = code.indexOf("@Query(", pos);
+            }
+        }
+        return queries;
+    }
+}